@@ -0,0 +1,112 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.ColumnInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 基准测试使用的合成模型，字段类型按固定顺序循环，保证每次运行的输入一致
+ *
+ * @author wangzhuo
+ */
+class BenchmarkModels {
+
+    private static final String[][] COLUMN_TYPES = {
+            {"BIGINT", "Long", ""},
+            {"VARCHAR", "String", ""},
+            {"INT", "Integer", ""},
+            {"DATETIME", "Date", "java.util.Date"},
+            {"DECIMAL", "BigDecimal", "java.math.BigDecimal"},
+            {"TINYINT", "Boolean", ""},
+            {"TEXT", "String", ""},
+    };
+
+    static BasicConfig basicConfig(boolean writeIfChangedEnable) {
+        return basicConfig(writeIfChangedEnable, TemplateCompiler.ENGINE_FREEMARKER);
+    }
+
+    /**
+     * @param templateEngine 模板引擎，freemarker或compiled
+     */
+    static BasicConfig basicConfig(boolean writeIfChangedEnable, String templateEngine) {
+        return new BasicConfig().toBuilder()
+                .apiDocEnable(true)
+                .apiDocType("swagger")
+                .apiDocVersion("3.0")
+                .overWriteEnable(true)
+                .writeIfChangedEnable(writeIfChangedEnable)
+                .incrementalEnable(false)
+                .lombokEnable(true)
+                .layerSuffix(new HashMap<>())
+                .customProperties(new HashMap<>())
+                .templateEngine(templateEngine)
+                .build();
+    }
+
+    /**
+     * 与插件执行时相同的公共信息，尚未装配表结构
+     */
+    static BasicInfo commonInfo() {
+        String packageUrl = "com.example.demo";
+        return new BasicInfo().toBuilder()
+                .author("benchmark")
+                .packageUrl(packageUrl)
+                .dtoUrl(packageUrl + ".dto")
+                .entityUrl(packageUrl + ".domain")
+                .serviceUrl(packageUrl + ".service")
+                .implUrl(packageUrl + ".service.impl")
+                .mapperUrl(packageUrl + ".mapper")
+                .utilUrl(packageUrl + ".utils")
+                .resUrl(packageUrl + ".res")
+                .swaggerEnable(true)
+                .apiDocType("swagger")
+                .apiDocVersion("3.0")
+                .overWriteEnable(true)
+                .lombokEnable(true)
+                .databaseType("MYSQL")
+                .build();
+    }
+
+    /**
+     * 构建包含指定字段数的表模型，第一个字段为自增主键
+     */
+    static BasicInfo tableInfo(String tableName, int columnCount) {
+        List<ColumnInfo> columnInfos = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            String[] type = COLUMN_TYPES[i % COLUMN_TYPES.length];
+            String columnName = i == 0 ? "id" : "column_" + i;
+            columnInfos.add(ColumnInfo.builder()
+                    .columnName(columnName)
+                    .columnType(type[0])
+                    .javaName(CovertUtils.underline2Camel(columnName, false))
+                    .javaType(type[1])
+                    .javaTypePackage(type[2])
+                    .columnComment("字段" + i)
+                    .primaryKey(i == 0)
+                    .primaryKeySeq(i == 0 ? 1 : null)
+                    .autoIncrement(i == 0)
+                    .indexed(i == 0)
+                    .build());
+        }
+
+        BasicInfo basicInfo = commonInfo();
+        basicInfo.setTableName(tableName);
+        basicInfo.setTableComment("基准测试表");
+        basicInfo.setEntityName(CovertUtils.underline2Camel(tableName, true));
+        basicInfo.setEntityStartByLowCase(CovertUtils.underline2Camel(tableName, false));
+        basicInfo.setImportPackages(Arrays.asList("lombok.Data", "lombok.NoArgsConstructor",
+                "lombok.AllArgsConstructor", "java.util.Date", "java.math.BigDecimal"));
+        basicInfo.setColumnInfos(columnInfos);
+        basicInfo.setPrimaryKeys(columnInfos.subList(0, 1));
+        basicInfo.setIdColumn(columnInfos.get(0));
+        basicInfo.setSortKey(columnInfos.get(0));
+        basicInfo.setInsertColumnInfos(columnInfos.subList(1, columnCount));
+        basicInfo.setUpdateColumnInfos(columnInfos.subList(1, columnCount));
+        return basicInfo;
+    }
+}
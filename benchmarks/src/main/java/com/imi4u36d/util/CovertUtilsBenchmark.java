@@ -0,0 +1,41 @@
+package com.imi4u36d.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下划线转驼峰基准测试
+ *
+ * @author wangzhuo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CovertUtilsBenchmark {
+
+    @Param({"id", "ad_account_info", "t_ad_account_auth_info_history_detail"})
+    public String name;
+
+    @Benchmark
+    public String lowerCamel() {
+        return CovertUtils.underline2Camel(name, false);
+    }
+
+    @Benchmark
+    public String upperCamel() {
+        return CovertUtils.underline2Camel(name, true);
+    }
+}
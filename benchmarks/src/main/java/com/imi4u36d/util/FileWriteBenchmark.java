@@ -0,0 +1,103 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.BaseResModel;
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.FileType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 文件生成基准测试：计算一张表的全部输出路径并渲染写入，输出目录默认使用tmpfs（/dev/shm）排除磁盘抖动
+ *
+ * @author wangzhuo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileWriteBenchmark {
+
+    private static final List<FileType> NORMAL_FILE_TYPES = Arrays.stream(FileType.values())
+            .filter(fileType -> !fileType.isCommon())
+            .collect(Collectors.toList());
+
+    @Param({"10", "100"})
+    public int columns;
+
+    /**
+     * 是否仅在内容变化时写入，开启后重复生成相同内容时只读取比较
+     */
+    @Param({"false", "true"})
+    public boolean writeIfChangedEnable;
+
+    /**
+     * 输出目录的父目录，为空时优先使用/dev/shm
+     */
+    @Param({""})
+    public String baseDir;
+
+    private BasicConfig basicConfig;
+
+    private BasicInfo basicInfo;
+
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        basicConfig = BenchmarkModels.basicConfig(writeIfChangedEnable);
+        basicInfo = BenchmarkModels.tableInfo("ad_account_info", columns);
+
+        File parent = new File(baseDir.isEmpty() ? "/dev/shm" : baseDir);
+        if (!parent.isDirectory()) {
+            parent = new File(System.getProperty("java.io.tmpdir"));
+        }
+        outputDir = Files.createTempDirectory(parent.toPath(), "code-generate-write-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(outputDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void generateTable(Blackhole blackhole) {
+        Map<FileType, String> fileNames = FreemarkerUtils.getFileNames(basicInfo, NORMAL_FILE_TYPES,
+                outputDir.toString());
+        for (FileType fileType : NORMAL_FILE_TYPES) {
+            BaseResModel result = FreemarkerUtils.createFile(basicConfig, basicInfo, fileType,
+                    fileNames.get(fileType), null, null);
+            blackhole.consume(result);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.config.DBConfiguration;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.ScanMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表结构扫描端到端基准测试：在内嵌H2数据库中生成大量表，按不同扫描模式执行完整扫描
+ *
+ * @author wangzhuo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchemaScanBenchmark {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:scan-benchmark;DB_CLOSE_DELAY=-1";
+
+    @Param({"1000", "3000"})
+    public int tables;
+
+    @Param({"default", "bulk", "parallel"})
+    public String scanMode;
+
+    /**
+     * 每张表的字段数
+     */
+    @Param({"20"})
+    public int columns;
+
+    private Connection keepAlive;
+
+    private BasicInfo basicInfo;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        // 保持一个连接，避免内存数据库在连接池重建时被销毁
+        keepAlive = DriverManager.getConnection(JDBC_URL, "sa", "");
+        List<String> tableNames = new ArrayList<>(tables);
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+            for (int i = 0; i < tables; i++) {
+                String tableName = "BENCH_TABLE_" + i;
+                stmt.execute(createTableSql(tableName));
+                stmt.execute("COMMENT ON TABLE " + tableName + " IS '基准测试表" + i + "'");
+                tableNames.add(tableName);
+            }
+        }
+
+        DBConfiguration dbConfiguration = new DBConfiguration();
+        dbConfiguration.setUrl(JDBC_URL);
+        dbConfiguration.setUsername("sa");
+        dbConfiguration.setPwd("");
+        dbConfiguration.setDriverClassName("org.h2.Driver");
+        dbConfiguration.setTableNames(tableNames);
+        dbConfiguration.setScanMode(ScanMode.fromConfig(scanMode));
+        DBUtils.getInstance().setDbConfiguration(dbConfiguration);
+
+        basicInfo = BenchmarkModels.commonInfo();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        DBUtils.getInstance().closeConnection();
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public Map<String, BasicInfo> scan() {
+        DBUtils.getInstance().scanInfoToModel(basicInfo);
+        return DBUtils.getInstance().getTableInfoMap();
+    }
+
+    private String createTableSql(String tableName) {
+        StringBuilder sql = new StringBuilder("CREATE TABLE ").append(tableName).append(" (ID BIGINT PRIMARY KEY");
+        String[] types = {"VARCHAR(64)", "INT", "TIMESTAMP", "DECIMAL(12,2)", "BOOLEAN", "BIGINT"};
+        for (int i = 1; i < columns; i++) {
+            sql.append(", COLUMN_").append(i).append(' ').append(types[i % types.length]);
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.FileType;
+import com.imi4u36d.model.RenderedFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模板渲染基准测试：每种文件类型分别在不同字段数的表模型上渲染到内存，不写入文件；
+ * 分别使用FreeMarker和编译模板渲染，编译模板在Setup中编译，编译耗时不计入结果
+ *
+ * @author wangzhuo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"CONTROLLER", "SERVICE", "IMPL", "MAPPER", "XML", "ENTITY", "DTO", "BASERESDTO", "RES"})
+    public FileType fileType;
+
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    @Param({"freemarker", "compiled"})
+    public String templateEngine;
+
+    private BasicConfig basicConfig;
+
+    private BasicInfo basicInfo;
+
+    private String fileName;
+
+    @Setup
+    public void setup() {
+        basicConfig = BenchmarkModels.basicConfig(false, templateEngine);
+        basicInfo = BenchmarkModels.tableInfo("ad_account_info", columns);
+        // 渲染阶段不会创建文件，路径只用于判断文件是否已存在
+        File outputDir = new File(System.getProperty("java.io.tmpdir"), "code-generate-render-benchmark");
+        fileName = FreemarkerUtils.getFileNames(basicInfo, Collections.singletonList(fileType),
+                outputDir.getPath()).get(fileType);
+        // 第一次渲染时加载模板，使用编译模板时同时编译模板目录下的全部模板
+        render();
+    }
+
+    @Benchmark
+    public RenderedFile render() {
+        return FreemarkerUtils.renderFile(basicConfig, basicInfo, fileType, fileName, null, null);
+    }
+}
@@ -0,0 +1,605 @@
+package com.imi4u36d;
+
+import com.imi4u36d.config.DBConfiguration;
+import com.imi4u36d.generate.CodeGenerator;
+import com.imi4u36d.generate.GenerateContext;
+import com.imi4u36d.generate.GeneratePipeline;
+import com.imi4u36d.model.BaseResModel;
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.DatabaseType;
+import com.imi4u36d.model.ScanMode;
+import com.imi4u36d.util.BuildManifest;
+import com.imi4u36d.util.DBUtils;
+import com.imi4u36d.util.ExecutorUtils;
+import com.imi4u36d.util.FileOutputWriter;
+import com.imi4u36d.util.FreemarkerUtils;
+import com.imi4u36d.util.GenerateMetrics;
+import com.imi4u36d.util.MemoryOutputSink;
+import com.imi4u36d.util.ModelObjectWrapper;
+import com.imi4u36d.util.OutputSink;
+import com.imi4u36d.util.TemplateCompiler;
+import com.imi4u36d.util.ZipOutputSink;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 代码生成插件目标的公共部分：读取和校验配置文件、初始化数据库配置、扫描表结构并生成代码文件
+ *
+ * @author wangzhuo
+ */
+public abstract class AbstractCodeGenerateMojo extends AbstractMojo {
+
+    @Parameter(property = "configFile", defaultValue = "src/main/resources/codeGenerate-config.yml")
+    protected File configFile;
+
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true)
+    protected File buildDirectory;
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractCodeGenerateMojo.class);
+
+    /**
+     * 读取并校验配置文件，初始化数据库配置
+     *
+     * @return 生成所需的配置
+     */
+    protected GenerateContext loadContext() throws FileNotFoundException {
+        long startNanos = System.nanoTime();
+        logger.info("读取配置文件: {}", configFile.getAbsolutePath());
+
+        // 读取配置文件
+        var yaml = new Yaml();
+        @SuppressWarnings("unchecked")
+        var obj = (Map<String, Object>) yaml.load(new FileInputStream(configFile));
+
+        // 验证配置
+        Objects.requireNonNull(obj, "配置文件为空");
+
+        // 验证配置完整性
+        validateConfig(obj);
+
+        // 生成指标配置
+        @SuppressWarnings("unchecked")
+        var metricsConfig = (Map<String, Object>) obj.getOrDefault("metrics", new HashMap<>());
+        var metricsEnable = Boolean.parseBoolean(metricsConfig.getOrDefault("enable", "false").toString());
+        // 报告输出目录
+        var metricsReportDir = metricsConfig.getOrDefault("reportDir",
+                new File(buildDirectory, "code-generate").getPath()).toString();
+        // 报告格式，多个格式以逗号分隔: json, csv
+        var metricsFormats = Arrays.asList(metricsConfig.getOrDefault("format", GenerateMetrics.FORMAT_JSON)
+                .toString().split(","));
+        // 摘要中列出的最慢表和文件数量
+        var metricsTopN = Integer.parseInt(metricsConfig.getOrDefault("topN", 10).toString());
+        GenerateMetrics.getInstance().reset(metricsEnable);
+        logger.info("是否开启生成指标: {}", metricsEnable);
+
+        var database = (Map<String, Object>) obj.get("database");
+        var tables = (List<Map<String, String>>) obj.get("tables");
+        var swaggerConfig = (Map<String, Object>) obj.get("swaggerConfig");
+        var outputConfig = (Map<String, Object>) obj.get("outputConfig");
+        var ftlFileDirConfig = (String) obj.get("ftlFileDir");
+
+        // 生成引擎配置
+        @SuppressWarnings("unchecked")
+        var generateConfig = (Map<String, Object>) obj.getOrDefault("generateConfig", new HashMap<>());
+        // 生成并行度，默认为CPU核数
+        var parallelism = Integer.parseInt(generateConfig.getOrDefault("parallelism",
+                Runtime.getRuntime().availableProcessors()).toString());
+        logger.info("生成并行度: {}", parallelism);
+        // 是否开启流水线生成：表扫描完成后立即渲染和写入，不等待全部表扫描完成
+        var pipelineEnable = Boolean.parseBoolean(generateConfig.getOrDefault("pipelineEnable", "false").toString());
+        // 阶段间队列容量
+        var queueCapacity = Integer.parseInt(generateConfig.getOrDefault("queueCapacity", 256).toString());
+        // 写入阶段执行器类型: virtual(虚拟线程，不支持时退回固定线程池), fixed(固定线程池)
+        var executorType = generateConfig.getOrDefault("executor", ExecutorUtils.EXECUTOR_VIRTUAL).toString();
+        // 写入线程数
+        var writeThreads = Integer.parseInt(generateConfig.getOrDefault("writeThreads", parallelism).toString());
+        logger.info("是否开启流水线生成: {}", pipelineEnable);
+        // 模板引擎: freemarker(解释执行), compiled(编译为Java类，不支持的模板退回FreeMarker)
+        var templateEngine = generateConfig.getOrDefault("templateEngine", TemplateCompiler.ENGINE_FREEMARKER)
+                .toString().toLowerCase(Locale.ROOT);
+        if (!TemplateCompiler.ENGINE_FREEMARKER.equals(templateEngine)
+                && !TemplateCompiler.ENGINE_COMPILED.equals(templateEngine)) {
+            throw new IllegalArgumentException("不支持的模板引擎: " + templateEngine);
+        }
+        // 是否同时使用FreeMarker渲染并校验编译模板的渲染结果
+        var templateVerifyEnable = Boolean.parseBoolean(generateConfig.getOrDefault("templateVerifyEnable",
+                "false").toString());
+        // 编译模板缓存目录，模板未变化时跳过编译
+        var templateCacheDir = generateConfig.getOrDefault("templateCacheDir",
+                new File(buildDirectory, "code-generate" + File.separator + "compiled-templates").getPath())
+                .toString();
+        logger.info("模板引擎: {}, 是否校验编译模板: {}", templateEngine, templateVerifyEnable);
+
+        // 自定义属性
+        @SuppressWarnings("unchecked")
+        var customProperties = (Map<String, Object>) obj.getOrDefault("customProperties", new HashMap<>());
+
+        // Lombok支持
+        var lombokEnable = Boolean.parseBoolean(customProperties.getOrDefault("lombokEnable", "false").toString());
+        logger.info("Lombok支持状态: {}", lombokEnable);
+
+        // 批量新增每批最大行数和SQL最大估算字节数（需小于数据库的max_allowed_packet等限制）
+        var batchSize = Integer.parseInt(customProperties.getOrDefault("batchSize", 500).toString());
+        var batchMaxBytes = Integer.parseInt(customProperties.getOrDefault("batchMaxBytes", 4 * 1024 * 1024)
+                .toString());
+        if (batchSize <= 0 || batchMaxBytes <= 0) {
+            throw new IllegalArgumentException("batchSize和batchMaxBytes必须大于0");
+        }
+        logger.info("批量新增每批最大行数: {}, 最大字节数: {}", batchSize, batchMaxBytes);
+
+        // 按id列表查询和删除时in列表的最大长度（Oracle限制为1000），以及并发查询使用的Executor Bean名称
+        var inListChunkSize = Integer.parseInt(customProperties.getOrDefault("inListChunkSize", 1000).toString());
+        if (inListChunkSize <= 0) {
+            throw new IllegalArgumentException("inListChunkSize必须大于0");
+        }
+        var inListExecutor = customProperties.getOrDefault("inListExecutor", "").toString();
+        logger.info("in列表最大长度: {}, 并发查询Executor: {}", inListChunkSize,
+                inListExecutor.isEmpty() ? "无" : inListExecutor);
+
+        // ServiceImpl本地缓存，可在tables中按表覆盖
+        var cacheEnable = Boolean.parseBoolean(customProperties.getOrDefault("cacheEnable", "false").toString());
+        var cacheMaxSize = Integer.parseInt(customProperties.getOrDefault("cacheMaxSize", 10000).toString());
+        var cacheTtlSeconds = Integer.parseInt(customProperties.getOrDefault("cacheTtlSeconds", 300).toString());
+        logger.info("本地缓存状态: {}, 最大条数: {}, 过期秒数: {}", cacheEnable, cacheMaxSize, cacheTtlSeconds);
+        // 总数缓存过期秒数，为0时只在开启本地缓存时缓存总数
+        var countCacheTtlSeconds = Integer.parseInt(customProperties.getOrDefault("countCacheTtlSeconds", 0).toString());
+        logger.info("总数缓存过期秒数: {}", countCacheTtlSeconds);
+
+        // 读写分离，生成路由数据源和只读事务注解，ServiceImpl的只读事务路由到从库
+        var readWriteSplitEnable = Boolean.parseBoolean(customProperties.getOrDefault("readWriteSplitEnable", "false").toString());
+        logger.info("读写分离状态: {}", readWriteSplitEnable);
+
+        // 流式查询每次读取的行数（MySQL按行流式读取，不使用该值）
+        var streamFetchSize = Integer.parseInt(customProperties.getOrDefault("streamFetchSize", 1000).toString());
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("streamFetchSize必须大于0");
+        }
+
+        // 大字段延迟加载，声明长度超过heavyColumnSize的字符串和二进制字段同样视为大字段
+        var lazyLoadEnable = Boolean.parseBoolean(customProperties.getOrDefault("lazyLoadEnable", "true").toString());
+        var heavyColumnSize = Integer.parseInt(customProperties.getOrDefault("heavyColumnSize", 4096).toString());
+        logger.info("大字段延迟加载状态: {}, 大字段长度阈值: {}", lazyLoadEnable, heavyColumnSize);
+
+        // 读取外键，生成批量加载父表记录和按外键批量查询子表记录的方法
+        var relationEnable = Boolean.parseBoolean(customProperties.getOrDefault("relationEnable", "true").toString());
+        logger.info("关联查询状态: {}", relationEnable);
+
+        // 自定义分层后缀
+        @SuppressWarnings("unchecked")
+        var layerSuffix = (Map<String, String>) customProperties.getOrDefault("layerSuffix", new HashMap<>());
+
+        // API文档配置
+        // 是否开启API文档
+        final var apiDocEnable = swaggerConfig.getOrDefault("swaggerEnable", false);
+        // API文档类型: swagger, openapi, asyncapi
+        final var apiDocType = swaggerConfig.getOrDefault("apiDocType", "swagger").toString();
+        // API文档版本
+        final var apiDocVersion = swaggerConfig.getOrDefault("apiDocVersion", "3.0").toString();
+
+        logger.info("API文档启用状态: {}", apiDocEnable);
+        logger.info("API文档类型: {}", apiDocType);
+        logger.info("API文档版本: {}", apiDocVersion);
+
+        // 设置文件保存位置
+        var outputDir = outputConfig.get("baseOutputDir").toString();
+        // 是否开启覆写
+        var overwriteEnable = Boolean.parseBoolean(outputConfig.get("overwriteEnable").toString());
+        // 作者信息
+        var author = outputConfig.get("authorInfo").toString();
+        // 基础包地址
+        var packageUrl = outputConfig.get("packageUrl").toString();
+
+        logger.info("输出目录: {}", outputDir);
+        logger.info("是否开启覆写: {}", overwriteEnable);
+
+        // 是否开启增量生成：模型、配置和模板均未变化的文件跳过渲染和写入
+        var incrementalEnable = Boolean.parseBoolean(
+                outputConfig.getOrDefault("incrementalEnable", "false").toString());
+        // 构建清单文件路径
+        var manifestFile = outputConfig.getOrDefault("manifestFile",
+                new File(buildDirectory, "code-generate" + File.separator + "build-manifest.properties").getPath())
+                .toString();
+        logger.info("是否开启增量生成: {}", incrementalEnable);
+        // 是否仅在内容变化时写入：内容一致的文件保持不动，避免修改时间变化触发下游重新编译
+        var writeIfChangedEnable = Boolean.parseBoolean(
+                outputConfig.getOrDefault("writeIfChangedEnable", "false").toString());
+        logger.info("是否仅在内容变化时写入: {}", writeIfChangedEnable);
+        // 输出目标: filesystem(文件系统)、zip(ZIP/JAR压缩包)、memory(内存，不写入磁盘)
+        var sink = outputConfig.getOrDefault("sink", OutputSink.SINK_FILESYSTEM).toString()
+                .trim().toLowerCase(Locale.ROOT);
+        // 压缩包文件路径
+        var archiveFile = outputConfig.getOrDefault("archiveFile",
+                new File(buildDirectory, "code-generate" + File.separator + "generated-sources.zip").getPath())
+                .toString();
+        var fsyncPolicy = FileOutputWriter.FSYNC_NONE;
+        OutputSink outputSink;
+        if (OutputSink.SINK_FILESYSTEM.equals(sink)) {
+            // 刷盘策略: none(由操作系统决定)、file(每个文件写入后刷盘)、batch(全部写入后统一刷盘)
+            fsyncPolicy = FileOutputWriter.checkFsyncPolicy(
+                    outputConfig.getOrDefault("fsyncPolicy", FileOutputWriter.FSYNC_NONE).toString());
+            FileOutputWriter.getInstance().reset(fsyncPolicy);
+            outputSink = FileOutputWriter.getInstance();
+            logger.info("输出目标: {}, 刷盘策略: {}", sink, fsyncPolicy);
+        } else if (OutputSink.SINK_ZIP.equals(sink) || OutputSink.SINK_MEMORY.equals(sink)) {
+            if (incrementalEnable || writeIfChangedEnable) {
+                // 两者都依赖磁盘上的已有文件
+                logger.warn("输出目标为 {} 时不支持增量生成和仅在内容变化时写入，已关闭", sink);
+                incrementalEnable = false;
+                writeIfChangedEnable = false;
+            }
+            outputSink = OutputSink.SINK_ZIP.equals(sink) ? new ZipOutputSink(new File(archiveFile), outputDir)
+                    : new MemoryOutputSink(outputDir);
+            logger.info("输出目标: {}", OutputSink.SINK_ZIP.equals(sink) ? sink + ", 压缩包: " + archiveFile : sink);
+        } else {
+            throw new IllegalArgumentException("不支持的输出目标: " + sink);
+        }
+        logger.info("作者信息: {}", author);
+        logger.info("基础包地址: {}", packageUrl);
+
+        // 自定义分层包名称
+        @SuppressWarnings("unchecked")
+        var layerPackageName = (Map<String, String>) customProperties.getOrDefault("layerPackageName",
+                new HashMap<>());
+
+        // 构建包路径
+        var dtoLayer = layerPackageName.getOrDefault("dto", "dto");
+        var entityLayer = layerPackageName.getOrDefault("entity", "domain");
+        var serviceLayer = layerPackageName.getOrDefault("service", "service");
+        var serviceImplLayer = layerPackageName.getOrDefault("serviceImpl", "service.impl");
+        var mapperLayer = layerPackageName.getOrDefault("mapper", "mapper");
+        var controllerLayer = layerPackageName.getOrDefault("controller", "controller");
+        var utilLayer = layerPackageName.getOrDefault("util", "utils");
+        var resLayer = layerPackageName.getOrDefault("res", "res");
+
+        // dto文件包地址
+        var dtoUrl = packageUrl + "." + dtoLayer;
+        // entity文件包地址
+        var entityUrl = packageUrl + "." + entityLayer;
+        // service文件包地址
+        var serviceUrl = packageUrl + "." + serviceLayer;
+        // impl文件包地址
+        var implUrl = packageUrl + "." + serviceImplLayer;
+        // mapper文件包地址
+        var mapperUrl = packageUrl + "." + mapperLayer;
+        // util文件包地址
+        var utilUrl = packageUrl + "." + utilLayer;
+        // res文件包地址
+        var resUrl = packageUrl + "." + resLayer;
+
+        logger.info(
+                "分层包配置: dto={}, entity={}, service={}, serviceImpl={}, mapper={}, controller={}, util={}, res={}",
+                dtoLayer, entityLayer, serviceLayer, serviceImplLayer, mapperLayer, controllerLayer, utilLayer,
+                resLayer);
+
+        // 数据库连接信息
+        var url = database.get("url").toString();
+        var username = database.get("username").toString();
+        var password = database.get("password").toString();
+        var driverClassName = database.get("driverClassName").toString();
+        // 表结构扫描模式: default(逐表扫描), bulk(批量扫描), parallel(并发扫描)
+        var scanMode = ScanMode.fromConfig(Objects.toString(database.get("scanMode"), null));
+        // 连接池最大连接数
+        var maxPoolSize = Integer.parseInt(database.getOrDefault("maxPoolSize", 10).toString());
+        // 并发扫描线程数（默认与连接池大小一致）
+        var scanConcurrency = Integer.parseInt(database.getOrDefault("scanConcurrency", maxPoolSize).toString());
+        // 字段类型映射覆盖，key为数据库类型名称，value为Java类名
+        @SuppressWarnings("unchecked")
+        var typeMappingConfig = (Map<String, Object>) database.getOrDefault("typeMapping", new HashMap<>());
+        var typeMapping = new HashMap<String, String>();
+        typeMappingConfig.forEach((typeName, className) -> typeMapping.put(typeName, className.toString()));
+
+        logger.info("数据库URL: {}", url);
+        logger.info("数据库用户名: {}", username);
+        logger.info("数据库驱动: {}", driverClassName);
+        logger.info("表结构扫描模式: {}", scanMode.getType());
+        logger.info("连接池大小: {}, 并发扫描线程数: {}", maxPoolSize, scanConcurrency);
+        if (!typeMapping.isEmpty()) {
+            logger.info("字段类型映射覆盖: {}", typeMapping);
+        }
+
+        // 设置数据库相关信息
+        var dbConfiguration = new DBConfiguration();
+        dbConfiguration.setUrl(url);
+        dbConfiguration.setUsername(username);
+        dbConfiguration.setPwd(password);
+        dbConfiguration.setDriverClassName(driverClassName);
+        dbConfiguration.setScanMode(scanMode);
+        dbConfiguration.setMaxPoolSize(maxPoolSize);
+        dbConfiguration.setScanConcurrency(scanConcurrency);
+        dbConfiguration.setTypeMapping(typeMapping);
+        // 设置你需要生成CRUD的表的名称
+        var tableNames = tables.stream()
+                .map(table -> table.get("tableName"))
+                .collect(Collectors.toList());
+        dbConfiguration.setTableNames(tableNames);
+        // 每张表的配置项，例如游标分页的排序字段sortKey
+        var tableOptions = new HashMap<String, Map<String, Object>>();
+        tables.forEach(table -> tableOptions.put(table.get("tableName"), new HashMap<>(table)));
+        dbConfiguration.setTableOptions(tableOptions);
+
+        logger.info("生成代码的表: {}", tableNames);
+
+        // 表结构快照配置
+        @SuppressWarnings("unchecked")
+        var schemaCache = (Map<String, Object>) obj.getOrDefault("schemaCache", new HashMap<>());
+        // 离线模式：仅从快照生成，不连接数据库
+        var offlineEnable = Boolean.parseBoolean(schemaCache.getOrDefault("offline", "false").toString());
+        var schemaCacheEnable = offlineEnable
+                || Boolean.parseBoolean(schemaCache.getOrDefault("enable", "false").toString());
+        var snapshotFile = schemaCache.getOrDefault("snapshotFile",
+                new File(buildDirectory, "code-generate" + File.separator + "schema-snapshot.bin").getPath())
+                .toString();
+        dbConfiguration.setSchemaCacheEnable(schemaCacheEnable);
+        dbConfiguration.setSnapshotFile(snapshotFile);
+        dbConfiguration.setOfflineEnable(offlineEnable);
+
+        logger.info("表结构快照启用状态: {}, 离线模式: {}", schemaCacheEnable, offlineEnable);
+        if (schemaCacheEnable) {
+            logger.info("表结构快照文件: {}", snapshotFile);
+        }
+
+        var basicConfig = new BasicConfig().toBuilder()
+                .apiDocEnable((Boolean) apiDocEnable)
+                .apiDocType(apiDocType)
+                .apiDocVersion(apiDocVersion)
+                .overWriteEnable(overwriteEnable)
+                .incrementalEnable(incrementalEnable)
+                .writeIfChangedEnable(writeIfChangedEnable)
+                .manifestFile(manifestFile)
+                .ftlFileDirConfig(ftlFileDirConfig)
+                .lombokEnable(lombokEnable)
+                .layerSuffix(layerSuffix)
+                .customProperties(customProperties)
+                .templateEngine(templateEngine)
+                .templateVerifyEnable(templateVerifyEnable)
+                .templateCacheDir(templateCacheDir)
+                .outputSink(outputSink)
+                .build();
+
+        // 配置数据库配置
+        configDB(dbConfiguration);
+        GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_CONFIG, startNanos);
+
+        // 扫描并注入表信息
+        logger.info("开始扫描表信息");
+        var basicInfoBuilder = new BasicInfo().toBuilder()
+                .author(author)
+                .packageUrl(packageUrl)
+                .dtoUrl(dtoUrl)
+                .entityUrl(entityUrl)
+                .serviceUrl(serviceUrl)
+                .implUrl(implUrl)
+                .mapperUrl(mapperUrl)
+                .utilUrl(utilUrl)
+                .resUrl(resUrl)
+                .swaggerEnable((Boolean) apiDocEnable)
+                .apiDocType(apiDocType)
+                .apiDocVersion(apiDocVersion)
+                .overWriteEnable(overwriteEnable)
+                .lombokEnable(lombokEnable)
+                .databaseType(DatabaseType.fromJdbcUrl(url).name())
+                .batchSize(batchSize)
+                .batchMaxBytes(batchMaxBytes)
+                .inListChunkSize(inListChunkSize)
+                .inListExecutor(inListExecutor)
+                .cacheEnable(cacheEnable)
+                .cacheMaxSize(cacheMaxSize)
+                .cacheTtlSeconds(cacheTtlSeconds)
+                .countCacheTtlSeconds(countCacheTtlSeconds)
+                .readWriteSplitEnable(readWriteSplitEnable)
+                .streamFetchSize(streamFetchSize)
+                .lazyLoadEnable(lazyLoadEnable)
+                .heavyColumnSize(heavyColumnSize)
+                .relationEnable(relationEnable);
+
+        // 设置自定义分层后缀
+        basicInfoBuilder.controllerSuffix(layerSuffix.getOrDefault("controller", "Controller"));
+        basicInfoBuilder.serviceSuffix(layerSuffix.getOrDefault("service", "Service"));
+        basicInfoBuilder.serviceImplSuffix(layerSuffix.getOrDefault("serviceImpl", "Impl"));
+        basicInfoBuilder.mapperSuffix(layerSuffix.getOrDefault("mapper", "Mapper"));
+        basicInfoBuilder.dtoSuffix(layerSuffix.getOrDefault("dto", "Dto"));
+        basicInfoBuilder.entitySuffix(layerSuffix.getOrDefault("entity", "Entity"));
+
+        var basicInfo = basicInfoBuilder.build();
+
+        // 增量生成时读取上次的构建清单
+        var buildManifest = incrementalEnable ? BuildManifest.load(new File(manifestFile)) : null;
+
+        return GenerateContext.builder()
+                .config(obj)
+                .basicConfig(basicConfig)
+                .basicInfo(basicInfo)
+                .outputDir(outputDir)
+                .outputSink(outputSink)
+                .fsyncPolicy(fsyncPolicy)
+                .buildManifest(buildManifest)
+                .parallelism(parallelism)
+                .pipelineEnable(pipelineEnable)
+                .writeThreads(writeThreads)
+                .queueCapacity(queueCapacity)
+                .executorType(executorType)
+                .offlineEnable(offlineEnable)
+                .metricsReportDir(metricsReportDir)
+                .metricsFormats(metricsFormats)
+                .metricsTopN(metricsTopN)
+                .build();
+    }
+
+    /**
+     * 扫描全部表并生成代码文件，结束输出并保存构建清单
+     *
+     * @return 每个文件的生成结果
+     */
+    protected List<BaseResModel> generate(GenerateContext context) {
+        var basicConfig = context.getBasicConfig();
+        var basicInfo = context.getBasicInfo();
+        var buildManifest = context.getBuildManifest();
+
+        List<BaseResModel> results;
+        try {
+            if (context.isPipelineEnable()) {
+                // 扫描、渲染、写入三个阶段通过有界队列衔接，扫描阶段与生成阶段重叠
+                logger.info("开始流水线生成代码文件");
+                long generateStart = System.nanoTime();
+                results = new GeneratePipeline(basicConfig, context.getOutputDir(), buildManifest,
+                        context.getParallelism(), context.getWriteThreads(), context.getQueueCapacity(),
+                        context.getExecutorType())
+                        .generate(tableListener -> scanTableInfo(basicInfo, tableListener));
+                GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_GENERATE, generateStart);
+            } else {
+                var tableInfoList = scanTableInfo(basicInfo, null);
+                logger.info("表信息扫描完成，共扫描 {} 张表", tableInfoList.size());
+
+                // 开始生成代码文件
+                logger.info("开始生成代码文件");
+                long generateStart = System.nanoTime();
+
+                // 以(表 × 文件类型)为任务单元并行生成
+                results = new CodeGenerator(basicConfig, context.getOutputDir(), buildManifest,
+                        context.getParallelism()).generate(tableInfoList);
+                GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_GENERATE, generateStart);
+            }
+
+            context.getOutputSink().finish();
+        } catch (RuntimeException e) {
+            // 生成失败时丢弃未完成的输出，例如关闭并删除不完整的压缩包
+            context.getOutputSink().abort();
+            throw e;
+        } finally {
+            // 释放模板包装器缓存的本次生成的模型对象
+            ModelObjectWrapper.getInstance().clearCache();
+        }
+        if (buildManifest != null) {
+            buildManifest.save();
+        }
+        logReport(results);
+        return results;
+    }
+
+    /**
+     * 记录总耗时并输出指标报告
+     *
+     * @param startNanos 插件开始执行时的System.nanoTime()
+     */
+    protected void reportMetrics(GenerateContext context, long startNanos) {
+        GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_TOTAL, startNanos);
+        GenerateMetrics.getInstance().report(new File(context.getMetricsReportDir()), context.getMetricsFormats(),
+                context.getMetricsTopN());
+    }
+
+    /**
+     * 记录执行失败原因并转换为插件异常
+     */
+    protected MojoExecutionException toMojoExecutionException(Exception e) {
+        if (e instanceof FileNotFoundException) {
+            logger.error("配置文件未找到: {}", configFile.getAbsolutePath(), e);
+            return new MojoExecutionException("配置文件未找到", e);
+        }
+        if (e instanceof ClassCastException) {
+            logger.error("配置文件格式错误", e);
+            return new MojoExecutionException("配置文件格式错误", e);
+        }
+        if (e instanceof IllegalArgumentException || e instanceof NullPointerException) {
+            logger.error("配置参数错误: {}", e.getMessage(), e);
+            return new MojoExecutionException("配置参数错误", e);
+        }
+        logger.error("执行插件失败", e);
+        return new MojoExecutionException("执行插件失败", e);
+    }
+
+    /**
+     * 验证配置完整性
+     */
+    private void validateConfig(Map<String, Object> config) {
+        logger.info("开始验证配置完整性");
+
+        // 验证数据库配置
+        var database = (Map<String, Object>) config.get("database");
+        Objects.requireNonNull(database, "配置中缺少database节点");
+        validateRequiredFields(database, "database", "url", "username", "password", "driverClassName");
+
+        // 验证表配置
+        var tables = (List<Map<String, String>>) config.get("tables");
+        Objects.requireNonNull(tables, "配置中缺少tables节点");
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("配置中tables列表为空");
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            var table = tables.get(i);
+            validateRequiredFields(table, "tables[" + i + "]", "tableName");
+        }
+
+        // 验证swagger配置
+        var swaggerConfig = (Map<String, Boolean>) config.get("swaggerConfig");
+        Objects.requireNonNull(swaggerConfig, "配置中缺少swaggerConfig节点");
+        validateRequiredFields(swaggerConfig, "swaggerConfig", "swaggerEnable");
+
+        // 验证输出配置
+        var outputConfig = (Map<String, Object>) config.get("outputConfig");
+        Objects.requireNonNull(outputConfig, "配置中缺少outputConfig节点");
+        validateRequiredFields(outputConfig, "outputConfig", "baseOutputDir", "overwriteEnable", "authorInfo",
+                "packageUrl");
+
+        logger.info("配置验证通过");
+    }
+
+    /**
+     * 验证必填字段
+     */
+    private <T> void validateRequiredFields(Map<String, T> map, String section, String... fields) {
+        for (String field : fields) {
+            if (!map.containsKey(field) || map.get(field) == null) {
+                throw new IllegalArgumentException("配置中缺少必填字段: " + section + "." + field);
+            }
+        }
+    }
+
+    /**
+     * 输出生成报告
+     */
+    protected void logReport(List<BaseResModel> results) {
+        var counts = results.stream()
+                .collect(Collectors.groupingBy(BaseResModel::getCode, Collectors.counting()));
+        logger.info("生成报告: 共 {} 个文件，渲染 {} 个，已存在跳过 {} 个，未变化 {} 个，内容未变化 {} 个", results.size(),
+                counts.getOrDefault(FreemarkerUtils.CODE_RENDERED, 0L),
+                counts.getOrDefault(FreemarkerUtils.CODE_EXISTS_SKIPPED, 0L),
+                counts.getOrDefault(FreemarkerUtils.CODE_UNCHANGED, 0L),
+                counts.getOrDefault(FreemarkerUtils.CODE_CONTENT_UNCHANGED, 0L));
+    }
+
+    private void configDB(DBConfiguration dbConfiguration) {
+        DBUtils.getInstance().setDbConfiguration(dbConfiguration);
+    }
+
+    /**
+     * 注入部分基本信息之后开始对表进行扫描装配表详细信息
+     * 
+     * @param tableListener 表扫描完成监听器，可为空
+     * @return 表详细信息
+     */
+    protected Map<String, BasicInfo> scanTableInfo(BasicInfo basicInfo, Consumer<BasicInfo> tableListener) {
+        long start = System.nanoTime();
+        DBUtils.getInstance().scanInfoToModel(basicInfo, tableListener);
+        GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_INTROSPECTION, start);
+        // 获取所有的tableInfo
+        return DBUtils.getInstance().getTableInfoMap();
+    }
+}
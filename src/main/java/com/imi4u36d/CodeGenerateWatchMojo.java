@@ -0,0 +1,297 @@
+package com.imi4u36d;
+
+import com.imi4u36d.generate.CodeGenerator;
+import com.imi4u36d.generate.GenerateContext;
+import com.imi4u36d.model.BaseResModel;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.ColumnInfo;
+import com.imi4u36d.model.FileType;
+import com.imi4u36d.model.ForeignKeyInfo;
+import com.imi4u36d.util.DBUtils;
+import com.imi4u36d.util.FileOutputWriter;
+import com.imi4u36d.util.FreemarkerUtils;
+import com.imi4u36d.util.ModelObjectWrapper;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 监听模式：首次全量生成后常驻运行，保持数据库连接池和模板缓存，
+ * 定时查询表结构指纹并监听自定义模板目录，只重新生成发生变化的表和模板对应的文件
+ *
+ * @author wangzhuo
+ */
+@Mojo(name = "watch")
+public class CodeGenerateWatchMojo extends AbstractCodeGenerateMojo {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeGenerateWatchMojo.class);
+
+    private static final String FTL_SUFFIX = ".ftl";
+
+    @Override
+    public void execute() throws MojoExecutionException {
+
+        try {
+            logger.info("开始执行代码生成插件（监听模式）");
+
+            var context = loadContext();
+            if (!(context.getOutputSink() instanceof FileOutputWriter)) {
+                throw new IllegalArgumentException("监听模式只支持输出到文件系统");
+            }
+            if (!Boolean.TRUE.equals(context.getBasicConfig().getOverWriteEnable())) {
+                logger.warn("未开启覆写，已存在的文件不会重新生成");
+            }
+
+            @SuppressWarnings("unchecked")
+            var watchConfig = (Map<String, Object>) context.getConfig().getOrDefault("watch", new HashMap<>());
+            // 表结构指纹查询间隔
+            var pollIntervalMillis = Long.parseLong(watchConfig.getOrDefault("pollIntervalMillis", 1000).toString());
+            // 模板变化后等待连续的修改结束再生成
+            var debounceMillis = Long.parseLong(watchConfig.getOrDefault("debounceMillis", 200).toString());
+            if (pollIntervalMillis <= 0 || debounceMillis < 0) {
+                throw new IllegalArgumentException("watch.pollIntervalMillis 必须大于0，watch.debounceMillis 不能小于0");
+            }
+
+            // 首次生成前记录指纹，生成期间发生的变化会在第一次查询时发现
+            Map<String, String> fingerprints = null;
+            if (!context.isOfflineEnable() && DBUtils.getInstance().isFingerprintSupported()) {
+                fingerprints = DBUtils.getInstance().getTableFingerprints();
+            } else {
+                logger.warn("离线模式或数据库不支持表结构指纹，不监听表结构变化");
+            }
+
+            long startNanos = System.nanoTime();
+            generate(context);
+            logger.info("首次生成完成，耗时 {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+            var ftlFileDir = context.getBasicConfig().getFtlFileDirConfig();
+            try (WatchService watchService = ftlFileDir == null ? null : watchTemplates(Paths.get(ftlFileDir))) {
+                if (watchService == null && fingerprints == null) {
+                    throw new IllegalArgumentException("没有可监听的内容：未配置 ftlFileDir 且无法监听表结构变化");
+                }
+                logger.info("开始监听，表结构查询间隔 {} ms，按 Ctrl+C 停止", pollIntervalMillis);
+                watch(context, watchService, fingerprints, pollIntervalMillis, debounceMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info("监听已停止");
+        } catch (Exception e) {
+            throw toMojoExecutionException(e);
+        } finally {
+            DBUtils.getInstance().closeConnection();
+        }
+    }
+
+    /**
+     * 监听循环，模板变化立即处理，表结构按间隔查询，直到线程被中断
+     */
+    private void watch(GenerateContext context, WatchService watchService, Map<String, String> fingerprints,
+            long pollIntervalMillis, long debounceMillis) throws InterruptedException {
+        long nextPoll = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        while (!Thread.currentThread().isInterrupted()) {
+            long waitNanos = Math.max(0, nextPoll - System.nanoTime());
+            if (watchService != null) {
+                WatchKey key = watchService.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    Set<FileType> fileTypes = EnumSet.noneOf(FileType.class);
+                    collectChangedTemplates(key, fileTypes);
+                    // 编辑器保存时可能连续产生多个事件，合并后一次生成
+                    while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                        collectChangedTemplates(key, fileTypes);
+                    }
+                    if (!fileTypes.isEmpty()) {
+                        onTemplateChanged(context, fileTypes);
+                    }
+                }
+            } else {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+
+            if (fingerprints != null && System.nanoTime() - nextPoll >= 0) {
+                onSchemaPolled(context, fingerprints);
+                nextPoll = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+            }
+        }
+        throw new InterruptedException();
+    }
+
+    /**
+     * 监听模板目录下文件的创建、修改和删除
+     */
+    private WatchService watchTemplates(Path ftlFileDir) throws IOException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        try {
+            ftlFileDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        logger.info("监听模板目录: {}", ftlFileDir.toAbsolutePath());
+        return watchService;
+    }
+
+    /**
+     * 将模板文件事件转换为需要重新生成的文件类型；无法对应到文件类型的模板（如被include的公共模板）影响全部类型
+     */
+    private void collectChangedTemplates(WatchKey key, Set<FileType> fileTypes) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                fileTypes.addAll(EnumSet.allOf(FileType.class));
+                continue;
+            }
+            String name = event.context().toString();
+            if (!name.endsWith(FTL_SUFFIX)) {
+                continue;
+            }
+            logger.info("模板变化: {} {}", event.kind().name(), name);
+            FileType matched = null;
+            for (FileType fileType : FileType.values()) {
+                if (fileType.getFtlName().equals(name)) {
+                    matched = fileType;
+                    break;
+                }
+            }
+            if (matched != null) {
+                fileTypes.add(matched);
+            } else {
+                fileTypes.addAll(EnumSet.allOf(FileType.class));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * 模板变化后清除模板缓存，为全部表重新生成对应类型的文件
+     */
+    private void onTemplateChanged(GenerateContext context, Set<FileType> fileTypes) {
+        long start = System.nanoTime();
+        FreemarkerUtils.clearTemplateCache(context.getBasicConfig());
+        var tableInfoMap = new LinkedHashMap<>(DBUtils.getInstance().getTableInfoMap());
+        var results = regenerate(context, tableInfoMap, tableInfoMap.keySet(), fileTypes);
+        logger.info("模板变化: {}，重新生成 {} 个文件，耗时 {} ms", fileTypes, results.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 比较表结构指纹，重新扫描结构变化的表及通过外键引用它们的表，并重新生成这些表的文件
+     */
+    private void onSchemaPolled(GenerateContext context, Map<String, String> fingerprints) {
+        long start = System.nanoTime();
+        Map<String, String> current = DBUtils.getInstance().getTableFingerprints();
+        if (current.isEmpty()) {
+            // 查询失败，等待下次查询
+            return;
+        }
+        Set<String> changed = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        current.forEach((tableName, fingerprint) -> {
+            if (!Objects.equals(fingerprint, fingerprints.get(tableName))) {
+                changed.add(tableName);
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        fingerprints.putAll(current);
+
+        // 子表的外键关联依赖父表的主键，父表变化时子表也需要重新扫描
+        List<String> affected = new ArrayList<>();
+        DBUtils.getInstance().getTableInfoMap().forEach((tableName, info) -> {
+            if (changed.contains(tableName) || referencesAny(info, changed)) {
+                affected.add(tableName);
+            }
+        });
+
+        Map<String, List<String>> primaryKeys = new HashMap<>();
+        changed.forEach(tableName -> primaryKeys.put(tableName, primaryKeyNames(tableName)));
+        try {
+            DBUtils.getInstance().rescanTables(context.getBasicInfo(), affected);
+            // 只引用父表单字段主键的外键才会保留，父表主键变化后其他表的关联可能增加或失效，全部重新扫描
+            boolean primaryKeyChanged = primaryKeys.entrySet().stream()
+                    .anyMatch(entry -> !entry.getValue().equals(primaryKeyNames(entry.getKey())));
+            if (primaryKeyChanged) {
+                List<String> others = new ArrayList<>(DBUtils.getInstance().getTableInfoMap().keySet());
+                others.removeAll(affected);
+                if (!others.isEmpty()) {
+                    DBUtils.getInstance().rescanTables(context.getBasicInfo(), others);
+                    affected.addAll(others);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("重新扫描表结构失败: {}", affected, e);
+            return;
+        }
+        var tableInfoMap = new LinkedHashMap<>(DBUtils.getInstance().getTableInfoMap());
+        var results = regenerate(context, tableInfoMap, affected, EnumSet.allOf(FileType.class));
+        logger.info("表结构变化: {}，重新扫描 {} 张表并生成 {} 个文件，耗时 {} ms", changed, affected.size(),
+                results.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<String> primaryKeyNames(String tableName) {
+        BasicInfo info = DBUtils.getInstance().getTableInfoMap().get(tableName);
+        if (info == null || info.getPrimaryKeys() == null) {
+            return Collections.emptyList();
+        }
+        return info.getPrimaryKeys().stream().map(ColumnInfo::getColumnName).collect(Collectors.toList());
+    }
+
+    private boolean referencesAny(BasicInfo info, Set<String> tableNames) {
+        if (info.getForeignKeyInfos() == null) {
+            return false;
+        }
+        for (ForeignKeyInfo foreignKeyInfo : info.getForeignKeyInfos()) {
+            if (tableNames.contains(foreignKeyInfo.getReferencedTableName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 重新生成部分表的部分文件，生成失败时只记录日志，继续监听
+     */
+    private List<BaseResModel> regenerate(GenerateContext context, Map<String, BasicInfo> tableInfoMap,
+            Collection<String> tableNames, Set<FileType> fileTypes) {
+        FileOutputWriter.getInstance().reset(context.getFsyncPolicy());
+        try {
+            var results = new CodeGenerator(context.getBasicConfig(), context.getOutputDir(),
+                    context.getBuildManifest(), context.getParallelism()).generate(tableInfoMap, tableNames, fileTypes);
+            context.getOutputSink().finish();
+            if (context.getBuildManifest() != null) {
+                context.getBuildManifest().save();
+            }
+            logReport(results);
+            return results;
+        } catch (RuntimeException e) {
+            context.getOutputSink().abort();
+            logger.error("重新生成失败", e);
+            return new ArrayList<>();
+        } finally {
+            // 重新扫描的表是新的模型对象，每次重新生成后释放包装器缓存
+            ModelObjectWrapper.getInstance().clearCache();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.imi4u36d.config;
 
+import com.imi4u36d.model.ScanMode;
 import lombok.Data;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author wangzhuo
@@ -19,4 +22,44 @@ public class DBConfiguration {
     public List<String> tableNames;
 
     public String driverClassName;
+
+    /**
+     * 表结构扫描模式
+     */
+    public ScanMode scanMode = ScanMode.DEFAULT;
+
+    /**
+     * 连接池最大连接数
+     */
+    public int maxPoolSize = 10;
+
+    /**
+     * 并发扫描的线程数，实际线程数不超过连接池最大连接数
+     */
+    public int scanConcurrency = 10;
+
+    /**
+     * 是否开启表结构快照缓存
+     */
+    public boolean schemaCacheEnable;
+
+    /**
+     * 表结构快照文件路径
+     */
+    public String snapshotFile;
+
+    /**
+     * 是否开启离线模式，开启后仅从表结构快照生成，不连接数据库
+     */
+    public boolean offlineEnable;
+
+    /**
+     * 字段类型映射覆盖，key为数据库类型名称，value为Java类名
+     */
+    public Map<String, String> typeMapping = new HashMap<>();
+
+    /**
+     * 每张表的配置项，key为表名，value为tables中该表的配置
+     */
+    public Map<String, Map<String, Object>> tableOptions = new HashMap<>();
 }
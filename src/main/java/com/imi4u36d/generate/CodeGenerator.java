@@ -0,0 +1,195 @@
+package com.imi4u36d.generate;
+
+import com.imi4u36d.model.BaseResModel;
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.FileType;
+import com.imi4u36d.util.BuildManifest;
+import com.imi4u36d.util.FreemarkerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * 代码生成引擎：以(表 × 文件类型)作为最小任务单元，在工作窃取线程池中并行渲染，
+ * 并行度随表数量扩展；同一张表的输出路径和模型哈希只计算一次
+ *
+ * @author wangzhuo
+ */
+public class CodeGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(CodeGenerator.class);
+
+    /**
+     * 通用类文件类型，只生成一次
+     */
+    static final List<FileType> COMMON_FILE_TYPES = Arrays.stream(FileType.values())
+            .filter(FileType::isCommon)
+            .collect(Collectors.toList());
+
+    /**
+     * 读写分离相关的通用类，开启readWriteSplitEnable时才生成
+     */
+    static final Set<FileType> READ_WRITE_SPLIT_FILE_TYPES = EnumSet.of(FileType.ROUTING_DATASOURCE,
+            FileType.READ_ONLY_TRANSACTIONAL);
+
+    /**
+     * 普通类文件类型，每张表生成一份
+     */
+    static final List<FileType> NORMAL_FILE_TYPES = Arrays.stream(FileType.values())
+            .filter(fileType -> !fileType.isCommon())
+            .collect(Collectors.toList());
+
+    private final BasicConfig basicConfig;
+
+    private final String outputDir;
+
+    private final BuildManifest buildManifest;
+
+    private final int parallelism;
+
+    /**
+     * @param basicConfig   生成配置
+     * @param outputDir     输出根目录
+     * @param buildManifest 构建清单，为空时不进行增量判断
+     * @param parallelism   并行度
+     */
+    public CodeGenerator(BasicConfig basicConfig, String outputDir, BuildManifest buildManifest, int parallelism) {
+        this.basicConfig = basicConfig;
+        this.outputDir = outputDir;
+        this.buildManifest = buildManifest;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 为所有表生成代码文件
+     *
+     * @param tableInfoMap 表详细信息，key为表名
+     * @return 每个文件的生成结果
+     */
+    public List<BaseResModel> generate(Map<String, BasicInfo> tableInfoMap) {
+        return generate(tableInfoMap, tableInfoMap.keySet(), EnumSet.allOf(FileType.class));
+    }
+
+    /**
+     * 只生成部分表的部分文件类型，用于表结构或模板变化后的局部重新生成
+     *
+     * @param tableInfoMap 全部表的详细信息，key为表名；通用类使用第一个表生成
+     * @param tableNames   需要生成的表，包含第一个表时才生成通用类
+     * @param fileTypes    需要生成的文件类型
+     * @return 每个文件的生成结果
+     */
+    public List<BaseResModel> generate(Map<String, BasicInfo> tableInfoMap, Collection<String> tableNames,
+            Set<FileType> fileTypes) {
+        if (tableInfoMap.isEmpty()) {
+            logger.warn("没有可生成代码的表");
+            return new ArrayList<>();
+        }
+
+        List<GenerateTask> tasks = new ArrayList<>();
+        // 通用类只生成一次，使用第一个表的basicInfo作为基础，直接生成在根目录下
+        Map.Entry<String, BasicInfo> firstTable = tableInfoMap.entrySet().iterator().next();
+        if (tableNames.contains(firstTable.getKey())) {
+            tasks.addAll(createTasks(basicConfig, buildManifest, firstTable.getValue(),
+                    filter(commonFileTypes(firstTable.getValue()), fileTypes), outputDir));
+        }
+        // 为每个表生成的类
+        List<FileType> normalFileTypes = filter(NORMAL_FILE_TYPES, fileTypes);
+        tableInfoMap.forEach((tableName, info) -> {
+            if (tableNames.contains(tableName)) {
+                tasks.addAll(createTasks(basicConfig, buildManifest, info, normalFileTypes,
+                        outputDir + File.separator + tableName));
+            }
+        });
+
+        logger.info("共 {} 个生成任务，并行度: {}", tasks.size(), parallelism);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Callable<BaseResModel>> callables = tasks.stream()
+                    .map(task -> (Callable<BaseResModel>) () -> execute(task))
+                    .collect(Collectors.toList());
+
+            List<BaseResModel> results = new ArrayList<>(tasks.size());
+            for (Future<BaseResModel> future : pool.invokeAll(callables)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("代码生成被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("生成文件失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<FileType> filter(List<FileType> fileTypes, Set<FileType> included) {
+        return fileTypes.stream().filter(included::contains).collect(Collectors.toList());
+    }
+
+    /**
+     * 需要生成的通用类文件类型，未开启读写分离时不生成路由数据源和只读事务注解
+     */
+    static List<FileType> commonFileTypes(BasicInfo basicInfo) {
+        if (Boolean.TRUE.equals(basicInfo.getReadWriteSplitEnable())) {
+            return COMMON_FILE_TYPES;
+        }
+        return COMMON_FILE_TYPES.stream()
+                .filter(fileType -> !READ_WRITE_SPLIT_FILE_TYPES.contains(fileType))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 创建一张表的生成任务，输出路径和模型哈希在同一张表的任务间共用；
+     * 同时一次创建这些文件所需的目录，写入时不再逐个检查父目录
+     */
+    static List<GenerateTask> createTasks(BasicConfig basicConfig, BuildManifest buildManifest, BasicInfo basicInfo,
+            List<FileType> fileTypes, String tableOutputDir) {
+        Map<FileType, String> fileNames = FreemarkerUtils.getFileNames(basicInfo, fileTypes, tableOutputDir);
+        FreemarkerUtils.getOutputSink(basicConfig).createDirectories(fileNames.values());
+        String modelFingerprint = buildManifest == null ? null
+                : FreemarkerUtils.getModelFingerprint(basicConfig, basicInfo);
+
+        List<GenerateTask> tasks = new ArrayList<>(fileTypes.size());
+        for (FileType fileType : fileTypes) {
+            tasks.add(new GenerateTask(basicInfo, fileType, fileNames.get(fileType), modelFingerprint));
+        }
+        return tasks;
+    }
+
+    private BaseResModel execute(GenerateTask task) {
+        return FreemarkerUtils.createFile(basicConfig, task.basicInfo, task.fileType, task.fileName,
+                task.modelFingerprint, buildManifest);
+    }
+
+    /**
+     * 单个文件的生成任务
+     */
+    static class GenerateTask {
+        final BasicInfo basicInfo;
+        final FileType fileType;
+        final String fileName;
+        final String modelFingerprint;
+
+        GenerateTask(BasicInfo basicInfo, FileType fileType, String fileName, String modelFingerprint) {
+            this.basicInfo = basicInfo;
+            this.fileType = fileType;
+            this.fileName = fileName;
+            this.modelFingerprint = modelFingerprint;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.imi4u36d.generate;
+
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.util.BuildManifest;
+import com.imi4u36d.util.OutputSink;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次代码生成所需的配置，由插件目标读取配置文件后创建
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class GenerateContext {
+    /**
+     * 配置文件原始内容
+     */
+    private Map<String, Object> config;
+
+    /**
+     * 生成配置
+     */
+    private BasicConfig basicConfig;
+
+    /**
+     * 表信息模板，扫描时在此基础上填充每张表的信息
+     */
+    private BasicInfo basicInfo;
+
+    /**
+     * 输出根目录
+     */
+    private String outputDir;
+
+    /**
+     * 生成文件的输出目标
+     */
+    private OutputSink outputSink;
+
+    /**
+     * 文件系统输出的刷盘策略
+     */
+    private String fsyncPolicy;
+
+    /**
+     * 构建清单，未开启增量生成时为空
+     */
+    private BuildManifest buildManifest;
+
+    /**
+     * 生成并行度，流水线模式下为渲染线程数
+     */
+    private int parallelism;
+
+    /**
+     * 是否开启流水线生成
+     */
+    private boolean pipelineEnable;
+
+    /**
+     * 流水线写入线程数
+     */
+    private int writeThreads;
+
+    /**
+     * 流水线阶段间队列容量
+     */
+    private int queueCapacity;
+
+    /**
+     * 流水线写入阶段执行器类型
+     */
+    private String executorType;
+
+    /**
+     * 是否为离线模式（仅从表结构快照生成，不连接数据库）
+     */
+    private boolean offlineEnable;
+
+    /**
+     * 指标报告输出目录
+     */
+    private String metricsReportDir;
+
+    /**
+     * 指标报告格式
+     */
+    private List<String> metricsFormats;
+
+    /**
+     * 摘要中列出的最慢表和文件数量
+     */
+    private int metricsTopN;
+}
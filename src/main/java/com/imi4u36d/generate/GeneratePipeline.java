@@ -0,0 +1,278 @@
+package com.imi4u36d.generate;
+
+import com.imi4u36d.model.BaseResModel;
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.FileType;
+import com.imi4u36d.model.RenderedFile;
+import com.imi4u36d.util.BuildManifest;
+import com.imi4u36d.util.ExecutorUtils;
+import com.imi4u36d.util.FreemarkerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 流水线代码生成引擎：表结构扫描、模板渲染、文件写入三个阶段通过有界队列连接，
+ * 每张表扫描完成后立即进入渲染阶段，不必等待全部表扫描完成；
+ * 下游处理不过来时上游在队列上阻塞，内存占用与队列容量成正比
+ *
+ * @author wangzhuo
+ */
+public class GeneratePipeline {
+    private static final Logger logger = LoggerFactory.getLogger(GeneratePipeline.class);
+
+    /**
+     * 入队、出队等待的时间片，超时后检查流水线是否已中止
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * 渲染队列结束标记
+     */
+    private static final TableUnit END_OF_TABLES = new TableUnit(null, null, null);
+
+    /**
+     * 写入队列结束标记
+     */
+    private static final RenderedFile END_OF_FILES = new RenderedFile();
+
+    private final BasicConfig basicConfig;
+
+    private final String outputDir;
+
+    private final BuildManifest buildManifest;
+
+    private final int renderThreads;
+
+    private final int writeThreads;
+
+    private final int queueCapacity;
+
+    private final String executorType;
+
+    /**
+     * @param basicConfig   生成配置
+     * @param outputDir     输出根目录
+     * @param buildManifest 构建清单，为空时不进行增量判断
+     * @param renderThreads 渲染线程数，渲染为CPU密集型任务，使用固定大小线程池
+     * @param writeThreads  写入线程数
+     * @param queueCapacity 阶段间队列容量
+     * @param executorType  写入阶段执行器类型: virtual, fixed
+     */
+    public GeneratePipeline(BasicConfig basicConfig, String outputDir, BuildManifest buildManifest,
+            int renderThreads, int writeThreads, int queueCapacity, String executorType) {
+        this.basicConfig = basicConfig;
+        this.outputDir = outputDir;
+        this.buildManifest = buildManifest;
+        this.renderThreads = Math.max(1, renderThreads);
+        this.writeThreads = Math.max(1, writeThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.executorType = executorType;
+    }
+
+    /**
+     * 扫描表结构并生成代码文件
+     *
+     * @param scanner 表结构扫描阶段，在当前线程执行：接收表扫描完成监听器，返回按配置顺序排列的全部表信息
+     * @return 每个文件的生成结果
+     */
+    public List<BaseResModel> generate(Function<Consumer<BasicInfo>, Map<String, BasicInfo>> scanner) {
+        BlockingQueue<TableUnit> tableQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<RenderedFile> fileQueue = new ArrayBlockingQueue<>(queueCapacity);
+        List<BaseResModel> results = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        logger.info("流水线生成: 渲染线程数 {}, 写入线程数 {}, 队列容量 {}, 执行器 {}", renderThreads, writeThreads,
+                queueCapacity, executorType);
+
+        ExecutorService renderExecutor = ExecutorUtils.newFixedExecutor(renderThreads, "code-generate-render");
+        ExecutorService writeExecutor = ExecutorUtils.newExecutor(executorType, writeThreads, "code-generate-write");
+        try {
+            List<Future<?>> renderers = new ArrayList<>(renderThreads);
+            for (int i = 0; i < renderThreads; i++) {
+                renderers.add(renderExecutor.submit(() -> runStage(failure,
+                        () -> render(tableQueue, fileQueue, results, failure))));
+            }
+            List<Future<?>> writers = new ArrayList<>(writeThreads);
+            for (int i = 0; i < writeThreads; i++) {
+                writers.add(writeExecutor.submit(() -> runStage(failure,
+                        () -> write(fileQueue, results, failure))));
+            }
+
+            // 扫描阶段：每张表扫描完成后立即进入渲染队列
+            runStage(failure, () -> {
+                Map<String, BasicInfo> tableInfoMap = scanner.apply(info -> put(tableQueue, new TableUnit(info,
+                        CodeGenerator.NORMAL_FILE_TYPES, outputDir + File.separator + info.getTableName()),
+                        failure));
+                if (tableInfoMap.isEmpty()) {
+                    logger.warn("没有可生成代码的表");
+                } else {
+                    // 通用类只生成一次，使用配置中第一个表的basicInfo作为基础，直接生成在根目录下
+                    BasicInfo firstTableInfo = tableInfoMap.values().iterator().next();
+                    put(tableQueue, new TableUnit(firstTableInfo, CodeGenerator.commonFileTypes(firstTableInfo),
+                            outputDir), failure);
+                }
+            });
+
+            // 各阶段依次结束：上游全部完成后再向下游发送结束标记
+            for (int i = 0; i < renderThreads; i++) {
+                put(tableQueue, END_OF_TABLES, failure);
+            }
+            await(renderers);
+            for (int i = 0; i < writeThreads; i++) {
+                put(fileQueue, END_OF_FILES, failure);
+            }
+            await(writers);
+        } catch (PipelineAbortedException e) {
+            // 失败原因已记录在failure中
+        } finally {
+            renderExecutor.shutdownNow();
+            writeExecutor.shutdownNow();
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null) {
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("生成文件失败", cause);
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * 渲染阶段：为每张表创建生成任务并渲染到内存，需要写入的文件进入写入队列
+     */
+    private void render(BlockingQueue<TableUnit> tableQueue, BlockingQueue<RenderedFile> fileQueue,
+            List<BaseResModel> results, AtomicReference<Throwable> failure) {
+        while (true) {
+            TableUnit unit = take(tableQueue, failure);
+            if (unit == END_OF_TABLES) {
+                return;
+            }
+            for (CodeGenerator.GenerateTask task : CodeGenerator.createTasks(basicConfig, buildManifest,
+                    unit.basicInfo, unit.fileTypes, unit.outputDir)) {
+                RenderedFile renderedFile = FreemarkerUtils.renderFile(basicConfig, task.basicInfo, task.fileType,
+                        task.fileName, task.modelFingerprint, buildManifest);
+                if (renderedFile.getResult() != null) {
+                    results.add(renderedFile.getResult());
+                } else {
+                    put(fileQueue, renderedFile, failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入阶段
+     */
+    private void write(BlockingQueue<RenderedFile> fileQueue, List<BaseResModel> results,
+            AtomicReference<Throwable> failure) {
+        while (true) {
+            RenderedFile renderedFile = take(fileQueue, failure);
+            if (renderedFile == END_OF_FILES) {
+                return;
+            }
+            results.add(FreemarkerUtils.writeFile(basicConfig, renderedFile, buildManifest));
+        }
+    }
+
+    /**
+     * 执行一个阶段，记录第一个失败原因，其余阶段在队列上等待时检测到失败后中止
+     */
+    private static void runStage(AtomicReference<Throwable> failure, Runnable stage) {
+        try {
+            stage.run();
+        } catch (PipelineAbortedException e) {
+            // 其他阶段已失败
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item, AtomicReference<Throwable> failure) {
+        try {
+            while (!queue.offer(item, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkAborted(failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new RuntimeException("代码生成被中断", e));
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private static <T> T take(BlockingQueue<T> queue, AtomicReference<Throwable> failure) {
+        try {
+            T item;
+            while ((item = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkAborted(failure);
+            }
+            return item;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new RuntimeException("代码生成被中断", e));
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private static void checkAborted(AtomicReference<Throwable> failure) {
+        if (failure.get() != null) {
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("代码生成被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("生成文件失败", e.getCause());
+        }
+    }
+
+    /**
+     * 一张表待生成的一组文件
+     */
+    private static class TableUnit {
+        private final BasicInfo basicInfo;
+        private final List<FileType> fileTypes;
+        private final String outputDir;
+
+        TableUnit(BasicInfo basicInfo, List<FileType> fileTypes, String outputDir) {
+            this.basicInfo = basicInfo;
+            this.fileTypes = fileTypes;
+            this.outputDir = outputDir;
+        }
+    }
+
+    /**
+     * 流水线已因其他阶段失败而中止
+     */
+    private static class PipelineAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PipelineAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.imi4u36d.model;
 
+import com.imi4u36d.util.OutputSink;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.Map;
 
@@ -35,6 +38,21 @@ public class BasicConfig {
      */
     private Boolean overWriteEnable;
 
+    /**
+     * 是否仅在文件内容变化时写入
+     */
+    private Boolean writeIfChangedEnable;
+
+    /**
+     * 是否开启增量生成
+     */
+    private Boolean incrementalEnable;
+
+    /**
+     * 构建清单文件路径
+     */
+    private String manifestFile;
+
     /**
      * 自定义ftl文件模版
      */
@@ -54,4 +72,26 @@ public class BasicConfig {
      * 自定义属性
      */
     private Map<String, Object> customProperties;
+
+    /**
+     * 模板引擎
+     */
+    private String templateEngine;
+
+    /**
+     * 是否校验编译模板的渲染结果
+     */
+    private Boolean templateVerifyEnable;
+
+    /**
+     * 编译模板缓存目录
+     */
+    private String templateCacheDir;
+
+    /**
+     * 生成文件的输出目标，为空时写入文件系统；不参与配置哈希计算
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private OutputSink outputSink;
 }
@@ -35,6 +35,7 @@ public class BasicInfo {
     /**
      * 当前时间
      */
+    @Builder.Default
     private String curTime = nowTime();
 
     /**
@@ -102,6 +103,153 @@ public class BasicInfo {
      */
     List<ColumnInfo> columnInfos;
 
+    /**
+     * 主键字段，按主键中的字段顺序排列
+     */
+    private List<ColumnInfo> primaryKeys;
+
+    /**
+     * 单列主键字段，复合主键或没有主键时为空
+     */
+    private ColumnInfo idColumn;
+
+    /**
+     * 是否为复合主键
+     */
+    private boolean compositeKey;
+
+    /**
+     * 索引信息（不含主键索引）
+     */
+    private List<IndexInfo> indexInfos;
+
+    /**
+     * 唯一索引，用于生成selBy方法
+     */
+    private List<IndexInfo> uniqueKeys;
+
+    /**
+     * 索引前缀（去重后），用于生成listBy方法
+     */
+    private List<IndexInfo> indexPrefixes;
+
+    /**
+     * 引用已配置父表单字段主键的外键，用于生成批量关联查询方法
+     */
+    private List<ForeignKeyInfo> foreignKeyInfos;
+
+    /**
+     * 主键、排序字段和索引字段的Java类型需要导入的类，Mapper、Service等文件使用
+     */
+    private List<String> keyImportPackages;
+
+    /**
+     * 游标分页的排序字段，为空时不生成游标分页
+     */
+    private ColumnInfo sortKey;
+
+    /**
+     * 批量新增时插入的字段（不含自增字段）
+     */
+    private List<ColumnInfo> insertColumnInfos;
+
+    /**
+     * 批量新增或更新时主键冲突后更新的字段（不含主键字段）
+     */
+    private List<ColumnInfo> updateColumnInfos;
+
+    /**
+     * 数据库类型，用于生成方言相关的SQL
+     */
+    private String databaseType;
+
+    /**
+     * 批量新增每批最大行数
+     */
+    @Builder.Default
+    private Integer batchSize = 500;
+
+    /**
+     * 批量新增每批SQL的最大估算字节数
+     */
+    @Builder.Default
+    private Integer batchMaxBytes = 4 * 1024 * 1024;
+
+    /**
+     * 按id列表查询和删除时，单条语句in列表的最大长度
+     */
+    @Builder.Default
+    private Integer inListChunkSize = 1000;
+
+    /**
+     * 按id列表查询时并发执行各分片使用的Executor Bean名称，为空时顺序执行
+     */
+    private String inListExecutor;
+
+    /**
+     * 是否在ServiceImpl中生成本地缓存，表配置中的cacheEnable优先
+     */
+    @Builder.Default
+    private Boolean cacheEnable = false;
+
+    /**
+     * 本地缓存最大条数
+     */
+    @Builder.Default
+    private Integer cacheMaxSize = 10000;
+
+    /**
+     * 本地缓存写入后的过期秒数
+     */
+    @Builder.Default
+    private Integer cacheTtlSeconds = 300;
+
+    /**
+     * 总数缓存写入后的过期秒数，大于0时不开启本地缓存也缓存总数，为0时使用cacheTtlSeconds
+     */
+    @Builder.Default
+    private Integer countCacheTtlSeconds = 0;
+
+    /**
+     * 是否生成读写分离的路由数据源，ServiceImpl的只读事务路由到从库
+     */
+    @Builder.Default
+    private Boolean readWriteSplitEnable = false;
+
+    /**
+     * 是否读取外键并生成批量关联查询方法
+     */
+    @Builder.Default
+    private Boolean relationEnable = true;
+
+    /**
+     * 流式查询每次从数据库读取的行数
+     */
+    @Builder.Default
+    private Integer streamFetchSize = 1000;
+
+    /**
+     * 是否延迟加载大字段
+     */
+    @Builder.Default
+    private Boolean lazyLoadEnable = true;
+
+    /**
+     * 声明长度超过该值的字符串和二进制字段视为大字段
+     */
+    @Builder.Default
+    private Integer heavyColumnSize = 4096;
+
+    /**
+     * 延迟加载的大字段，通过selDetailById和load<字段>ById查询
+     */
+    private List<ColumnInfo> heavyColumnInfos;
+
+    /**
+     * 列表、分页和selById查询的字段（不含大字段）
+     */
+    private List<ColumnInfo> lightColumnInfos;
+
     /**
      * 是否开启swagger支持
      */
@@ -130,17 +278,24 @@ public class BasicInfo {
     /**
      * 自定义分层后缀
      */
+    @Builder.Default
     private String controllerSuffix = "Controller";
+    @Builder.Default
     private String serviceSuffix = "Service";
+    @Builder.Default
     private String serviceImplSuffix = "Impl";
+    @Builder.Default
     private String mapperSuffix = "Mapper";
+    @Builder.Default
     private String dtoSuffix = "Dto";
+    @Builder.Default
     private String entitySuffix = "Entity";
 
     public BasicInfo(BasicInfo basicInfo) {
         this.entityName = basicInfo.getEntityName();
         this.tableName = basicInfo.getTableName();
         this.tableComment = basicInfo.getTableComment();
+        this.curTime = nowTime();
         this.importPackages = basicInfo.getImportPackages();
         this.packageUrl = basicInfo.getPackageUrl();
         this.dtoUrl = basicInfo.getDtoUrl();
@@ -159,6 +314,20 @@ public class BasicInfo {
         this.lombokEnable = basicInfo.getLombokEnable();
         this.apiDocType = basicInfo.getApiDocType();
         this.apiDocVersion = basicInfo.getApiDocVersion();
+        this.databaseType = basicInfo.getDatabaseType();
+        this.batchSize = basicInfo.getBatchSize();
+        this.batchMaxBytes = basicInfo.getBatchMaxBytes();
+        this.inListChunkSize = basicInfo.getInListChunkSize();
+        this.inListExecutor = basicInfo.getInListExecutor();
+        this.cacheEnable = basicInfo.getCacheEnable();
+        this.cacheMaxSize = basicInfo.getCacheMaxSize();
+        this.cacheTtlSeconds = basicInfo.getCacheTtlSeconds();
+        this.countCacheTtlSeconds = basicInfo.getCountCacheTtlSeconds();
+        this.readWriteSplitEnable = basicInfo.getReadWriteSplitEnable();
+        this.relationEnable = basicInfo.getRelationEnable();
+        this.streamFetchSize = basicInfo.getStreamFetchSize();
+        this.lazyLoadEnable = basicInfo.getLazyLoadEnable();
+        this.heavyColumnSize = basicInfo.getHeavyColumnSize();
         this.controllerSuffix = basicInfo.getControllerSuffix();
         this.serviceSuffix = basicInfo.getServiceSuffix();
         this.serviceImplSuffix = basicInfo.getServiceImplSuffix();
@@ -167,7 +336,7 @@ public class BasicInfo {
         this.entitySuffix = basicInfo.getEntitySuffix();
     }
 
-    private String nowTime() {
+    private static String nowTime() {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         return sdf.format(new Date());
     }
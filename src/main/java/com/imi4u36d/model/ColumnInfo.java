@@ -3,21 +3,74 @@ package com.imi4u36d.model;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * @author wangzhuo
  */
 @Data
 @Builder
-public class ColumnInfo {
+public class ColumnInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private String columnName;
 
     private String columnType;
 
+    /**
+     * JDBC类型编码（java.sql.Types），批量扫描时为空
+     */
+    private Integer jdbcType;
+
+    /**
+     * 长度或精度
+     */
+    private Integer columnSize;
+
+    /**
+     * 小数位数
+     */
+    private Integer decimalDigits;
+
+    /**
+     * 是否为自增字段，批量新增时不插入自增字段
+     */
+    private boolean autoIncrement;
+
     private String javaName;
 
     private String javaType;
 
+    /**
+     * Java类型需要导入的类，无需导入时为空字符串
+     */
+    private String javaTypePackage;
+
     private String columnComment;
 
+    /**
+     * 是否为主键字段
+     */
+    private boolean primaryKey;
+
+    /**
+     * 在主键中的顺序，从1开始，非主键字段为空
+     */
+    private Integer primaryKeySeq;
+
+    /**
+     * 是否属于某个唯一索引
+     */
+    private boolean uniqueKey;
+
+    /**
+     * 是否为主键或某个索引的首列，为false时单独按该字段筛选会全表扫描
+     */
+    private boolean indexed;
+
+    /**
+     * 是否为大字段，开启延迟加载时列表、分页和selById不查询该字段
+     */
+    private boolean heavy;
+
 }
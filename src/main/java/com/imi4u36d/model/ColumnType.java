@@ -14,9 +14,9 @@ public enum ColumnType {
     MEDIUMINT("Integer", ""),
     VARCHAR("String", ""),
     CHAR("String", ""),
-    TEXT("String", ""),
-    MEDIUMTEXT("String", ""),
-    LONGTEXT("String", ""),
+    TEXT("String", "", true),
+    MEDIUMTEXT("String", "", true),
+    LONGTEXT("String", "", true),
     BINARY("byte[]", ""),
     ENUM("String", ""),
     SET("String", ""),
@@ -34,20 +34,30 @@ public enum ColumnType {
     YEAR("Integer", ""),
     DECIMAL("BigDecimal", "java.math.BigDecimal"),
     NUMERIC("BigDecimal", "java.math.BigDecimal"),
-    JSON("String", ""),
-    GEOMETRY("String", ""),
+    JSON("String", "", true),
+    GEOMETRY("String", "", true),
     POINT("String", ""),
-    LINESTRING("String", ""),
-    POLYGON("String", ""),
-    BLOB("byte[]", ""),
-    MEDIUMBLOB("byte[]", ""),
-    LONGBLOB("byte[]", "");
+    LINESTRING("String", "", true),
+    POLYGON("String", "", true),
+    BLOB("byte[]", "", true),
+    MEDIUMBLOB("byte[]", "", true),
+    LONGBLOB("byte[]", "", true);
 
     private final String fieldType;
     private final String packageName;
 
+    /**
+     * 是否为大对象类型，开启延迟加载时列表查询不返回该类型的字段
+     */
+    private final boolean largeObject;
+
     ColumnType(String fieldType, String packageName) {
+        this(fieldType, packageName, false);
+    }
+
+    ColumnType(String fieldType, String packageName, boolean largeObject) {
         this.fieldType = fieldType;
         this.packageName = packageName;
+        this.largeObject = largeObject;
     }
 }
\ No newline at end of file
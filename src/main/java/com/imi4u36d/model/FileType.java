@@ -5,24 +5,29 @@ package com.imi4u36d.model;
  */
 
 public enum FileType {
-    CONTROLLER("Controller.java", "controller.ftl", "controller"),
-    ENTITY(".java", "entity.ftl", "entity"),
-    SERVICE("Service.java", "service.ftl", "service"),
-    IMPL("ServiceImpl.java", "impl.ftl", "service"),
-    MAPPER("Mapper.java", "mapper.ftl", "mapper"),
-    XML("Mapper.xml", "xml.ftl", "mapper"),
-    DTO("Dto.java", "dto.ftl", "dto"),
-    BASERESDTO("BaseResponseDto.java", "baseResponseDto.ftl", "res"),
-    RES("Result.java", "result.ftl", "res");
+    CONTROLLER("Controller.java", "controller.ftl", "controller", false),
+    ENTITY(".java", "entity.ftl", "entity", false),
+    SERVICE("Service.java", "service.ftl", "service", false),
+    IMPL("ServiceImpl.java", "impl.ftl", "service", false),
+    MAPPER("Mapper.java", "mapper.ftl", "mapper", false),
+    XML("Mapper.xml", "xml.ftl", "mapper", false),
+    DTO("Dto.java", "dto.ftl", "dto", false),
+    BASERESDTO("BaseResponseDto.java", "baseResponseDto.ftl", "res", true),
+    RES("Result.java", "result.ftl", "res", true),
+    ROUTING_DATASOURCE("ReadWriteRoutingDataSource.java", "routingDataSource.ftl", "datasource", true),
+    READ_ONLY_TRANSACTIONAL("ReadOnlyTransactional.java", "readOnlyTransactional.ftl", "datasource", true);
 
     private final String extension;
     private final String ftlName;
     private final String packageName;
+    // 是否为通用类，通用类只生成一次，不区分表
+    private final boolean common;
 
-    FileType(String extension, String ftlName, String packageName) {
+    FileType(String extension, String ftlName, String packageName, boolean common) {
         this.extension = extension;
         this.ftlName = ftlName;
         this.packageName = packageName;
+        this.common = common;
     }
 
     public String getExtension() {
@@ -36,4 +41,8 @@ public enum FileType {
     public String getPackageName() {
         return packageName;
     }
+
+    public boolean isCommon() {
+        return common;
+    }
 }
\ No newline at end of file
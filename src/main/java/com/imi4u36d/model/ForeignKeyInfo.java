@@ -0,0 +1,65 @@
+package com.imi4u36d.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 外键信息，当前表为子表
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+public class ForeignKeyInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 外键约束名称
+     */
+    private String constraintName;
+
+    /**
+     * 外键字段名，按外键中的字段顺序排列
+     */
+    private List<String> columnNames = new ArrayList<>();
+
+    /**
+     * 引用的父表名称，与配置中的表名一致
+     */
+    private String referencedTableName;
+
+    /**
+     * 引用的父表字段名，与columnNames一一对应
+     */
+    private List<String> referencedColumnNames = new ArrayList<>();
+
+    /**
+     * 外键字段，装配表信息时按字段名关联
+     */
+    private transient ColumnInfo columnInfo;
+
+    /**
+     * 父表实体名称
+     */
+    private transient String parentEntityName;
+
+    /**
+     * 关联名称，由外键字段名去掉Id后缀得到，如 userId 对应 User
+     */
+    private transient String relationName;
+
+    /**
+     * 是否引用当前表自身
+     */
+    private transient boolean selfReference;
+
+    public ForeignKeyInfo(String constraintName, String referencedTableName) {
+        this.constraintName = constraintName;
+        this.referencedTableName = referencedTableName;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.imi4u36d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引信息（不含主键索引）
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 索引名称
+     */
+    private String indexName;
+
+    /**
+     * 是否为唯一索引
+     */
+    private boolean unique;
+
+    /**
+     * 索引字段名，按索引中的字段顺序排列
+     */
+    private List<String> columnNames = new ArrayList<>();
+
+    /**
+     * 索引字段，装配表信息时按字段名关联，按索引中的字段顺序排列
+     */
+    private transient List<ColumnInfo> columnInfos;
+
+    /**
+     * 查询方法名后缀，如 AccountIdAndStatus
+     */
+    private transient String methodSuffix;
+
+}
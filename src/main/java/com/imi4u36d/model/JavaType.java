@@ -0,0 +1,52 @@
+package com.imi4u36d.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 字段对应的Java类型
+ *
+ * @author wangzhuo
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class JavaType {
+
+    /**
+     * 字段类型，如 Long、BigDecimal、byte[]
+     */
+    private final String fieldType;
+
+    /**
+     * 需要导入的类，java.lang包下的类型和基本类型数组为空字符串
+     */
+    private final String packageName;
+
+    public JavaType(String fieldType, String packageName) {
+        this.fieldType = fieldType;
+        this.packageName = packageName;
+    }
+
+    /**
+     * 根据类名创建，如 String、java.time.LocalDateTime
+     */
+    public static JavaType of(String className) {
+        String name = className.trim();
+        int index = name.lastIndexOf('.');
+        if (index < 0) {
+            return new JavaType(name, "");
+        }
+        String fieldType = name.substring(index + 1);
+        String packageName = name.substring(0, index);
+        return new JavaType(fieldType, "java.lang".equals(packageName) ? "" : name);
+    }
+
+    /**
+     * 使用内置的字段类型枚举创建
+     */
+    public static JavaType of(ColumnType columnType) {
+        return new JavaType(columnType.getFieldType(), columnType.getPackageName());
+    }
+}
@@ -0,0 +1,49 @@
+package com.imi4u36d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+
+/**
+ * 已渲染、待写入的文件
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenderedFile {
+
+    /**
+     * 生成文件
+     */
+    private File file;
+
+    /**
+     * 文件类型
+     */
+    private FileType fileType;
+
+    /**
+     * 渲染结果
+     */
+    private String content;
+
+    /**
+     * 生成文件的输入哈希，未开启增量生成时为空
+     */
+    private String fingerprint;
+
+    /**
+     * 渲染时使用的生成时间
+     */
+    private String curTime;
+
+    /**
+     * 无需写入时的生成结果（输入未变化或文件已存在），需要写入时为空
+     */
+    private BaseResModel result;
+
+}
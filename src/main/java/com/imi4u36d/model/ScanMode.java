@@ -0,0 +1,43 @@
+package com.imi4u36d.model;
+
+import lombok.Getter;
+
+/**
+ * 表结构扫描模式枚举
+ *
+ * @author wangzhuo
+ */
+@Getter
+public enum ScanMode {
+    DEFAULT("default", "逐表扫描"),
+    BULK("bulk", "批量扫描"),
+    PARALLEL("parallel", "并发扫描");
+
+    private final String type; // 配置文件中使用的模式字符串
+    private final String name; // 模式名称
+
+    ScanMode(String type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    /**
+     * 根据配置值获取扫描模式
+     *
+     * @param config 配置值
+     * @return 扫描模式，未配置时返回逐表扫描
+     */
+    public static ScanMode fromConfig(String config) {
+        if (config == null || config.isEmpty()) {
+            return DEFAULT;
+        }
+
+        for (ScanMode mode : values()) {
+            if (mode.getType().equalsIgnoreCase(config.trim())) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("不支持的扫描模式: " + config);
+    }
+}
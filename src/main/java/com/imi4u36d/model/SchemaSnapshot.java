@@ -0,0 +1,57 @@
+package com.imi4u36d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 表结构快照，序列化后保存到磁盘，用于跳过未变化表的扫描
+ * <p>
+ * 快照相关的模型类声明固定的serialVersionUID，重新编译不会使快照失效；
+ * 快照中保存的模型字段变化时需要递增 {@link #FORMAT_VERSION}，旧快照读取后因版本不一致而失效
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 快照格式版本，TableSnapshot、ColumnInfo、IndexInfo、ForeignKeyInfo 的序列化字段变化时递增
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * 生成快照时的格式版本
+     */
+    private int version = FORMAT_VERSION;
+
+    /**
+     * 生成快照时使用的JDBC URL
+     */
+    private String url;
+
+    /**
+     * 生成快照时配置的表，快照中的外键只保留父表在其中的部分
+     */
+    private List<String> tableNames = new ArrayList<>();
+
+    /**
+     * 生成快照时是否开启关联查询，未开启时快照中不保存外键
+     */
+    private boolean relationEnable;
+
+    /**
+     * 表结构快照，key为表名
+     */
+    private Map<String, TableSnapshot> tables = new LinkedHashMap<>();
+
+}
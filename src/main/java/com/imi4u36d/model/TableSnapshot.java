@@ -0,0 +1,51 @@
+package com.imi4u36d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 单张表的表结构快照
+ *
+ * @author wangzhuo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 数据库表名称
+     */
+    private String tableName;
+
+    /**
+     * 表结构指纹，表结构变化时指纹随之变化
+     */
+    private String fingerprint;
+
+    /**
+     * 数据库表注释
+     */
+    private String tableComment;
+
+    /**
+     * 字段信息
+     */
+    private List<ColumnInfo> columnInfos;
+
+    /**
+     * 索引信息（不含主键索引）
+     */
+    private List<IndexInfo> indexInfos;
+
+    /**
+     * 引用已配置父表单字段主键的外键
+     */
+    private List<ForeignKeyInfo> foreignKeyInfos;
+
+}
@@ -0,0 +1,126 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 构建清单：记录每个生成文件对应的模型、配置和模板的哈希，输入未变化时跳过渲染和写入
+ *
+ * @author wangzhuo
+ */
+public class BuildManifest {
+    private static final Logger logger = LoggerFactory.getLogger(BuildManifest.class);
+
+    private final File manifestFile;
+
+    // key为生成文件的绝对路径，value为生成该文件时输入的哈希
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+
+    private BuildManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * 读取构建清单，文件不存在时返回空清单
+     *
+     * @param manifestFile 清单文件
+     * @return 构建清单
+     */
+    public static BuildManifest load(File manifestFile) {
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        if (manifestFile.isFile()) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                properties.forEach((key, value) -> manifest.entries.put(key.toString(), value.toString()));
+                logger.info("读取构建清单: {}，共 {} 条记录", manifestFile.getAbsolutePath(), manifest.entries.size());
+            } catch (IOException e) {
+                logger.warn("读取构建清单失败，将重新生成所有文件: {}", manifestFile.getAbsolutePath(), e);
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * 判断生成文件是否已是最新：文件存在且生成时的输入哈希与当前一致
+     *
+     * @param file        生成文件
+     * @param fingerprint 当前输入哈希
+     */
+    public boolean isUpToDate(File file, String fingerprint) {
+        return fingerprint.equals(entries.get(file.getAbsolutePath())) && file.isFile();
+    }
+
+    /**
+     * 记录生成文件的输入哈希
+     */
+    public void record(File file, String fingerprint) {
+        entries.put(file.getAbsolutePath(), fingerprint);
+    }
+
+    /**
+     * 保存构建清单
+     */
+    public void save() {
+        File parent = manifestFile.getAbsoluteFile().getParentFile();
+        try {
+            Files.createDirectories(parent.toPath());
+            File tmpFile = File.createTempFile(manifestFile.getName(), ".tmp", parent);
+            try (Writer writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+                // 按路径排序写入，便于查看和比对
+                for (Map.Entry<String, String> entry : new TreeMap<>(entries).entrySet()) {
+                    writer.write(escape(entry.getKey()) + "=" + entry.getValue() + "\n");
+                }
+            }
+            Files.move(tmpFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("构建清单已保存: {}", manifestFile.getAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("保存构建清单失败: {}", manifestFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 计算文本的SHA-256哈希
+     */
+    public static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按Properties格式转义key，兼容Windows路径中的反斜杠和冒号
+     */
+    private static String escape(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (char c : key.toCharArray()) {
+            if (c == '\\' || c == ':' || c == '=' || c == ' ' || c == '#' || c == '!') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.imi4u36d.util;
+
+/**
+ * 由模板编译得到的渲染器，实现类由 {@link TemplateCompiler} 生成，可被多个线程同时使用
+ *
+ * @author wangzhuo
+ */
+public interface CompiledTemplate {
+
+    /**
+     * 渲染模板
+     *
+     * @param model 数据模型，与FreeMarker渲染时的根对象一致
+     * @param out   输出缓冲区，渲染结果追加到末尾
+     */
+    void render(Object model, StringBuilder out);
+}
@@ -3,17 +3,29 @@ package com.imi4u36d.util;
 import com.imi4u36d.config.DBConfiguration;
 import com.imi4u36d.model.BasicInfo;
 import com.imi4u36d.model.ColumnInfo;
-import com.imi4u36d.model.ColumnType;
 import com.imi4u36d.model.DatabaseType;
+import com.imi4u36d.model.ForeignKeyInfo;
+import com.imi4u36d.model.JavaType;
+import com.imi4u36d.model.ScanMode;
+import com.imi4u36d.model.IndexInfo;
+import com.imi4u36d.model.SchemaSnapshot;
+import com.imi4u36d.model.TableSnapshot;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,11 +36,30 @@ public class DBUtils {
     private static final Logger logger = LoggerFactory.getLogger(DBUtils.class);
     private static final String SQL = "SELECT * FROM ";
     private static final DBUtils INSTANCE = new DBUtils();
+    // 批量扫描时单条语句IN列表的最大表数量（Oracle限制IN列表不超过1000项）
+    private static final int BULK_IN_LIST_SIZE = 500;
+
+    /**
+     * 支持作为游标分页排序字段的Java类型，游标在生成代码中按类型编码和解析
+     */
+    private static final Set<String> CURSOR_JAVA_TYPES = new HashSet<>(Arrays.asList("Long", "Integer", "String",
+            "BigDecimal", "Date", "Timestamp", "LocalDateTime", "LocalDate"));
 
     private DBConfiguration dbConfiguration;
-    private HikariDataSource dataSource;
+    private volatile HikariDataSource dataSource;
+    // 按配置中的表顺序保存扫描结果
     @Getter
-    private final Map<String, BasicInfo> tableInfoMap = new ConcurrentHashMap<>();
+    private final Map<String, BasicInfo> tableInfoMap = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * 表扫描完成监听器，扫描期间有效；并发扫描时按完成顺序回调
+     */
+    private volatile Consumer<BasicInfo> tableListener;
+
+    /**
+     * 字段类型映射表，每次扫描时按数据库类型和配置创建
+     */
+    private volatile TypeMappingRegistry typeMappingRegistry;
 
     /**
      * 私有构造方法，防止外部实例化
@@ -65,6 +96,7 @@ public class DBUtils {
                         if (dbConfiguration == null) {
                             throw new IllegalStateException("Database configuration is not set");
                         }
+                        long start = System.nanoTime();
                         HikariConfig config = new HikariConfig();
                         config.setDriverClassName(dbConfiguration.getDriverClassName());
                         config.setJdbcUrl(dbConfiguration.getUrl());
@@ -72,13 +104,17 @@ public class DBUtils {
                         config.setPassword(dbConfiguration.getPwd());
 
                         // 设置连接池参数
-                        config.setMaximumPoolSize(10);
-                        config.setMinimumIdle(5);
+                        config.setMaximumPoolSize(dbConfiguration.getMaxPoolSize());
+                        config.setMinimumIdle(Math.min(5, dbConfiguration.getMaxPoolSize()));
                         config.setConnectionTimeout(30000);
                         config.setIdleTimeout(600000);
                         config.setMaxLifetime(1800000);
+                        if (GenerateMetrics.getInstance().isEnabled()) {
+                            config.setMetricsTrackerFactory(GenerateMetrics.getInstance().poolMetricsTrackerFactory());
+                        }
 
                         dataSource = new HikariDataSource(config);
+                        GenerateMetrics.getInstance().recordPhase(GenerateMetrics.PHASE_POOL_INIT, start);
                         logger.info("数据库连接池初始化成功");
                     } catch (Exception e) {
                         logger.error("数据库连接池初始化失败", e);
@@ -97,7 +133,7 @@ public class DBUtils {
     private Connection getConnection() {
         initDataSource();
         try {
-            return dataSource.getConnection();
+            return GenerateMetrics.getInstance().trackQueries(dataSource.getConnection());
         } catch (SQLException e) {
             logger.error("获取数据库连接失败", e);
             throw new RuntimeException("Failed to get connection", e);
@@ -107,9 +143,11 @@ public class DBUtils {
     /**
      * 关闭数据库连接池
      */
-    public void closeConnection() {
+    public synchronized void closeConnection() {
         if (dataSource != null) {
             dataSource.close();
+            // 置空后同一JVM中再次执行时可以重新初始化连接池
+            dataSource = null;
             logger.info("数据库连接池已关闭");
         }
     }
@@ -118,14 +156,14 @@ public class DBUtils {
      * 获得某表的注释
      *
      * @param tableName
+     * @param conn      当前扫描使用的连接，避免在持有连接时再次从连接池获取
      * @return 表的注释
      */
-    private String getCommentByTableName(String tableName) {
+    private String getCommentByTableName(String tableName, Connection conn) {
         String comment = "";
 
         // 尝试使用标准JDBC方法获取表注释
-        try (Connection conn = getConnection();
-                ResultSet rs = conn.getMetaData().getTables(null, null, tableName, new String[] { "TABLE" })) {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, tableName, new String[] { "TABLE" })) {
             if (rs.next()) {
                 comment = rs.getString("REMARKS");
                 if (comment != null && !comment.isEmpty()) {
@@ -137,11 +175,7 @@ public class DBUtils {
         }
 
         // 如果标准JDBC方法失败或未获取到注释，尝试使用数据库特定的方法
-        try (Connection conn = getConnection()) {
-            comment = getTableCommentBySpecificDB(tableName, conn);
-        } catch (SQLException e) {
-            logger.error("使用特定数据库方法获取表注释失败: {}", tableName, e);
-        }
+        comment = getTableCommentBySpecificDB(tableName, conn);
 
         return comment != null ? comment : "";
     }
@@ -342,78 +376,1212 @@ public class DBUtils {
      * 扫描表信息存储到数据模型种
      */
     public void scanInfoToModel(BasicInfo basicInfo) {
+        scanInfoToModel(basicInfo, null);
+    }
+
+    /**
+     * 扫描表信息存储到数据模型种，每张表扫描完成后立即回调监听器，下游可以不等全部表扫描完成就开始处理
+     *
+     * @param tableListener 表扫描完成监听器，可为空
+     */
+    public void scanInfoToModel(BasicInfo basicInfo, Consumer<BasicInfo> tableListener) {
         List<String> tableNames = dbConfiguration.getTableNames();
         logger.info("正在加载表：" + tableNames.toString());
         tableInfoMap.clear(); // 清空之前的表信息
+        typeMappingRegistry = TypeMappingRegistry.create(DatabaseType.fromJdbcUrl(dbConfiguration.getUrl()),
+                dbConfiguration.getTypeMapping());
+
+        this.tableListener = tableListener;
+        try {
+            if (dbConfiguration.isSchemaCacheEnable()) {
+                scanInfoToModelWithSnapshot(basicInfo, tableNames);
+            } else {
+                scanTables(basicInfo, tableNames);
+            }
+        } finally {
+            this.tableListener = null;
+        }
+
+        logger.info("所有表加载完成，共加载了 {} 张表", tableInfoMap.size());
+    }
+
+    /**
+     * 重新扫描指定的表并替换已有的表信息，表的顺序不变；不读取和更新表结构快照
+     *
+     * @param tableNames 需要重新扫描的表，必须是配置中的表
+     * @return 重新扫描后的表信息，key为表名
+     */
+    public Map<String, BasicInfo> rescanTables(BasicInfo basicInfo, List<String> tableNames) {
+        logger.info("重新加载表：" + tableNames);
+        scanTables(basicInfo, tableNames);
+        Map<String, BasicInfo> infos = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            BasicInfo info = tableInfoMap.get(tableName);
+            if (info != null) {
+                infos.put(tableName, info);
+            }
+        }
+        return infos;
+    }
+
+    /**
+     * 是否支持查询表结构指纹
+     */
+    public boolean isFingerprintSupported() {
+        return getFingerprintSql(DatabaseType.fromJdbcUrl(dbConfiguration.getUrl())) != null;
+    }
+
+    /**
+     * 批量查询配置中全部表的表结构指纹，一次查询即可判断哪些表的结构发生了变化
+     *
+     * @return key为表名，value为指纹；数据库不支持或查询失败时返回空Map
+     */
+    public Map<String, String> getTableFingerprints() {
+        return getTableFingerprints(dbConfiguration.getTableNames());
+    }
+
+    /**
+     * 通知监听器一张表已扫描完成
+     */
+    private void notifyTableScanned(BasicInfo info) {
+        Consumer<BasicInfo> listener = tableListener;
+        if (listener != null) {
+            listener.accept(info);
+        }
+    }
+
+    /**
+     * 按配置的扫描模式扫描指定的表
+     */
+    private void scanTables(BasicInfo basicInfo, List<String> tableNames) {
+        DatabaseType dbType = DatabaseType.fromJdbcUrl(dbConfiguration.getUrl());
+        ScanMode scanMode = dbConfiguration.getScanMode();
+        if (scanMode == ScanMode.BULK && getBulkColumnSql(dbType) == null) {
+            logger.warn("数据库 {} 不支持批量扫描，将使用逐表扫描", dbType.getName());
+            scanMode = ScanMode.DEFAULT;
+        }
+        logger.info("表结构扫描模式: {}", scanMode.getName());
+
+        if (scanMode == ScanMode.BULK) {
+            scanInfoToModelInBulk(basicInfo, tableNames, dbType);
+        } else if (scanMode == ScanMode.PARALLEL) {
+            scanInfoToModelInParallel(basicInfo, tableNames);
+        } else {
+            scanInfoToModelByTable(basicInfo, tableNames);
+        }
+    }
+
+    /**
+     * 使用表结构快照扫描：表结构指纹未变化的表直接从快照加载，其余表重新扫描后更新快照
+     */
+    private void scanInfoToModelWithSnapshot(BasicInfo basicInfo, List<String> tableNames) {
+        File snapshotFile = new File(dbConfiguration.getSnapshotFile());
+        SchemaSnapshot snapshot = SnapshotUtils.load(snapshotFile);
+        if (snapshot != null && !Objects.equals(snapshot.getUrl(), dbConfiguration.getUrl())) {
+            logger.info("数据库地址已变化，表结构快照失效");
+            snapshot = null;
+        }
+        // 快照中的外键已按当时配置的表和关联查询开关过滤，配置变化后需要重新扫描；
+        // 离线模式无法重新扫描，只去掉父表不再生成的外键
+        if (snapshot != null && !dbConfiguration.isOfflineEnable()
+                && (snapshot.isRelationEnable() != basicInfo.getRelationEnable()
+                || !new HashSet<>(snapshot.getTableNames()).equals(new HashSet<>(tableNames)))) {
+            logger.info("生成的表或关联查询配置已变化，表结构快照失效");
+            snapshot = null;
+        }
+        Map<String, TableSnapshot> cachedTables = snapshot == null ? Collections.emptyMap() : snapshot.getTables();
+
+        // 离线模式：完全从快照生成，不连接数据库
+        if (dbConfiguration.isOfflineEnable()) {
+            for (String tableName : tableNames) {
+                TableSnapshot tableSnapshot = cachedTables.get(tableName);
+                GenerateMetrics.getInstance().recordCache(GenerateMetrics.CACHE_SCHEMA_SNAPSHOT, tableSnapshot != null);
+                if (tableSnapshot == null) {
+                    throw new IllegalStateException("离线模式下表结构快照中缺少表: " + tableName);
+                }
+                BasicInfo info = buildBasicInfo(basicInfo, tableName, tableSnapshot.getTableComment(),
+                        applyJavaTypes(tableSnapshot.getColumnInfos()), tableSnapshot.getIndexInfos(),
+                        retainConfiguredParents(tableSnapshot.getForeignKeyInfos()));
+                tableInfoMap.put(tableName, info);
+                notifyTableScanned(info);
+            }
+            logger.info("离线模式：从表结构快照加载了 {} 张表", tableInfoMap.size());
+            return;
+        }
+
+        // 对比表结构指纹，找出需要重新扫描的表
+        Map<String, String> fingerprints = getTableFingerprints(tableNames);
+        Map<String, BasicInfo> cachedInfos = new HashMap<>();
+        List<String> changedTables = new ArrayList<>();
+        for (String tableName : tableNames) {
+            String fingerprint = fingerprints.get(tableName);
+            TableSnapshot tableSnapshot = cachedTables.get(tableName);
+            boolean hit = fingerprint != null && tableSnapshot != null
+                    && fingerprint.equals(tableSnapshot.getFingerprint());
+            GenerateMetrics.getInstance().recordCache(GenerateMetrics.CACHE_SCHEMA_SNAPSHOT, hit);
+            if (hit) {
+                BasicInfo info = buildBasicInfo(basicInfo, tableName, tableSnapshot.getTableComment(),
+                        applyJavaTypes(tableSnapshot.getColumnInfos()), tableSnapshot.getIndexInfos(),
+                        tableSnapshot.getForeignKeyInfos());
+                cachedInfos.put(tableName, info);
+                notifyTableScanned(info);
+            } else {
+                changedTables.add(tableName);
+            }
+        }
+        logger.info("表结构快照命中 {} 张表，需要重新扫描 {} 张表", cachedInfos.size(), changedTables.size());
+
+        if (!changedTables.isEmpty()) {
+            scanTables(basicInfo, changedTables);
+        }
+
+        // 按配置中的表顺序合并快照结果和扫描结果，并生成新的快照
+        Map<String, BasicInfo> mergedInfos = new LinkedHashMap<>();
+        SchemaSnapshot newSnapshot = new SchemaSnapshot();
+        newSnapshot.setUrl(dbConfiguration.getUrl());
+        newSnapshot.setTableNames(new ArrayList<>(tableNames));
+        newSnapshot.setRelationEnable(basicInfo.getRelationEnable());
+        for (String tableName : tableNames) {
+            BasicInfo info = cachedInfos.containsKey(tableName) ? cachedInfos.get(tableName)
+                    : tableInfoMap.get(tableName);
+            if (info == null) {
+                continue;
+            }
+            mergedInfos.put(tableName, info);
+
+            String fingerprint = fingerprints.get(tableName);
+            if (fingerprint != null) {
+                newSnapshot.getTables().put(tableName,
+                        new TableSnapshot(tableName, fingerprint, info.getTableComment(), info.getColumnInfos(),
+                                info.getIndexInfos(), info.getForeignKeyInfos()));
+            }
+        }
+        tableInfoMap.clear();
+        tableInfoMap.putAll(mergedInfos);
+
+        if (!changedTables.isEmpty() || !newSnapshot.getTables().keySet().equals(cachedTables.keySet())) {
+            SnapshotUtils.save(snapshotFile, newSnapshot);
+        }
+    }
+
+    /**
+     * 去掉父表不在当前配置中的外键
+     */
+    private List<ForeignKeyInfo> retainConfiguredParents(List<ForeignKeyInfo> foreignKeyInfos) {
+        if (foreignKeyInfos == null) {
+            return null;
+        }
+        return foreignKeyInfos.stream()
+                .filter(foreignKeyInfo -> findConfiguredTableName(foreignKeyInfo.getReferencedTableName()) != null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量查询表结构指纹，指纹由表注释、字段顺序、名称、类型和注释、索引以及外键定义计算得出
+     *
+     * @return key为表名，value为指纹；数据库不支持时返回空Map
+     */
+    private Map<String, String> getTableFingerprints(List<String> tableNames) {
+        Map<String, String> fingerprints = new HashMap<>();
+        DatabaseType dbType = DatabaseType.fromJdbcUrl(dbConfiguration.getUrl());
+        String sql = getFingerprintSql(dbType);
+        if (sql == null) {
+            logger.warn("数据库 {} 不支持表结构指纹，所有表都将重新扫描", dbType.getName());
+            return fingerprints;
+        }
 
         try (Connection conn = getConnection()) {
-            DatabaseMetaData dbMetaData = conn.getMetaData();
+            queryInBulk(conn, sql, tableNames, dbType, (tableName, rs) -> {
+                String fingerprint = rs.getString(2);
+                fingerprints.put(tableName, md5Hex(fingerprint != null ? fingerprint : ""));
+            });
+        } catch (SQLException e) {
+            // 指纹只用于判断是否可以复用快照，查询失败时全部重新扫描
+            logger.warn("查询表结构指纹失败，所有表都将重新扫描", e);
+            fingerprints.clear();
+        }
+        return fingerprints;
+    }
 
+    /**
+     * 批量查询表结构指纹的语句，结果列依次为：表名、指纹原文
+     */
+    private String getFingerprintSql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT t.TABLE_NAME, CONCAT_WS('|', t.CREATE_TIME, t.TABLE_COMMENT, "
+                        + "(SELECT CONCAT(COUNT(*), ':', SUM(CRC32(CONCAT_WS(':', c.ORDINAL_POSITION, c.COLUMN_NAME, "
+                        + "c.COLUMN_TYPE, c.COLUMN_COMMENT, c.COLUMN_KEY, c.EXTRA)))) FROM information_schema.COLUMNS c "
+                        + "WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME), "
+                        + "(SELECT CONCAT(COUNT(*), ':', SUM(CRC32(CONCAT_WS(':', s.INDEX_NAME, s.NON_UNIQUE, s.SEQ_IN_INDEX, "
+                        + "s.COLUMN_NAME)))) FROM information_schema.STATISTICS s "
+                        + "WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME), "
+                        + "(SELECT CONCAT(COUNT(*), ':', SUM(CRC32(CONCAT_WS(':', k.CONSTRAINT_NAME, k.ORDINAL_POSITION, "
+                        + "k.COLUMN_NAME, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME)))) "
+                        + "FROM information_schema.KEY_COLUMN_USAGE k WHERE k.TABLE_SCHEMA = t.TABLE_SCHEMA "
+                        + "AND k.TABLE_NAME = t.TABLE_NAME AND k.REFERENCED_TABLE_NAME IS NOT NULL)) "
+                        + "FROM information_schema.TABLES t WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME IN (%s)";
+            case POSTGRESQL:
+                return "SELECT c.relname, coalesce(obj_description(c.oid, 'pg_class'), '') || '|' || "
+                        + "string_agg(a.attnum || ':' || a.attname || ':' || format_type(a.atttypid, a.atttypmod) || a.attidentity "
+                        + "|| ':' || coalesce(col_description(c.oid, a.attnum), '') || ':' || EXISTS(SELECT 1 FROM pg_index i "
+                        + "WHERE i.indrelid = c.oid AND i.indisprimary AND a.attnum = ANY(i.indkey)), ',' ORDER BY a.attnum) "
+                        + "|| '|' || coalesce((SELECT string_agg(i.indexrelid::regclass::text || ':' || i.indisunique || ':' "
+                        + "|| i.indkey::text || ':' || coalesce(i.indpred::text, ''), ',' ORDER BY i.indexrelid) "
+                        + "FROM pg_index i WHERE i.indrelid = c.oid), '') "
+                        // PostgreSQL不会为外键创建索引，外键定义需要单独拼接
+                        + "|| '|' || coalesce((SELECT string_agg(f.conname || ':' || pg_get_constraintdef(f.oid), ',' "
+                        + "ORDER BY f.conname) FROM pg_constraint f WHERE f.conrelid = c.oid AND f.contype = 'f'), '') "
+                        + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped "
+                        + "WHERE n.nspname = current_schema() AND c.relname IN (%s) GROUP BY c.relname, c.oid";
+            case ORACLE:
+                // 表结构和注释的变更都会更新LAST_DDL_TIME，外键定义单独拼接
+                return "SELECT o.object_name, TO_CHAR(o.last_ddl_time, 'YYYYMMDDHH24MISS') || '|' || (SELECT "
+                        + "LISTAGG(c.constraint_name || ':' || cc.position || ':' || cc.column_name || ':' "
+                        + "|| rc.table_name || ':' || rcc.column_name, ',') WITHIN GROUP (ORDER BY c.constraint_name, "
+                        + "cc.position) FROM user_constraints c "
+                        + "JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name "
+                        + "JOIN user_constraints rc ON rc.constraint_name = c.r_constraint_name "
+                        + "JOIN user_cons_columns rcc ON rcc.constraint_name = rc.constraint_name "
+                        + "AND rcc.position = cc.position "
+                        + "WHERE c.constraint_type = 'R' AND c.table_name = o.object_name) "
+                        + "FROM user_objects o WHERE o.object_type = 'TABLE' AND o.object_name IN (%s)";
+            case SQL_SERVER:
+                // 通过sp_updateextendedproperty修改注释不会更新modify_date，需要同时拼接表和字段的MS_Description
+                return "SELECT t.name, CONVERT(VARCHAR(33), t.modify_date, 126) + '|' + ISNULL((SELECT "
+                        + "CONVERT(VARCHAR(11), ep.minor_id) + ':' + CONVERT(NVARCHAR(4000), ep.value) + ',' "
+                        + "FROM sys.extended_properties ep WHERE ep.class = 1 AND ep.major_id = t.object_id "
+                        + "AND ep.name = 'MS_Description' ORDER BY ep.minor_id FOR XML PATH('')), '') "
+                        + "+ '|' + ISNULL((SELECT fk.name + ':' + CONVERT(VARCHAR(11), fkc.constraint_column_id) + ':' "
+                        + "+ COL_NAME(fkc.parent_object_id, fkc.parent_column_id) + ':' "
+                        + "+ OBJECT_NAME(fkc.referenced_object_id) + ':' "
+                        + "+ COL_NAME(fkc.referenced_object_id, fkc.referenced_column_id) + ',' "
+                        + "FROM sys.foreign_keys fk JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id "
+                        + "WHERE fk.parent_object_id = t.object_id ORDER BY fk.name, fkc.constraint_column_id "
+                        + "FOR XML PATH('')), '') "
+                        + "FROM sys.tables t WHERE t.name IN (%s)";
+            case H2:
+                return "SELECT c.TABLE_NAME, MAX(COALESCE(t.REMARKS, '')) || '|' || LISTAGG(c.ORDINAL_POSITION || ':' "
+                        + "|| c.COLUMN_NAME || ':' || c.DATA_TYPE || ':' || c.IS_IDENTITY || ':' || COALESCE(c.REMARKS, '') || ':' "
+                        + "|| COALESCE((SELECT LISTAGG(ic.INDEX_NAME || ':' || ic.ORDINAL_POSITION || ':' || ic.IS_UNIQUE, ',') "
+                        + "FROM INFORMATION_SCHEMA.INDEX_COLUMNS ic WHERE ic.TABLE_SCHEMA = c.TABLE_SCHEMA "
+                        + "AND ic.TABLE_NAME = c.TABLE_NAME AND ic.COLUMN_NAME = c.COLUMN_NAME), ''), ',') "
+                        + "WITHIN GROUP (ORDER BY c.ORDINAL_POSITION) || '|' || COALESCE((SELECT LISTAGG(k.CONSTRAINT_NAME "
+                        + "|| ':' || k.ORDINAL_POSITION || ':' || k.COLUMN_NAME || ':' || rk.TABLE_NAME || ':' || rk.COLUMN_NAME, ',') "
+                        + "WITHIN GROUP (ORDER BY k.CONSTRAINT_NAME, k.ORDINAL_POSITION) "
+                        + "FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r "
+                        + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_SCHEMA = r.CONSTRAINT_SCHEMA "
+                        + "AND k.CONSTRAINT_NAME = r.CONSTRAINT_NAME "
+                        + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE rk ON rk.CONSTRAINT_SCHEMA = r.UNIQUE_CONSTRAINT_SCHEMA "
+                        + "AND rk.CONSTRAINT_NAME = r.UNIQUE_CONSTRAINT_NAME "
+                        + "AND rk.ORDINAL_POSITION = k.POSITION_IN_UNIQUE_CONSTRAINT "
+                        + "WHERE k.TABLE_SCHEMA = SCHEMA() AND k.TABLE_NAME = c.TABLE_NAME), '') "
+                        + "FROM INFORMATION_SCHEMA.COLUMNS c "
+                        + "JOIN INFORMATION_SCHEMA.TABLES t ON t.TABLE_SCHEMA = c.TABLE_SCHEMA AND t.TABLE_NAME = c.TABLE_NAME "
+                        + "WHERE c.TABLE_SCHEMA = SCHEMA() AND UPPER(c.TABLE_NAME) IN (%s) GROUP BY c.TABLE_NAME";
+            default:
+                return null;
+        }
+    }
+
+    private static String md5Hex(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 逐表扫描：每张表分别查询表注释、字段信息和字段注释
+     */
+    private void scanInfoToModelByTable(BasicInfo basicInfo, List<String> tableNames) {
+        try (Connection conn = getConnection()) {
             for (String tableName : tableNames) {
-                logger.info("开始加载:" + tableName);
-                // 获取表注释
-                String tableComment = getCommentByTableName(tableName);
-                // 获取实体类名称
-                String entityName = CovertUtils.underline2Camel(tableName, true);
-                String entityNameStartByLowCase = CovertUtils.underline2Camel(tableName, false);
-                // 设置一些常用的参数数据
-                BasicInfo curBasicInfo = new BasicInfo(basicInfo);
-                curBasicInfo.setEntityName(entityName);
-                curBasicInfo.setTableName(tableName);
-                curBasicInfo.setTableComment(tableComment);
-                curBasicInfo.setEntityStartByLowCase(entityNameStartByLowCase);
-
-                // 一次查询获取所有字段信息
-                List<ColumnInfo> columnInfos = new ArrayList<>();
-                Set<String> importPackages = new HashSet<>();
-
-                // 如果开启Lombok支持，添加Lombok的import包
-                if (basicInfo.getLombokEnable()) {
-                    importPackages.add("lombok.Data");
-                    importPackages.add("lombok.NoArgsConstructor");
-                    importPackages.add("lombok.AllArgsConstructor");
+                BasicInfo info = scanTable(basicInfo, tableName, conn);
+                tableInfoMap.put(tableName, info);
+                notifyTableScanned(info);
+            }
+        } catch (SQLException e) {
+            logger.error("获取表信息失败", e);
+            throw new RuntimeException("Failed to get table information", e);
+        }
+    }
+
+    /**
+     * 并发扫描：每张表作为独立任务提交到与连接池大小匹配的线程池，
+     * 扫描结果按配置中的表顺序写入，保证遍历顺序稳定
+     */
+    private void scanInfoToModelInParallel(BasicInfo basicInfo, List<String> tableNames) {
+        int threads = Math.max(1, Math.min(Math.min(dbConfiguration.getScanConcurrency(),
+                dbConfiguration.getMaxPoolSize()), tableNames.size()));
+        logger.info("并发扫描线程数: {}", threads);
+
+        ExecutorService executor = ExecutorUtils.newFixedExecutor(threads, "code-generate-scan");
+
+        try {
+            List<Future<BasicInfo>> futures = new ArrayList<>(tableNames.size());
+            for (String tableName : tableNames) {
+                futures.add(executor.submit(() -> {
+                    try (Connection conn = getConnection()) {
+                        BasicInfo info = scanTable(basicInfo, tableName, conn);
+                        notifyTableScanned(info);
+                        return info;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < tableNames.size(); i++) {
+                tableInfoMap.put(tableNames.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Table scan interrupted", e);
+        } catch (ExecutionException e) {
+            logger.error("获取表信息失败", e.getCause());
+            throw new RuntimeException("Failed to get table information", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 扫描单张表，所有查询复用同一个连接
+     */
+    private BasicInfo scanTable(BasicInfo basicInfo, String tableName, Connection conn) throws SQLException {
+        logger.info("开始加载:" + tableName);
+        long start = System.nanoTime();
+        int queries = GenerateMetrics.getInstance().getQueryCount();
+        // 获取表注释
+        String tableComment = getCommentByTableName(tableName, conn);
+
+        // 一次查询获取所有字段信息
+        List<ColumnInfo> columnInfos = new ArrayList<>();
+
+        // 获取字段信息（名称、类型）
+        try (ResultSet columnsRs = conn.getMetaData().getColumns(null, null, tableName, null)) {
+            // 同时获取字段注释
+            Map<String, String> columnCommentMap = getColumnCommentMap(tableName, conn);
+
+            // IS_AUTOINCREMENT为JDBC 4.1新增的列，旧驱动可能不返回
+            boolean hasAutoIncrement = columnsRs.getMetaData().getColumnCount() >= 23;
+            while (columnsRs.next()) {
+                String columnName = columnsRs.getString(4); // COLUMN_NAME
+                Integer jdbcType = getInteger(columnsRs, 5); // DATA_TYPE
+                String columnType = columnsRs.getString(6); // TYPE_NAME
+                Integer columnSize = getInteger(columnsRs, 7); // COLUMN_SIZE
+                Integer decimalDigits = getInteger(columnsRs, 9); // DECIMAL_DIGITS
+                String columnComment = columnCommentMap.getOrDefault(columnName, "");
+                boolean autoIncrement = hasAutoIncrement && isYes(columnsRs, 23); // IS_AUTOINCREMENT
+                columnInfos.add(buildColumnInfo(columnName, columnType, jdbcType, columnSize, decimalDigits,
+                        autoIncrement, columnComment));
+            }
+        }
+
+        // 获取主键
+        List<String> primaryKeyNames = getPrimaryKeyNames(conn, tableName);
+        markPrimaryKeys(columnInfos, primaryKeyNames);
+
+        // 获取索引，结果按是否唯一、索引名称、字段顺序排列
+        Map<String, IndexInfo> indexMap = new LinkedHashMap<>();
+        try (ResultSet indexRs = conn.getMetaData().getIndexInfo(null, null, tableName, false, true)) {
+            while (indexRs.next()) {
+                // TYPE，部分索引（FILTER_CONDITION）不能覆盖全部数据，同样跳过
+                String filterCondition = indexRs.getString(13);
+                if (indexRs.getShort(7) == DatabaseMetaData.tableIndexStatistic
+                        || (filterCondition != null && !filterCondition.isEmpty())) {
+                    continue;
+                }
+                // INDEX_NAME, NON_UNIQUE, COLUMN_NAME
+                addIndexColumn(indexMap, indexRs.getString(6), !indexRs.getBoolean(4), indexRs.getString(9));
+            }
+        }
+        List<IndexInfo> indexInfos = filterIndexes(tableName, indexMap.values(), columnInfos, primaryKeyNames);
+
+        // 获取外键，父表的主键逐个查询
+        List<ForeignKeyInfo> foreignKeyInfos = new ArrayList<>();
+        if (basicInfo.getRelationEnable()) {
+            Map<String, ForeignKeyInfo> foreignKeyMap = new LinkedHashMap<>();
+            try (ResultSet fkRs = conn.getMetaData().getImportedKeys(null, null, tableName)) {
+                while (fkRs.next()) {
+                    // FK_NAME, FKCOLUMN_NAME, PKTABLE_NAME, PKCOLUMN_NAME
+                    addForeignKeyColumn(foreignKeyMap, fkRs.getString(12), fkRs.getString(8), fkRs.getString(3),
+                            fkRs.getString(4));
+                }
+            }
+            foreignKeyInfos = filterForeignKeys(tableName, foreignKeyMap.values(), columnInfos);
+            Map<String, List<String>> parentPrimaryKeyMap = new HashMap<>();
+            parentPrimaryKeyMap.put(tableName, primaryKeyNames);
+            for (ForeignKeyInfo foreignKeyInfo : foreignKeyInfos) {
+                String parentTable = foreignKeyInfo.getReferencedTableName();
+                if (!parentPrimaryKeyMap.containsKey(parentTable)) {
+                    parentPrimaryKeyMap.put(parentTable, getPrimaryKeyNames(conn, parentTable));
+                }
+            }
+            retainPrimaryKeyReferences(tableName, foreignKeyInfos, parentPrimaryKeyMap);
+        }
+
+        BasicInfo curBasicInfo = buildBasicInfo(basicInfo, tableName, tableComment, columnInfos, indexInfos,
+                foreignKeyInfos);
+        GenerateMetrics.getInstance().recordTable(tableName, System.nanoTime() - start,
+                GenerateMetrics.getInstance().getQueryCount() - queries);
+        logger.info("加载完成:" + tableName);
+        return curBasicInfo;
+    }
+
+    /**
+     * 批量扫描：按数据库类型使用information_schema等系统视图，
+     * 每批表只执行一次表注释查询和一次字段查询
+     */
+    private void scanInfoToModelInBulk(BasicInfo basicInfo, List<String> tableNames, DatabaseType dbType) {
+        Map<String, String> tableCommentMap = new HashMap<>();
+        Map<String, List<ColumnInfo>> tableColumnMap = new HashMap<>();
+        Map<String, List<String>> tablePrimaryKeyMap = new HashMap<>();
+        Map<String, Map<String, IndexInfo>> tableIndexMap = new HashMap<>();
+        Map<String, Map<String, ForeignKeyInfo>> tableForeignKeyMap = new HashMap<>();
+        long start = System.nanoTime();
+        int queries = GenerateMetrics.getInstance().getQueryCount();
+
+        try (Connection conn = getConnection()) {
+            queryInBulk(conn, getBulkTableCommentSql(dbType), tableNames, dbType, (tableName, rs) -> {
+                String comment = rs.getString(2);
+                tableCommentMap.put(tableName, comment != null ? comment : "");
+            });
+
+            queryInBulk(conn, getBulkColumnSql(dbType), tableNames, dbType, (tableName, rs) -> {
+                String columnType = rs.getString(3).toUpperCase(Locale.ROOT);
+                // MySQL的DATA_TYPE不包含无符号标识，需从COLUMN_TYPE补充，与JDBC的TYPE_NAME保持一致
+                if (dbType == DatabaseType.MYSQL && rs.getString(5).toLowerCase(Locale.ROOT).contains("unsigned")) {
+                    columnType = columnType + " UNSIGNED";
                 }
+                String comment = rs.getString(4);
+                tableColumnMap.computeIfAbsent(tableName, key -> new ArrayList<>())
+                        .add(buildColumnInfo(rs.getString(2), columnType, null, getInteger(rs, 6), getInteger(rs, 7),
+                                isYes(rs, 8), comment != null ? comment : ""));
+            });
+
+            queryInBulk(conn, getBulkPrimaryKeySql(dbType), tableNames, dbType, (tableName, rs) ->
+                    tablePrimaryKeyMap.computeIfAbsent(tableName, key -> new ArrayList<>()).add(rs.getString(2)));
+
+            queryInBulk(conn, getBulkIndexSql(dbType), tableNames, dbType, (tableName, rs) ->
+                    addIndexColumn(tableIndexMap.computeIfAbsent(tableName, key -> new LinkedHashMap<>()),
+                            rs.getString(2), rs.getInt(3) == 0, rs.getString(4)));
 
-                // 获取字段信息（名称、类型）
-                try (ResultSet columnsRs = dbMetaData.getColumns(null, null, tableName, null)) {
-                    // 同时获取字段注释
-                    Map<String, String> columnCommentMap = getColumnCommentMap(tableName, conn);
-
-                    while (columnsRs.next()) {
-                        String columnName = columnsRs.getString(4); // COLUMN_NAME
-                        String columnType = columnsRs.getString(6); // TYPE_NAME
-                        String columnComment = columnCommentMap.getOrDefault(columnName, "");
-
-                        ColumnInfo.ColumnInfoBuilder builder = ColumnInfo.builder();
-                        ColumnInfo columnInfo = builder.columnName(columnName)
-                                .columnType(columnType)
-                                .javaName(CovertUtils.underline2Camel(columnName, false))
-                                .javaType(ColumnType.valueOf(columnType).getFieldType())
-                                .columnComment(columnComment)
-                                .build();
-                        columnInfos.add(columnInfo);
-
-                        // 添加需要导包的数据类型
-                        String packageName = ColumnType.valueOf(columnType).getPackageName();
-                        if (!packageName.isEmpty()) {
-                            importPackages.add(packageName);
+            if (basicInfo.getRelationEnable()) {
+                queryInBulk(conn, getBulkForeignKeySql(dbType), tableNames, dbType, (tableName, rs) ->
+                        addForeignKeyColumn(tableForeignKeyMap.computeIfAbsent(tableName, key -> new LinkedHashMap<>()),
+                                rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+                // 父表不在本次扫描中时（如只扫描快照中变化的表）单独查询其主键
+                for (Map<String, ForeignKeyInfo> foreignKeyMap : tableForeignKeyMap.values()) {
+                    for (ForeignKeyInfo foreignKeyInfo : foreignKeyMap.values()) {
+                        String parentTable = findConfiguredTableName(foreignKeyInfo.getReferencedTableName());
+                        if (parentTable != null && !tableNames.contains(parentTable)
+                                && !tablePrimaryKeyMap.containsKey(parentTable)) {
+                            tablePrimaryKeyMap.put(parentTable, getPrimaryKeyNames(conn, parentTable));
                         }
                     }
                 }
-
-                // 设定详细的包信息/列信息
-                List<String> importInfos = importPackages.stream().collect(Collectors.toList());
-                curBasicInfo.setImportPackages(importInfos);
-                curBasicInfo.setColumnInfos(columnInfos);
-                tableInfoMap.put(tableName, curBasicInfo);
-                logger.info("加载完成:" + tableName);
             }
         } catch (SQLException e) {
-            logger.error("获取表信息失败", e);
+            logger.error("批量获取表信息失败", e);
             throw new RuntimeException("Failed to get table information", e);
         }
 
-        logger.info("所有表加载完成，共加载了 {} 张表", tableInfoMap.size());
+        // 批量查询由所有表共用，单表耗时和查询次数按表数量平均分摊
+        long tableNanos = (System.nanoTime() - start) / Math.max(1, tableNames.size());
+        int tableQueries = (int) Math.ceil((double) (GenerateMetrics.getInstance().getQueryCount() - queries)
+                / Math.max(1, tableNames.size()));
+        for (String tableName : tableNames) {
+            GenerateMetrics.getInstance().recordTable(tableName, tableNanos, tableQueries);
+            List<ColumnInfo> columnInfos = tableColumnMap.get(tableName);
+            if (columnInfos == null) {
+                logger.warn("未查询到表结构，跳过: {}", tableName);
+                continue;
+            }
+            List<String> primaryKeyNames = tablePrimaryKeyMap.getOrDefault(tableName, Collections.emptyList());
+            markPrimaryKeys(columnInfos, primaryKeyNames);
+            List<IndexInfo> indexInfos = filterIndexes(tableName,
+                    tableIndexMap.getOrDefault(tableName, Collections.emptyMap()).values(), columnInfos,
+                    primaryKeyNames);
+            List<ForeignKeyInfo> foreignKeyInfos = filterForeignKeys(tableName,
+                    tableForeignKeyMap.getOrDefault(tableName, Collections.emptyMap()).values(), columnInfos);
+            retainPrimaryKeyReferences(tableName, foreignKeyInfos, tablePrimaryKeyMap);
+            String tableComment = tableCommentMap.getOrDefault(tableName, "");
+            BasicInfo info = buildBasicInfo(basicInfo, tableName, tableComment, columnInfos, indexInfos,
+                    foreignKeyInfos);
+            tableInfoMap.put(tableName, info);
+            notifyTableScanned(info);
+            logger.info("加载完成:" + tableName);
+        }
+    }
+
+    /**
+     * 按批次执行带IN列表的批量查询，并将结果行对应回配置中的表名
+     *
+     * @param sql        包含一个%s占位符的查询语句，占位符会替换为IN列表，结果第一列须为表名
+     * @param tableNames 需要查询的表名
+     * @param rowHandler 结果行处理
+     */
+    private void queryInBulk(Connection conn, String sql, List<String> tableNames, DatabaseType dbType,
+            RowHandler rowHandler) throws SQLException {
+        // 统一表名大小写，便于将查询结果对应回配置中的表名
+        Map<String, String> tableNameLookup = new HashMap<>();
+        for (String tableName : tableNames) {
+            tableNameLookup.put(tableName.toUpperCase(Locale.ROOT), tableName);
+        }
+        boolean upperCaseName = dbType == DatabaseType.ORACLE || dbType == DatabaseType.H2;
+
+        for (int from = 0; from < tableNames.size(); from += BULK_IN_LIST_SIZE) {
+            List<String> batch = tableNames.subList(from, Math.min(from + BULK_IN_LIST_SIZE, tableNames.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            try (PreparedStatement pstmt = conn.prepareStatement(String.format(sql, placeholders))) {
+                for (int i = 0; i < batch.size(); i++) {
+                    String tableName = batch.get(i);
+                    pstmt.setString(i + 1, upperCaseName ? tableName.toUpperCase(Locale.ROOT) : tableName);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String tableName = tableNameLookup.get(rs.getString(1).toUpperCase(Locale.ROOT));
+                        if (tableName != null) {
+                            rowHandler.handle(tableName, rs);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 批量查询表注释的语句，结果列依次为：表名、表注释
+     */
+    private String getBulkTableCommentSql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT TABLE_NAME, TABLE_COMMENT FROM information_schema.TABLES "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (%s)";
+            case POSTGRESQL:
+                return "SELECT c.relname, obj_description(c.oid, 'pg_class') FROM pg_class c "
+                        + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "WHERE n.nspname = current_schema() AND c.relname IN (%s)";
+            case ORACLE:
+                return "SELECT table_name, comments FROM user_tab_comments WHERE table_name IN (%s)";
+            case SQL_SERVER:
+                return "SELECT t.name, CAST(ep.value AS NVARCHAR(4000)) FROM sys.tables t "
+                        + "LEFT JOIN sys.extended_properties ep ON ep.major_id = t.object_id AND ep.minor_id = 0 "
+                        + "AND ep.name = 'MS_Description' WHERE t.name IN (%s)";
+            case H2:
+                return "SELECT TABLE_NAME, REMARKS FROM INFORMATION_SCHEMA.TABLES "
+                        + "WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) IN (%s)";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 批量查询字段信息的语句，结果列依次为：表名、字段名、字段类型、字段注释、完整字段类型，按字段顺序排序
+     */
+    private String getBulkColumnSql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, COLUMN_COMMENT, COLUMN_TYPE, "
+                        + "COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION), NUMERIC_SCALE, "
+                        + "CASE WHEN EXTRA LIKE '%%auto_increment%%' THEN 'YES' ELSE 'NO' END "
+                        + "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (%s) "
+                        + "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+            case POSTGRESQL:
+                return "SELECT c.relname, a.attname, t.typname, col_description(c.oid, a.attnum), t.typname, "
+                        + "COALESCE(information_schema._pg_char_max_length(a.atttypid, a.atttypmod), "
+                        + "information_schema._pg_numeric_precision(a.atttypid, a.atttypmod)), "
+                        + "information_schema._pg_numeric_scale(a.atttypid, a.atttypmod), "
+                        + "CASE WHEN a.attidentity <> '' OR pg_get_expr(d.adbin, d.adrelid) LIKE 'nextval(%%' "
+                        + "THEN 'YES' ELSE 'NO' END "
+                        + "FROM pg_attribute a JOIN pg_class c ON c.oid = a.attrelid "
+                        + "JOIN pg_namespace n ON n.oid = c.relnamespace JOIN pg_type t ON t.oid = a.atttypid "
+                        + "LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum "
+                        + "WHERE n.nspname = current_schema() AND a.attnum > 0 AND NOT a.attisdropped "
+                        + "AND c.relname IN (%s) ORDER BY c.relname, a.attnum";
+            case ORACLE:
+                return "SELECT c.table_name, c.column_name, c.data_type, cc.comments, c.data_type, "
+                        + "NVL(c.data_precision, c.char_length), c.data_scale, c.identity_column "
+                        + "FROM user_tab_columns c LEFT JOIN user_col_comments cc "
+                        + "ON cc.table_name = c.table_name AND cc.column_name = c.column_name "
+                        + "WHERE c.table_name IN (%s) ORDER BY c.table_name, c.column_id";
+            case SQL_SERVER:
+                return "SELECT t.name, c.name, ty.name, CAST(ep.value AS NVARCHAR(4000)), ty.name, "
+                        + "CASE WHEN c.precision > 0 THEN c.precision ELSE c.max_length END, c.scale, "
+                        + "CASE WHEN c.is_identity = 1 THEN 'YES' ELSE 'NO' END "
+                        + "FROM sys.columns c JOIN sys.tables t ON t.object_id = c.object_id "
+                        + "JOIN sys.types ty ON ty.user_type_id = c.user_type_id "
+                        + "LEFT JOIN sys.extended_properties ep ON ep.major_id = c.object_id "
+                        + "AND ep.minor_id = c.column_id AND ep.name = 'MS_Description' "
+                        + "WHERE t.name IN (%s) ORDER BY t.name, c.column_id";
+            case H2:
+                return "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, REMARKS, DATA_TYPE, "
+                        + "COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION), NUMERIC_SCALE, IS_IDENTITY "
+                        + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) IN (%s) "
+                        + "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 批量查询主键字段的SQL，结果列依次为：表名、字段名，按主键中的字段顺序排列
+     */
+    private String getBulkPrimaryKeySql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND CONSTRAINT_NAME = 'PRIMARY' AND TABLE_NAME IN (%s) "
+                        + "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+            case POSTGRESQL:
+                return "SELECT c.relname, a.attname FROM pg_index i JOIN pg_class c ON c.oid = i.indrelid "
+                        + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY(i.indkey) "
+                        + "WHERE i.indisprimary AND n.nspname = current_schema() AND c.relname IN (%s) "
+                        + "ORDER BY c.relname, array_position(i.indkey::int2[], a.attnum)";
+            case ORACLE:
+                return "SELECT cc.table_name, cc.column_name FROM user_constraints c "
+                        + "JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name "
+                        + "WHERE c.constraint_type = 'P' AND cc.table_name IN (%s) ORDER BY cc.table_name, cc.position";
+            case SQL_SERVER:
+                return "SELECT t.name, c.name FROM sys.indexes i JOIN sys.tables t ON t.object_id = i.object_id "
+                        + "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id "
+                        + "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id "
+                        + "WHERE i.is_primary_key = 1 AND t.name IN (%s) ORDER BY t.name, ic.key_ordinal";
+            case H2:
+                // 关联条件中带上表名，H2的元数据视图才能按表过滤，否则每次关联都会生成整个视图
+                return "SELECT tc.TABLE_NAME, c.COLUMN_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc "
+                        + "JOIN INFORMATION_SCHEMA.INDEX_COLUMNS c ON c.INDEX_SCHEMA = tc.INDEX_SCHEMA "
+                        + "AND c.INDEX_NAME = tc.INDEX_NAME AND c.TABLE_NAME = tc.TABLE_NAME "
+                        + "WHERE tc.CONSTRAINT_TYPE = 'PRIMARY KEY' AND tc.TABLE_SCHEMA = SCHEMA() "
+                        + "AND UPPER(tc.TABLE_NAME) IN (%s) ORDER BY tc.TABLE_NAME, c.ORDINAL_POSITION";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 批量查询索引字段的SQL，结果列依次为：表名、索引名、是否非唯一(0/1)、字段名，按索引中的字段顺序排列；
+     * 结果中可以包含主键索引，表达式索引的字段名为空或不是表中的字段，均在{@link #filterIndexes}中过滤
+     */
+    private String getBulkIndexSql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME FROM information_schema.STATISTICS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (%s) "
+                        + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+            case POSTGRESQL:
+                // 只取索引键字段，不含INCLUDE字段；部分索引只对满足条件的行生效，不作为查询方法
+                return "SELECT t.relname, ic.relname, CASE WHEN i.indisunique THEN 0 ELSE 1 END, a.attname "
+                        + "FROM pg_index i JOIN pg_class t ON t.oid = i.indrelid "
+                        + "JOIN pg_class ic ON ic.oid = i.indexrelid JOIN pg_namespace n ON n.oid = t.relnamespace "
+                        + "CROSS JOIN LATERAL unnest(i.indkey) WITH ORDINALITY AS k(attnum, ord) "
+                        + "LEFT JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum "
+                        + "WHERE n.nspname = current_schema() AND t.relname IN (%s) AND i.indpred IS NULL "
+                        + "AND k.ord <= i.indnkeyatts ORDER BY t.relname, ic.relname, k.ord";
+            case ORACLE:
+                return "SELECT c.table_name, c.index_name, CASE WHEN i.uniqueness = 'UNIQUE' THEN 0 ELSE 1 END, "
+                        + "c.column_name FROM user_ind_columns c JOIN user_indexes i ON i.index_name = c.index_name "
+                        + "WHERE c.table_name IN (%s) ORDER BY c.table_name, c.index_name, c.column_position";
+            case SQL_SERVER:
+                return "SELECT t.name, i.name, CASE WHEN i.is_unique = 1 THEN 0 ELSE 1 END, c.name "
+                        + "FROM sys.indexes i JOIN sys.tables t ON t.object_id = i.object_id "
+                        + "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id "
+                        + "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id "
+                        + "WHERE i.type > 0 AND i.has_filter = 0 AND ic.is_included_column = 0 AND t.name IN (%s) "
+                        + "ORDER BY t.name, i.name, ic.key_ordinal";
+            case H2:
+                return "SELECT TABLE_NAME, INDEX_NAME, CASE WHEN IS_UNIQUE THEN 0 ELSE 1 END, COLUMN_NAME "
+                        + "FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE TABLE_SCHEMA = SCHEMA() "
+                        + "AND UPPER(TABLE_NAME) IN (%s) ORDER BY TABLE_NAME, INDEX_NAME, ORDINAL_POSITION";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 批量查询外键字段的SQL，结果列依次为：表名、外键名、字段名、父表名、父表字段名，按外键中的字段顺序排列
+     */
+    private String getBulkForeignKeySql(DatabaseType dbType) {
+        switch (dbType) {
+            case MYSQL:
+                return "SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME "
+                        + "FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND REFERENCED_TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (%s) "
+                        + "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION";
+            case POSTGRESQL:
+                return "SELECT t.relname, c.conname, a.attname, rt.relname, ra.attname FROM pg_constraint c "
+                        + "JOIN pg_class t ON t.oid = c.conrelid JOIN pg_namespace n ON n.oid = t.relnamespace "
+                        + "JOIN pg_class rt ON rt.oid = c.confrelid "
+                        + "CROSS JOIN LATERAL unnest(c.conkey, c.confkey) WITH ORDINALITY AS k(attnum, refattnum, ord) "
+                        + "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum "
+                        + "JOIN pg_attribute ra ON ra.attrelid = c.confrelid AND ra.attnum = k.refattnum "
+                        + "WHERE c.contype = 'f' AND n.nspname = current_schema() AND t.relname IN (%s) "
+                        + "ORDER BY t.relname, c.conname, k.ord";
+            case ORACLE:
+                return "SELECT c.table_name, c.constraint_name, cc.column_name, rc.table_name, rcc.column_name "
+                        + "FROM user_constraints c JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name "
+                        + "JOIN user_constraints rc ON rc.constraint_name = c.r_constraint_name "
+                        + "JOIN user_cons_columns rcc ON rcc.constraint_name = rc.constraint_name "
+                        + "AND rcc.position = cc.position "
+                        + "WHERE c.constraint_type = 'R' AND c.table_name IN (%s) "
+                        + "ORDER BY c.table_name, c.constraint_name, cc.position";
+            case SQL_SERVER:
+                return "SELECT t.name, fk.name, c.name, rt.name, rc.name FROM sys.foreign_keys fk "
+                        + "JOIN sys.tables t ON t.object_id = fk.parent_object_id "
+                        + "JOIN sys.tables rt ON rt.object_id = fk.referenced_object_id "
+                        + "JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id "
+                        + "JOIN sys.columns c ON c.object_id = fkc.parent_object_id AND c.column_id = fkc.parent_column_id "
+                        + "JOIN sys.columns rc ON rc.object_id = fkc.referenced_object_id "
+                        + "AND rc.column_id = fkc.referenced_column_id "
+                        + "WHERE t.name IN (%s) ORDER BY t.name, fk.name, fkc.constraint_column_id";
+            case H2:
+                return "SELECT k.TABLE_NAME, k.CONSTRAINT_NAME, k.COLUMN_NAME, rk.TABLE_NAME, rk.COLUMN_NAME "
+                        + "FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r "
+                        + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_SCHEMA = r.CONSTRAINT_SCHEMA "
+                        + "AND k.CONSTRAINT_NAME = r.CONSTRAINT_NAME "
+                        + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE rk ON rk.CONSTRAINT_SCHEMA = r.UNIQUE_CONSTRAINT_SCHEMA "
+                        + "AND rk.CONSTRAINT_NAME = r.UNIQUE_CONSTRAINT_NAME "
+                        + "AND rk.ORDINAL_POSITION = k.POSITION_IN_UNIQUE_CONSTRAINT "
+                        + "WHERE k.TABLE_SCHEMA = SCHEMA() AND UPPER(k.TABLE_NAME) IN (%s) "
+                        + "ORDER BY k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION";
+            default:
+                return null;
+        }
+    }
+
+    private static void addIndexColumn(Map<String, IndexInfo> indexMap, String indexName, boolean unique,
+            String columnName) {
+        if (indexName == null) {
+            return;
+        }
+        indexMap.computeIfAbsent(indexName, key -> {
+            IndexInfo indexInfo = new IndexInfo();
+            indexInfo.setIndexName(key);
+            indexInfo.setUnique(unique);
+            return indexInfo;
+        }).getColumnNames().add(columnName);
+    }
+
+    /**
+     * 过滤索引：去掉主键索引、表达式索引和字段完全相同的重复索引（优先保留唯一索引），部分索引在读取时已跳过
+     */
+    private List<IndexInfo> filterIndexes(String tableName, Collection<IndexInfo> indexes,
+            List<ColumnInfo> columnInfos, List<String> primaryKeyNames) {
+        Set<String> columnNames = columnInfos.stream().map(ColumnInfo::getColumnName).collect(Collectors.toSet());
+        Map<List<String>, IndexInfo> indexByColumns = new LinkedHashMap<>();
+        for (IndexInfo indexInfo : indexes) {
+            List<String> indexColumns = indexInfo.getColumnNames();
+            if (!columnNames.containsAll(indexColumns)) {
+                logger.debug("表 {} 的索引 {} 包含表达式，不生成查询方法", tableName, indexInfo.getIndexName());
+                continue;
+            }
+            if (indexColumns.equals(primaryKeyNames)) {
+                continue;
+            }
+            IndexInfo existing = indexByColumns.get(indexColumns);
+            if (existing == null || (!existing.isUnique() && indexInfo.isUnique())) {
+                indexByColumns.put(indexColumns, indexInfo);
+            }
+        }
+        return new ArrayList<>(indexByColumns.values());
+    }
+
+    /**
+     * 查询表的主键字段名，按主键中的字段顺序排列
+     */
+    private List<String> getPrimaryKeyNames(Connection conn, String tableName) throws SQLException {
+        try (ResultSet pkRs = conn.getMetaData().getPrimaryKeys(null, null, tableName)) {
+            Map<Integer, String> keySeqMap = new TreeMap<>();
+            while (pkRs.next()) {
+                keySeqMap.put(pkRs.getInt(5), pkRs.getString(4)); // KEY_SEQ, COLUMN_NAME
+            }
+            return new ArrayList<>(keySeqMap.values());
+        }
+    }
+
+    /**
+     * 外键名称为空时每个字段单独作为一个外键，复合外键在{@link #filterForeignKeys}中过滤
+     */
+    private static void addForeignKeyColumn(Map<String, ForeignKeyInfo> foreignKeyMap, String constraintName,
+            String columnName, String referencedTableName, String referencedColumnName) {
+        if (columnName == null || referencedTableName == null) {
+            return;
+        }
+        String key = constraintName != null ? constraintName : referencedTableName + "." + columnName;
+        ForeignKeyInfo foreignKeyInfo = foreignKeyMap.computeIfAbsent(key,
+                name -> new ForeignKeyInfo(name, referencedTableName));
+        foreignKeyInfo.getColumnNames().add(columnName);
+        foreignKeyInfo.getReferencedColumnNames().add(referencedColumnName);
+    }
+
+    /**
+     * 过滤外键：只保留父表在配置中的单字段外键，同一字段只保留一个外键，父表名称替换为配置中的表名
+     */
+    private List<ForeignKeyInfo> filterForeignKeys(String tableName, Collection<ForeignKeyInfo> foreignKeys,
+            List<ColumnInfo> columnInfos) {
+        Set<String> columnNames = columnInfos.stream().map(ColumnInfo::getColumnName).collect(Collectors.toSet());
+        Map<String, ForeignKeyInfo> foreignKeyByColumn = new LinkedHashMap<>();
+        for (ForeignKeyInfo foreignKeyInfo : foreignKeys) {
+            String parentTable = findConfiguredTableName(foreignKeyInfo.getReferencedTableName());
+            if (parentTable == null) {
+                logger.debug("表 {} 的外键 {} 引用的表 {} 不在生成范围内，不生成关联查询", tableName,
+                        foreignKeyInfo.getConstraintName(), foreignKeyInfo.getReferencedTableName());
+                continue;
+            }
+            if (foreignKeyInfo.getColumnNames().size() != 1
+                    || !columnNames.contains(foreignKeyInfo.getColumnNames().get(0))) {
+                logger.debug("表 {} 的外键 {} 为复合外键，不生成关联查询", tableName, foreignKeyInfo.getConstraintName());
+                continue;
+            }
+            foreignKeyInfo.setReferencedTableName(parentTable);
+            foreignKeyByColumn.putIfAbsent(foreignKeyInfo.getColumnNames().get(0), foreignKeyInfo);
+        }
+        return new ArrayList<>(foreignKeyByColumn.values());
+    }
+
+    /**
+     * 只保留引用父表单字段主键的外键，父表通过selByIds批量查询关联记录
+     *
+     * @param primaryKeyMap key为表名，value为按主键中的字段顺序排列的字段名
+     */
+    private static void retainPrimaryKeyReferences(String tableName, List<ForeignKeyInfo> foreignKeyInfos,
+            Map<String, List<String>> primaryKeyMap) {
+        foreignKeyInfos.removeIf(foreignKeyInfo -> {
+            List<String> parentKeys = primaryKeyMap.getOrDefault(foreignKeyInfo.getReferencedTableName(),
+                    Collections.emptyList());
+            boolean matched = parentKeys.size() == 1 && parentKeys.equals(foreignKeyInfo.getReferencedColumnNames());
+            if (!matched) {
+                logger.debug("表 {} 的外键 {} 未引用父表的单字段主键，不生成关联查询", tableName,
+                        foreignKeyInfo.getConstraintName());
+            }
+            return !matched;
+        });
+    }
+
+    /**
+     * 按表名查找配置中的表名，不区分大小写
+     *
+     * @return 配置中的表名，不在配置中时返回null
+     */
+    private String findConfiguredTableName(String tableName) {
+        return dbConfiguration.getTableNames().stream()
+                .filter(configured -> configured.equalsIgnoreCase(tableName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * 标记主键字段
+     *
+     * @param primaryKeyNames 按主键中的字段顺序排列的字段名
+     */
+    private void markPrimaryKeys(List<ColumnInfo> columnInfos, List<String> primaryKeyNames) {
+        for (ColumnInfo columnInfo : columnInfos) {
+            int index = primaryKeyNames.indexOf(columnInfo.getColumnName());
+            columnInfo.setPrimaryKey(index >= 0);
+            columnInfo.setPrimaryKeySeq(index >= 0 ? index + 1 : null);
+        }
+    }
+
+    /**
+     * 构建字段信息
+     */
+    private ColumnInfo buildColumnInfo(String columnName, String columnType, Integer jdbcType, Integer columnSize,
+            Integer decimalDigits, boolean autoIncrement, String columnComment) {
+        ColumnInfo columnInfo = ColumnInfo.builder()
+                .columnName(columnName)
+                .columnType(columnType)
+                .jdbcType(jdbcType)
+                .columnSize(columnSize)
+                .decimalDigits(decimalDigits)
+                .autoIncrement(autoIncrement)
+                .javaName(CovertUtils.underline2Camel(columnName, false))
+                .columnComment(columnComment)
+                .build();
+        applyJavaType(columnInfo);
+        return columnInfo;
+    }
+
+    /**
+     * 按当前的类型映射表重新解析字段的Java类型，快照中的字段在类型映射配置变化后也能生效
+     */
+    private List<ColumnInfo> applyJavaTypes(List<ColumnInfo> columnInfos) {
+        columnInfos.forEach(this::applyJavaType);
+        return columnInfos;
+    }
+
+    private void applyJavaType(ColumnInfo columnInfo) {
+        JavaType javaType = typeMappingRegistry.resolve(columnInfo.getColumnType(), columnInfo.getJdbcType(),
+                columnInfo.getColumnSize(), columnInfo.getDecimalDigits());
+        columnInfo.setJavaType(javaType.getFieldType());
+        columnInfo.setJavaTypePackage(javaType.getPackageName());
+    }
+
+    /**
+     * 读取可能为NULL的整数列，大对象类型的长度超出int范围时取int最大值
+     */
+    private static Integer getInteger(ResultSet rs, int columnIndex) throws SQLException {
+        long value = rs.getLong(columnIndex);
+        return rs.wasNull() ? null : (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 读取YES/NO形式的标识列
+     */
+    private static boolean isYes(ResultSet rs, int columnIndex) throws SQLException {
+        return "YES".equalsIgnoreCase(Objects.toString(rs.getString(columnIndex), "").trim());
+    }
+
+    /**
+     * 使用公共信息和表结构装配单张表的详细信息
+     */
+    private BasicInfo buildBasicInfo(BasicInfo basicInfo, String tableName, String tableComment,
+            List<ColumnInfo> columnInfos, List<IndexInfo> indexInfos, List<ForeignKeyInfo> foreignKeyInfos) {
+        // 获取实体类名称
+        String entityName = CovertUtils.underline2Camel(tableName, true);
+        String entityNameStartByLowCase = CovertUtils.underline2Camel(tableName, false);
+        // 设置一些常用的参数数据
+        BasicInfo curBasicInfo = new BasicInfo(basicInfo);
+        curBasicInfo.setEntityName(entityName);
+        curBasicInfo.setTableName(tableName);
+        curBasicInfo.setTableComment(tableComment);
+        curBasicInfo.setEntityStartByLowCase(entityNameStartByLowCase);
+
+        Set<String> importPackages = new HashSet<>();
+
+        // 如果开启Lombok支持，添加Lombok的import包
+        if (basicInfo.getLombokEnable()) {
+            importPackages.add("lombok.Data");
+            importPackages.add("lombok.NoArgsConstructor");
+            importPackages.add("lombok.AllArgsConstructor");
+        }
+
+        // 添加需要导包的数据类型
+        for (ColumnInfo columnInfo : columnInfos) {
+            String packageName = columnInfo.getJavaTypePackage();
+            if (packageName != null && !packageName.isEmpty()) {
+                importPackages.add(packageName);
+            }
+        }
+
+        // 设定详细的包信息/列信息
+        List<String> importInfos = importPackages.stream().collect(Collectors.toList());
+        curBasicInfo.setImportPackages(importInfos);
+        curBasicInfo.setColumnInfos(columnInfos);
+
+        // 主键和游标分页的排序字段
+        List<ColumnInfo> primaryKeys = columnInfos.stream()
+                .filter(ColumnInfo::isPrimaryKey)
+                .sorted(Comparator.comparing(ColumnInfo::getPrimaryKeySeq))
+                .collect(Collectors.toList());
+        curBasicInfo.setPrimaryKeys(primaryKeys);
+        curBasicInfo.setIdColumn(primaryKeys.size() == 1 ? primaryKeys.get(0) : null);
+        curBasicInfo.setCompositeKey(primaryKeys.size() > 1);
+        applyIndexes(curBasicInfo, columnInfos, primaryKeys, indexInfos != null ? indexInfos : new ArrayList<>());
+        curBasicInfo.setInsertColumnInfos(columnInfos.stream()
+                .filter(col -> !col.isAutoIncrement())
+                .collect(Collectors.toList()));
+        curBasicInfo.setUpdateColumnInfos(columnInfos.stream()
+                .filter(col -> !col.isPrimaryKey())
+                .collect(Collectors.toList()));
+        curBasicInfo.setSortKey(resolveSortKey(tableName, columnInfos, primaryKeys));
+        applyCacheOptions(curBasicInfo, tableName);
+        applyForeignKeys(curBasicInfo, columnInfos,
+                foreignKeyInfos != null && curBasicInfo.getRelationEnable() ? foreignKeyInfos : new ArrayList<>());
+
+        // 大字段延迟加载需要通过主键单独查询，没有主键的表不延迟加载
+        boolean lazyLoad = curBasicInfo.getLazyLoadEnable() && !primaryKeys.isEmpty();
+        columnInfos.forEach(col -> col.setHeavy(lazyLoad && isHeavyColumn(col, curBasicInfo.getHeavyColumnSize())));
+        curBasicInfo.setHeavyColumnInfos(columnInfos.stream().filter(ColumnInfo::isHeavy)
+                .collect(Collectors.toList()));
+        curBasicInfo.setLightColumnInfos(columnInfos.stream().filter(col -> !col.isHeavy())
+                .collect(Collectors.toList()));
+
+        // Mapper、Service等文件中主键、排序字段和索引字段参数类型的导包
+        Set<ColumnInfo> keyColumns = new LinkedHashSet<>();
+        if (curBasicInfo.getIdColumn() != null) {
+            keyColumns.add(curBasicInfo.getIdColumn());
+        }
+        if (curBasicInfo.getSortKey() != null) {
+            keyColumns.add(curBasicInfo.getSortKey());
+        }
+        curBasicInfo.getUniqueKeys().forEach(indexInfo -> keyColumns.addAll(indexInfo.getColumnInfos()));
+        curBasicInfo.getIndexPrefixes().forEach(indexInfo -> keyColumns.addAll(indexInfo.getColumnInfos()));
+        curBasicInfo.getForeignKeyInfos().forEach(foreignKeyInfo -> keyColumns.add(foreignKeyInfo.getColumnInfo()));
+        curBasicInfo.setKeyImportPackages(keyColumns.stream()
+                .map(ColumnInfo::getJavaTypePackage)
+                .filter(packageName -> packageName != null && !packageName.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList()));
+        return curBasicInfo;
+    }
+
+    /**
+     * 按索引标记字段，并整理出唯一索引和去重后的索引前缀，用于生成selBy和listBy查询方法
+     */
+    private void applyIndexes(BasicInfo curBasicInfo, List<ColumnInfo> columnInfos, List<ColumnInfo> primaryKeys,
+            List<IndexInfo> indexInfos) {
+        Map<String, ColumnInfo> columnMap = new HashMap<>();
+        for (ColumnInfo columnInfo : columnInfos) {
+            columnMap.put(columnInfo.getColumnName(), columnInfo);
+            columnInfo.setUniqueKey(false);
+            columnInfo.setIndexed(false);
+        }
+        if (!primaryKeys.isEmpty()) {
+            primaryKeys.get(0).setIndexed(true);
+        }
+
+        List<IndexInfo> uniqueKeys = new ArrayList<>();
+        Map<List<String>, IndexInfo> prefixMap = new LinkedHashMap<>();
+        List<String> primaryKeyNames = primaryKeys.stream().map(ColumnInfo::getColumnName)
+                .collect(Collectors.toList());
+        // 复合主键的前缀也可以使用主键索引
+        for (int i = 1; i < primaryKeyNames.size(); i++) {
+            addIndexPrefix(prefixMap, "PRIMARY", primaryKeyNames.subList(0, i), columnMap);
+        }
+        for (IndexInfo indexInfo : indexInfos) {
+            List<String> indexColumns = indexInfo.getColumnNames();
+            indexInfo.setColumnInfos(indexColumns.stream().map(columnMap::get).collect(Collectors.toList()));
+            indexInfo.setMethodSuffix(methodSuffix(indexInfo.getColumnInfos()));
+            indexInfo.getColumnInfos().get(0).setIndexed(true);
+            if (indexInfo.isUnique()) {
+                indexInfo.getColumnInfos().forEach(columnInfo -> columnInfo.setUniqueKey(true));
+                uniqueKeys.add(indexInfo);
+            }
+            int prefixEnd = indexInfo.isUnique() ? indexColumns.size() - 1 : indexColumns.size();
+            for (int i = 1; i <= prefixEnd; i++) {
+                addIndexPrefix(prefixMap, indexInfo.getIndexName(), indexColumns.subList(0, i), columnMap);
+            }
+        }
+        // 与唯一索引相同的前缀已经有selBy方法，与主键相同的前缀已经有selById方法
+        uniqueKeys.forEach(indexInfo -> prefixMap.remove(indexInfo.getColumnNames()));
+        prefixMap.remove(primaryKeyNames);
+
+        curBasicInfo.setIndexInfos(indexInfos);
+        curBasicInfo.setUniqueKeys(uniqueKeys);
+        curBasicInfo.setIndexPrefixes(new ArrayList<>(prefixMap.values()));
+    }
+
+    /**
+     * 关联外键字段和父表实体，生成批量加载父表记录和按外键批量查询的方法
+     */
+    private void applyForeignKeys(BasicInfo curBasicInfo, List<ColumnInfo> columnInfos,
+            List<ForeignKeyInfo> foreignKeyInfos) {
+        Map<String, ColumnInfo> columnMap = new HashMap<>();
+        for (ColumnInfo columnInfo : columnInfos) {
+            columnMap.put(columnInfo.getColumnName(), columnInfo);
+        }
+        for (ForeignKeyInfo foreignKeyInfo : foreignKeyInfos) {
+            ColumnInfo columnInfo = columnMap.get(foreignKeyInfo.getColumnNames().get(0));
+            String parentEntityName = CovertUtils.underline2Camel(foreignKeyInfo.getReferencedTableName(), true);
+            foreignKeyInfo.setColumnInfo(columnInfo);
+            foreignKeyInfo.setParentEntityName(parentEntityName);
+            foreignKeyInfo.setSelfReference(foreignKeyInfo.getReferencedTableName().equals(curBasicInfo.getTableName()));
+            // userId对应User，没有Id后缀的字段使用完整字段名，字段名只有id时使用父表实体名
+            String javaName = columnInfo.getJavaName();
+            String relationName = javaName.endsWith("Id") ? javaName.substring(0, javaName.length() - 2) : javaName;
+            if (relationName.isEmpty() || "id".equals(relationName)) {
+                relationName = parentEntityName;
+            }
+            foreignKeyInfo.setRelationName(Character.toUpperCase(relationName.charAt(0)) + relationName.substring(1));
+        }
+        curBasicInfo.setForeignKeyInfos(foreignKeyInfos);
+    }
+
+    private static void addIndexPrefix(Map<List<String>, IndexInfo> prefixMap, String indexName,
+            List<String> prefixColumns, Map<String, ColumnInfo> columnMap) {
+        if (prefixMap.containsKey(prefixColumns)) {
+            return;
+        }
+        List<ColumnInfo> prefixColumnInfos = prefixColumns.stream().map(columnMap::get).collect(Collectors.toList());
+        prefixMap.put(new ArrayList<>(prefixColumns), new IndexInfo(indexName, false, new ArrayList<>(prefixColumns),
+                prefixColumnInfos, methodSuffix(prefixColumnInfos)));
+    }
+
+    /**
+     * 由字段生成查询方法名后缀，如 AccountIdAndStatus
+     */
+    private static String methodSuffix(List<ColumnInfo> columnInfos) {
+        return columnInfos.stream()
+                .map(columnInfo -> CovertUtils.underline2Camel(columnInfo.getColumnName(), true))
+                .collect(Collectors.joining("And"));
+    }
+
+    /**
+     * 确定游标分页的排序字段：优先使用表配置中的sortKey，其次使用单列主键；
+     * 排序字段须唯一且有索引，没有可用的排序字段时不生成游标分页
+     */
+    private ColumnInfo resolveSortKey(String tableName, List<ColumnInfo> columnInfos, List<ColumnInfo> primaryKeys) {
+        Object configured = dbConfiguration.getTableOptions()
+                .getOrDefault(tableName, Collections.emptyMap())
+                .get("sortKey");
+        ColumnInfo sortKey;
+        if (configured != null) {
+            sortKey = columnInfos.stream()
+                    .filter(col -> col.getColumnName().equalsIgnoreCase(configured.toString()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "表 " + tableName + " 中不存在排序字段: " + configured));
+        } else if (primaryKeys.size() == 1) {
+            sortKey = primaryKeys.get(0);
+        } else {
+            logger.info("表 {} 没有单列主键且未配置sortKey，不生成游标分页", tableName);
+            return null;
+        }
+
+        if (!sortKey.isIndexed()) {
+            logger.warn("表 {} 的排序字段 {} 不是索引的首列，游标分页会全表扫描", tableName, sortKey.getColumnName());
+        }
+        if (!CURSOR_JAVA_TYPES.contains(sortKey.getJavaType())) {
+            logger.warn("表 {} 的排序字段 {} 类型为 {}，不支持游标分页", tableName, sortKey.getColumnName(),
+                    sortKey.getJavaType());
+            return null;
+        }
+        return sortKey;
+    }
+
+    /**
+     * 判断是否为大字段：大对象类型，或声明长度超过阈值的字符串和二进制字段，主键字段除外
+     */
+    private boolean isHeavyColumn(ColumnInfo columnInfo, int heavyColumnSize) {
+        if (columnInfo.isPrimaryKey()
+                || !("String".equals(columnInfo.getJavaType()) || "byte[]".equals(columnInfo.getJavaType()))) {
+            return false;
+        }
+        return typeMappingRegistry.isLargeObject(columnInfo.getColumnType(), columnInfo.getJdbcType())
+                || (columnInfo.getColumnSize() != null && columnInfo.getColumnSize() > heavyColumnSize);
+    }
+
+    /**
+     * 表配置中的cacheEnable、cacheMaxSize、cacheTtlSeconds、countCacheTtlSeconds覆盖customProperties中的全局配置
+     */
+    private void applyCacheOptions(BasicInfo curBasicInfo, String tableName) {
+        Map<String, Object> options = dbConfiguration.getTableOptions()
+                .getOrDefault(tableName, Collections.emptyMap());
+        curBasicInfo.setCacheEnable(Boolean.parseBoolean(
+                options.getOrDefault("cacheEnable", curBasicInfo.getCacheEnable()).toString()));
+        curBasicInfo.setCacheMaxSize(Integer.parseInt(
+                options.getOrDefault("cacheMaxSize", curBasicInfo.getCacheMaxSize()).toString()));
+        curBasicInfo.setCacheTtlSeconds(Integer.parseInt(
+                options.getOrDefault("cacheTtlSeconds", curBasicInfo.getCacheTtlSeconds()).toString()));
+        if (curBasicInfo.getCacheEnable()
+                && (curBasicInfo.getCacheMaxSize() <= 0 || curBasicInfo.getCacheTtlSeconds() <= 0)) {
+            throw new IllegalArgumentException("表 " + tableName + " 的cacheMaxSize和cacheTtlSeconds必须大于0");
+        }
+        curBasicInfo.setCountCacheTtlSeconds(Integer.parseInt(
+                options.getOrDefault("countCacheTtlSeconds", curBasicInfo.getCountCacheTtlSeconds()).toString()));
+        if (curBasicInfo.getCountCacheTtlSeconds() < 0) {
+            throw new IllegalArgumentException("表 " + tableName + " 的countCacheTtlSeconds不能小于0");
+        }
     }
 
     /**
@@ -565,4 +1733,12 @@ public class DBUtils {
         return getMySQLColumnComments(tableName, conn);
     }
 
+    /**
+     * 结果行处理
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(String tableName, ResultSet rs) throws SQLException;
+    }
+
 }
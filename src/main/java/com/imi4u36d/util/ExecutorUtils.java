@@ -0,0 +1,63 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池工具类
+ *
+ * @author wangzhuo
+ */
+public class ExecutorUtils {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorUtils.class);
+
+    /**
+     * 虚拟线程执行器类型
+     */
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+
+    /**
+     * 固定大小线程池执行器类型
+     */
+    public static final String EXECUTOR_FIXED = "fixed";
+
+    /**
+     * 创建执行阻塞任务（JDBC、文件读写）的执行器
+     * <p>
+     * 插件以Java 11为编译目标，虚拟线程通过反射创建；运行环境不支持虚拟线程时退回到固定大小线程池
+     *
+     * @param type    执行器类型: virtual, fixed
+     * @param threads 固定大小线程池的线程数
+     * @param prefix  线程名前缀
+     * @return 执行器
+     */
+    public static ExecutorService newExecutor(String type, int threads, String prefix) {
+        if (EXECUTOR_VIRTUAL.equals(type.toLowerCase(Locale.ROOT))) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("当前Java版本不支持虚拟线程，将使用固定大小线程池: {}", prefix);
+            }
+        } else if (!EXECUTOR_FIXED.equals(type.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("不支持的执行器类型: " + type);
+        }
+        return newFixedExecutor(threads, prefix);
+    }
+
+    /**
+     * 创建守护线程组成的固定大小线程池
+     */
+    public static ExecutorService newFixedExecutor(int threads, String prefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
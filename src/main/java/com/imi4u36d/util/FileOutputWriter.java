@@ -0,0 +1,212 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 文件系统输出：生成文件统一按UTF-8编码，经池化的直接缓冲区用FileChannel聚集写入；
+ * 输出目录在一次执行中只创建一次，之后写文件不再检查和创建父目录，每个文件只需打开、写入、关闭
+ *
+ * @author wangzhuo
+ */
+public class FileOutputWriter implements OutputSink {
+    private static final Logger logger = LoggerFactory.getLogger(FileOutputWriter.class);
+    private static final FileOutputWriter INSTANCE = new FileOutputWriter();
+
+    // 刷盘策略：不主动刷盘，由操作系统决定
+    public static final String FSYNC_NONE = "none";
+    // 刷盘策略：每个文件关闭前刷盘
+    public static final String FSYNC_FILE = "file";
+    // 刷盘策略：全部文件写入后统一刷盘
+    public static final String FSYNC_BATCH = "batch";
+
+    // 缓冲块大小，超过的内容分多块聚集写入
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    // 空闲的缓冲块，各写入线程共用
+    private final Queue<ByteBuffer> chunkPool = new ConcurrentLinkedQueue<>();
+
+    // 本次执行中已创建的目录
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+
+    // 等待统一刷盘的文件
+    private final Queue<Path> pendingSync = new ConcurrentLinkedQueue<>();
+
+    private volatile String fsyncPolicy = FSYNC_NONE;
+
+    private FileOutputWriter() {
+    }
+
+    public static FileOutputWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 校验刷盘策略
+     *
+     * @return 小写的刷盘策略
+     */
+    public static String checkFsyncPolicy(String fsyncPolicy) {
+        String policy = fsyncPolicy.trim().toLowerCase(Locale.ROOT);
+        if (!FSYNC_NONE.equals(policy) && !FSYNC_FILE.equals(policy) && !FSYNC_BATCH.equals(policy)) {
+            throw new IllegalArgumentException("不支持的刷盘策略: " + fsyncPolicy);
+        }
+        return policy;
+    }
+
+    /**
+     * 开始一次执行，清空上次记录的目录和待刷盘文件
+     *
+     * @param fsyncPolicy 刷盘策略: none, file, batch
+     */
+    public void reset(String fsyncPolicy) {
+        this.fsyncPolicy = checkFsyncPolicy(fsyncPolicy);
+        createdDirectories.clear();
+        pendingSync.clear();
+    }
+
+    /**
+     * 一次创建一批文件所需的全部目录，已创建过的目录直接跳过
+     *
+     * @param fileNames 文件完整路径
+     */
+    @Override
+    public void createDirectories(Collection<String> fileNames) {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (String fileName : fileNames) {
+            Path parent = new File(fileName).toPath().getParent();
+            if (parent != null && !createdDirectories.contains(parent)) {
+                directories.add(parent);
+            }
+        }
+        for (Path directory : directories) {
+            try {
+                createDirectory(directory);
+            } catch (IOException e) {
+                logger.error("创建目录失败: {}", directory, e);
+                throw new RuntimeException("创建目录失败", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(File file) {
+        return file.exists();
+    }
+
+    @Override
+    public long write(File file, byte[] bytes) throws IOException {
+        Path path = file.toPath();
+        Path parent = path.getParent();
+        if (parent != null && !createdDirectories.contains(parent)) {
+            logger.debug("创建父目录: {}", parent.toAbsolutePath());
+            createDirectory(parent);
+        }
+
+        ByteBuffer[] chunks = borrowChunks(bytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long remaining = bytes.length;
+            while (remaining > 0) {
+                remaining -= channel.write(chunks);
+            }
+            if (FSYNC_FILE.equals(fsyncPolicy)) {
+                channel.force(true);
+            }
+        } finally {
+            releaseChunks(chunks);
+        }
+        if (FSYNC_BATCH.equals(fsyncPolicy)) {
+            pendingSync.add(path);
+        }
+        return bytes.length;
+    }
+
+    /**
+     * 结束一次执行：batch策略下统一刷盘已写入的文件及其所在目录
+     */
+    @Override
+    public void finish() {
+        if (!FSYNC_BATCH.equals(fsyncPolicy) || pendingSync.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Set<Path> directories = new LinkedHashSet<>();
+        int count = 0;
+        Path path;
+        while ((path = pendingSync.poll()) != null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            } catch (IOException e) {
+                logger.error("文件刷盘失败: {}", path, e);
+                throw new RuntimeException("文件刷盘失败", e);
+            }
+            if (path.getParent() != null) {
+                directories.add(path.getParent());
+            }
+            count++;
+        }
+        for (Path directory : directories) {
+            // 部分平台（如Windows）不支持打开目录，目录刷盘失败不影响结果
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                logger.debug("目录刷盘失败: {}", directory, e);
+            }
+        }
+        logger.info("统一刷盘 {} 个文件，耗时 {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 生成失败：已写入的文件保留在原位置，不再统一刷盘
+     */
+    @Override
+    public void abort() {
+        pendingSync.clear();
+    }
+
+    private void createDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        createdDirectories.add(directory);
+    }
+
+    /**
+     * 从缓冲池取出足够的缓冲块并填入内容
+     */
+    private ByteBuffer[] borrowChunks(byte[] bytes) {
+        int count = Math.max(1, (bytes.length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        ByteBuffer[] chunks = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            ByteBuffer chunk = chunkPool.poll();
+            if (chunk == null) {
+                chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            }
+            int offset = i * CHUNK_SIZE;
+            chunk.clear();
+            chunk.put(bytes, offset, Math.min(CHUNK_SIZE, bytes.length - offset));
+            chunk.flip();
+            chunks[i] = chunk;
+        }
+        return chunks;
+    }
+
+    private void releaseChunks(ByteBuffer[] chunks) {
+        chunkPool.addAll(Arrays.asList(chunks));
+    }
+}
@@ -4,6 +4,11 @@ import com.imi4u36d.model.BaseResModel;
 import com.imi4u36d.model.BasicConfig;
 import com.imi4u36d.model.BasicInfo;
 import com.imi4u36d.model.FileType;
+import com.imi4u36d.model.RenderedFile;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MultiTemplateLoader;
+import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
@@ -11,10 +16,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * @author wangzhuo
@@ -28,45 +45,116 @@ public class FreemarkerUtils {
     // 模板缓存，key为模板目录路径+模板名称
     private static final Map<String, Template> TEMPLATE_CACHE = new ConcurrentHashMap<>();
 
-    public static void ftlToFile(BasicConfig basicConfig, BasicInfo basicInfo, FileType fileType, String outputDir) {
-        String ftlName = fileType.getFtlName();
+    // 模板内容哈希缓存，key为模板目录路径+模板名称
+    private static final Map<String, String> TEMPLATE_HASH_CACHE = new ConcurrentHashMap<>();
+
+    // 编译模板缓存，key为模板目录路径，value中不包含无法编译的模板
+    private static final Map<String, Map<String, CompiledTemplate>> COMPILED_TEMPLATE_CACHE =
+            new ConcurrentHashMap<>();
+
+    // 渲染结果与FreeMarker不一致的编译模板，key为模板目录路径+模板名称
+    private static final Set<String> COMPILED_TEMPLATE_MISMATCH = ConcurrentHashMap.newKeySet();
+
+    // 编译模板的渲染缓冲区，每个线程复用一个
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    // 生成时间格式，与BasicInfo中的curTime一致
+    private static final Pattern CUR_TIME_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+
+    // 临时文件名中的进程号和序号，同时写入同一输出目录的多个构建不会使用相同的临时文件
+    private static final String TMP_FILE_PID = String.valueOf(ProcessHandle.current().pid());
+    private static final AtomicLong TMP_FILE_SEQ = new AtomicLong();
+
+    // 生成结果编码
+    public static final int CODE_RENDERED = 0;
+    public static final int CODE_EXISTS_SKIPPED = 1001;
+    public static final int CODE_UNCHANGED = 1002;
+    public static final int CODE_CONTENT_UNCHANGED = 1003;
+
+    public static BaseResModel ftlToFile(BasicConfig basicConfig, BasicInfo basicInfo, FileType fileType,
+            String outputDir) {
+        return ftlToFile(basicConfig, basicInfo, fileType, outputDir, null);
+    }
+
+    /**
+     * 生成文件
+     *
+     * @param buildManifest 构建清单，不为空时输入未变化的文件将跳过渲染和写入
+     * @return 生成结果
+     */
+    public static BaseResModel ftlToFile(BasicConfig basicConfig, BasicInfo basicInfo, FileType fileType,
+            String outputDir, BuildManifest buildManifest) {
         String fileName = getFileName(basicInfo, fileType, outputDir);
-        createFile(basicConfig, basicInfo, fileName, ftlName);
+        return createFile(basicConfig, basicInfo, fileType, fileName, null, buildManifest);
     }
 
     private static String getFileName(BasicInfo basicInfo, FileType fileType, String outputDir) {
-        String extensionName = fileType.getExtension();
-        String packageName = fileType.getPackageName();
-
-        // 对于Result和BaseResponseDto等通用类，不添加实体名称前缀
-        String fileName;
-        if (fileType == FileType.RES || fileType == FileType.BASERESDTO) {
-            // 直接使用扩展名作为文件名（因为扩展名已经包含了完整的类名，如"Result.java"）
-            fileName = extensionName;
-        } else {
-            // 其他类添加实体名称前缀
-            fileName = basicInfo.getEntityName() + extensionName;
-        }
+        return getFileNames(basicInfo, Collections.singletonList(fileType), outputDir).get(fileType);
+    }
 
+    /**
+     * 计算同一张表多个文件的完整路径，目录前缀只计算一次
+     *
+     * @return key为文件类型，value为文件完整路径
+     */
+    public static Map<FileType, String> getFileNames(BasicInfo basicInfo, Collection<FileType> fileTypes,
+            String outputDir) {
         // 构建完整的目录结构：src/main/java + 包路径 + 组件类型
-        String fullPath;
-        if (fileType == FileType.XML) {
-            // XML文件放在resources/mapper目录下
-            fullPath = outputDir + File.separator + "src" + File.separator + "main" + File.separator + "resources"
-                    + File.separator + "mapper" + File.separator + fileName;
-        } else {
-            // Java文件放在src/main/java目录下
-            fullPath = outputDir + File.separator + "src" + File.separator + "main" + File.separator + "java"
-                    + File.separator +
-                    basicInfo.getPackageUrl().replace(".", File.separator) + File.separator +
-                    packageName + File.separator + fileName;
+        String mainDir = outputDir + File.separator + "src" + File.separator + "main" + File.separator;
+        // Java文件放在src/main/java目录下
+        String javaDir = mainDir + "java" + File.separator + basicInfo.getPackageUrl().replace(".", File.separator)
+                + File.separator;
+        // XML文件放在resources/mapper目录下
+        String mapperDir = mainDir + "resources" + File.separator + "mapper" + File.separator;
+
+        Map<FileType, String> fileNames = new EnumMap<>(FileType.class);
+        for (FileType fileType : fileTypes) {
+            // 对于Result和BaseResponseDto等通用类，不添加实体名称前缀
+            String fileName;
+            if (fileType.isCommon()) {
+                // 直接使用扩展名作为文件名（因为扩展名已经包含了完整的类名，如"Result.java"）
+                fileName = fileType.getExtension();
+            } else {
+                // 其他类添加实体名称前缀
+                fileName = basicInfo.getEntityName() + fileType.getExtension();
+            }
+
+            if (fileType == FileType.XML) {
+                fileNames.put(fileType, mapperDir + fileName);
+            } else {
+                fileNames.put(fileType, javaDir + fileType.getPackageName() + File.separator + fileName);
+            }
         }
+        return fileNames;
+    }
 
-        return fullPath;
+    /**
+     * 渲染模板并生成文件
+     *
+     * @param fileName         文件完整路径
+     * @param modelFingerprint 表模型的哈希，为空时按需计算；同一张表的多个文件可共用
+     * @param buildManifest    构建清单，不为空时输入未变化的文件将跳过渲染和写入
+     * @return 生成结果
+     */
+    public static BaseResModel createFile(BasicConfig basicConfig, BasicInfo basicInfo, FileType fileType,
+            String fileName, String modelFingerprint, BuildManifest buildManifest) {
+        RenderedFile renderedFile = renderFile(basicConfig, basicInfo, fileType, fileName, modelFingerprint,
+                buildManifest);
+        return writeFile(basicConfig, renderedFile, buildManifest);
     }
 
-    private static BaseResModel createFile(BasicConfig basicConfig, BasicInfo basicInfo, String fileName,
-            String ftlName) {
+    /**
+     * 将模板渲染到内存；输入未变化或文件已存在且未开启覆写时不渲染，直接返回跳过结果
+     *
+     * @param fileName         文件完整路径
+     * @param modelFingerprint 表模型的哈希，为空时按需计算；同一张表的多个文件可共用
+     * @param buildManifest    构建清单，不为空时输入未变化的文件将跳过渲染
+     * @return 渲染结果
+     */
+    public static RenderedFile renderFile(BasicConfig basicConfig, BasicInfo basicInfo, FileType fileType,
+            String fileName, String modelFingerprint, BuildManifest buildManifest) {
+        String ftlName = fileType.getFtlName();
         BaseResModel resModel = new BaseResModel();
 
         // 获取模板目录标识
@@ -78,35 +166,59 @@ public class FreemarkerUtils {
         // 获取或加载模板
         Template template = getOrLoadTemplate(configuration, templateDirKey, ftlName);
 
-        try {
-            File file = new File(fileName);
-            logger.debug("生成文件: {}", file.getAbsolutePath());
+        File file = new File(fileName);
+        logger.debug("渲染文件: {}", file.getAbsolutePath());
 
-            if (!file.getParentFile().exists()) {
-                logger.debug("创建父目录: {}", file.getParentFile().getAbsolutePath());
-                file.getParentFile().mkdirs();
+        // 模型、配置和模板均未变化时跳过渲染
+        String fingerprint = null;
+        if (buildManifest != null) {
+            if (modelFingerprint == null) {
+                modelFingerprint = getModelFingerprint(basicConfig, basicInfo);
             }
-
-            if (file.exists()) {
-                if (basicConfig.getOverWriteEnable()) {
-                    logger.info("覆写已有文件: {}", file.getAbsolutePath());
-                    file.delete();
-                } else {
-                    resModel.setCode(1001);
-                    resModel.setContent("文件已存在！");
-                    logger.info("文件已存在，跳过生成: {}", file.getAbsolutePath());
-                    return resModel;
-                }
+            fingerprint = modelFingerprint + ":" + TEMPLATE_HASH_CACHE.computeIfAbsent(
+                    templateDirKey + ":" + ftlName, key -> BuildManifest.hash(template.toString()));
+            boolean upToDate = buildManifest.isUpToDate(file, fingerprint);
+            GenerateMetrics.getInstance().recordCache(GenerateMetrics.CACHE_BUILD_MANIFEST, upToDate);
+            if (upToDate) {
+                resModel.setCode(CODE_UNCHANGED);
+                resModel.setContent("文件未变化！");
+                logger.debug("输入未变化，跳过生成: {}", file.getAbsolutePath());
+                return new RenderedFile(file, fileType, null, fingerprint, basicInfo.getCurTime(), resModel);
             }
+        }
+
+        if (!basicConfig.getOverWriteEnable() && getOutputSink(basicConfig).exists(file)) {
+            resModel.setCode(CODE_EXISTS_SKIPPED);
+            resModel.setContent("文件已存在！");
+            logger.info("文件已存在，跳过生成: {}", file.getAbsolutePath());
+            return new RenderedFile(file, fileType, null, fingerprint, basicInfo.getCurTime(), resModel);
+        }
 
-            file.createNewFile();
-            try (FileWriter out = new FileWriter(file)) {
+        try {
+            long start = System.nanoTime();
+            String content = null;
+            CompiledTemplate compiledTemplate = getCompiledTemplate(basicConfig, configuration, templateDirKey,
+                    ftlName);
+            if (compiledTemplate != null) {
+                content = renderCompiled(compiledTemplate, basicInfo, ftlName);
+            }
+            if (content == null) {
+                StringWriter out = new StringWriter();
+                template.process(basicInfo, out);
+                content = out.toString();
+            } else if (Boolean.TRUE.equals(basicConfig.getTemplateVerifyEnable())) {
+                // 校验编译模板与FreeMarker的渲染结果，不一致时以FreeMarker为准并停用该编译模板
+                StringWriter out = new StringWriter();
                 template.process(basicInfo, out);
+                if (!content.equals(out.toString())) {
+                    logger.warn("编译模板 {} 渲染 {} 的结果与FreeMarker不一致，{}，后续改用FreeMarker渲染", ftlName,
+                            file.getName(), describeDifference(out.toString(), content));
+                    COMPILED_TEMPLATE_MISMATCH.add(templateDirKey + ":" + ftlName);
+                    content = out.toString();
+                }
             }
-            logger.info("生成文件成功: {}", file.getAbsolutePath());
-        } catch (IOException e) {
-            logger.error("文件操作失败: {}", fileName, e);
-            throw new RuntimeException("文件操作失败", e);
+            GenerateMetrics.getInstance().recordRender(ftlName, file.getPath(), System.nanoTime() - start);
+            return new RenderedFile(file, fileType, content, fingerprint, basicInfo.getCurTime(), null);
         } catch (TemplateException e) {
             logger.error("模板处理失败: {}", ftlName, e);
             throw new RuntimeException("模板处理失败", e);
@@ -114,9 +226,234 @@ public class FreemarkerUtils {
             logger.error("生成文件失败: {}", fileName, e);
             throw new RuntimeException("生成文件失败", e);
         }
+    }
+
+    /**
+     * 获取模板编译后的渲染器，未开启编译模板、模板不支持编译或校验不一致时返回空
+     */
+    private static CompiledTemplate getCompiledTemplate(BasicConfig basicConfig, Configuration configuration,
+            String templateDirKey, String ftlName) {
+        if (!TemplateCompiler.ENGINE_COMPILED.equals(basicConfig.getTemplateEngine())
+                || COMPILED_TEMPLATE_MISMATCH.contains(templateDirKey + ":" + ftlName)) {
+            return null;
+        }
+        return COMPILED_TEMPLATE_CACHE.computeIfAbsent(templateDirKey,
+                key -> compileTemplates(basicConfig, configuration, key)).get(ftlName);
+    }
+
+    /**
+     * 一次编译模板目录下的全部模板，缺失或加载失败的模板跳过
+     */
+    private static Map<String, CompiledTemplate> compileTemplates(BasicConfig basicConfig,
+            Configuration configuration, String templateDirKey) {
+        long start = System.nanoTime();
+        Map<String, String> templates = new LinkedHashMap<>();
+        for (FileType fileType : FileType.values()) {
+            String ftlName = fileType.getFtlName();
+            if (templates.containsKey(ftlName)) {
+                continue;
+            }
+            try {
+                templates.put(ftlName, configuration.getTemplate(ftlName).toString());
+            } catch (IOException e) {
+                logger.debug("模板 {} 加载失败，不参与编译", ftlName);
+            }
+        }
+        Map<String, CompiledTemplate> compiled = TemplateCompiler.compile(templates,
+                basicConfig.getTemplateCacheDir() == null ? null : new File(basicConfig.getTemplateCacheDir()));
+        logger.info("编译模板目录 {}：{}/{} 个模板编译成功，耗时 {} ms", templateDirKey, compiled.size(),
+                templates.size(), (System.nanoTime() - start) / 1_000_000);
+        return compiled;
+    }
+
+    /**
+     * 使用编译模板渲染，渲染出错时返回空，由FreeMarker重新渲染以得到准确的错误信息
+     */
+    private static String renderCompiled(CompiledTemplate compiledTemplate, BasicInfo basicInfo, String ftlName) {
+        StringBuilder out = RENDER_BUFFER.get();
+        out.setLength(0);
+        try {
+            compiledTemplate.render(basicInfo, out);
+            return out.toString();
+        } catch (RuntimeException e) {
+            logger.debug("编译模板 {} 渲染失败，改用FreeMarker渲染: {}", ftlName, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 描述两个渲染结果第一处不同所在的行
+     */
+    private static String describeDifference(String expected, String actual) {
+        int index = 0;
+        int length = Math.min(expected.length(), actual.length());
+        while (index < length && expected.charAt(index) == actual.charAt(index)) {
+            index++;
+        }
+        int line = 1;
+        for (int i = 0; i < index; i++) {
+            if (expected.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return "第" + line + "行: FreeMarker [" + lineAt(expected, index) + "]，编译模板 [" + lineAt(actual, index) + "]";
+    }
+
+    private static String lineAt(String content, int index) {
+        int from = content.lastIndexOf('\n', Math.min(index, content.length()) - 1) + 1;
+        int to = content.indexOf('\n', from);
+        return content.substring(from, to < 0 ? content.length() : to).trim();
+    }
+
+    /**
+     * 写入渲染结果
+     *
+     * @param buildManifest 构建清单，不为空时写入后记录文件的输入哈希
+     * @return 生成结果
+     */
+    public static BaseResModel writeFile(BasicConfig basicConfig, RenderedFile renderedFile,
+            BuildManifest buildManifest) {
+        if (renderedFile.getResult() != null) {
+            return renderedFile.getResult();
+        }
+
+        BaseResModel resModel = new BaseResModel();
+        File file = renderedFile.getFile();
+        long start = System.nanoTime();
+        try {
+            long length;
+            OutputSink outputSink = getOutputSink(basicConfig);
+            // 仅在内容变化时写入需要与磁盘上的已有文件比较，只适用于文件系统输出
+            if (Boolean.TRUE.equals(basicConfig.getWriteIfChangedEnable()) && outputSink instanceof FileOutputWriter) {
+                // 内容与已有文件一致时不写入，保持文件修改时间不变
+                length = writeIfChanged(file, renderedFile.getContent(), renderedFile.getCurTime());
+                if (length < 0) {
+                    GenerateMetrics.getInstance().recordWrite(renderedFile.getFileType().getFtlName(),
+                            file.getPath(), System.nanoTime() - start, 0);
+                    if (buildManifest != null) {
+                        buildManifest.record(file, renderedFile.getFingerprint());
+                    }
+                    resModel.setCode(CODE_CONTENT_UNCHANGED);
+                    resModel.setContent("文件内容未变化！");
+                    logger.debug("文件内容未变化，保留原文件: {}", file.getAbsolutePath());
+                    return resModel;
+                }
+            } else {
+                // 直接覆盖已有文件，不再逐个检查、删除和创建
+                length = outputSink.write(file, renderedFile.getContent());
+            }
+            GenerateMetrics.getInstance().recordWrite(renderedFile.getFileType().getFtlName(), file.getPath(),
+                    System.nanoTime() - start, length);
+            if (buildManifest != null) {
+                buildManifest.record(file, renderedFile.getFingerprint());
+            }
+            resModel.setCode(CODE_RENDERED);
+            resModel.setContent("生成成功！");
+            logger.info("生成文件成功: {}", file.getAbsolutePath());
+        } catch (IOException e) {
+            logger.error("文件操作失败: {}", file, e);
+            throw new RuntimeException("文件操作失败", e);
+        }
         return resModel;
     }
 
+    /**
+     * 获取生成文件的输出目标，未指定时写入文件系统
+     */
+    public static OutputSink getOutputSink(BasicConfig basicConfig) {
+        OutputSink outputSink = basicConfig.getOutputSink();
+        return outputSink != null ? outputSink : FileOutputWriter.getInstance();
+    }
+
+    /**
+     * 内容与已有文件不同时才写入，先比较文件大小再比较内容（生成时间不同视为内容一致）；
+     * 写入时先写临时文件再原子替换，并发构建不会读到写了一半的源文件
+     *
+     * @return 写入的字节数，内容未变化未写入时返回-1
+     */
+    private static long writeIfChanged(File file, String content, String curTime) throws IOException {
+        Path target = file.toPath();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (file.isFile() && file.length() == bytes.length && sameIgnoringCurTime(
+                new String(Files.readAllBytes(target), StandardCharsets.UTF_8), content, curTime)) {
+            return -1;
+        }
+
+        // 临时文件与目标文件位于同一目录，按默认权限创建（Files.createTempFile会限制为仅所有者可读写）
+        Path tmpFile = target.resolveSibling("." + file.getName() + "." + TMP_FILE_PID + "."
+                + TMP_FILE_SEQ.incrementAndGet() + ".tmp");
+        try {
+            FileOutputWriter.getInstance().write(tmpFile.toFile(), bytes);
+            try {
+                Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+        return bytes.length;
+    }
+
+    /**
+     * 比较已有文件内容与新内容，新内容中生成时间所在的位置只要求已有内容同样是时间格式
+     */
+    private static boolean sameIgnoringCurTime(String existing, String content, String curTime) {
+        if (existing.length() != content.length()) {
+            return false;
+        }
+        if (curTime == null || curTime.isEmpty()) {
+            return existing.equals(content);
+        }
+
+        int from = 0;
+        int index;
+        while ((index = content.indexOf(curTime, from)) >= 0) {
+            if (!existing.regionMatches(from, content, from, index - from)
+                    || !CUR_TIME_PATTERN.matcher(existing.substring(index, index + curTime.length())).matches()) {
+                return false;
+            }
+            from = index + curTime.length();
+        }
+        return existing.regionMatches(from, content, from, content.length() - from);
+    }
+
+    /**
+     * 计算表模型和生成配置的哈希，与模板哈希共同组成生成文件的输入哈希：模型哈希:配置哈希:模板哈希
+     */
+    public static String getModelFingerprint(BasicConfig basicConfig, BasicInfo basicInfo) {
+        // 生成时间每次执行都会变化，不参与哈希计算
+        String modelHash = BuildManifest.hash(basicInfo.toBuilder().curTime(null).build().toString());
+        String configHash = BuildManifest.hash(basicConfig.toString());
+        return modelHash + ":" + configHash;
+    }
+
+    /**
+     * 清除模板目录下全部模板的缓存（包括编译模板），模板文件变化后下次渲染时重新加载
+     */
+    public static void clearTemplateCache(BasicConfig basicConfig) {
+        String templateDirKey = getTemplateDirKey(basicConfig);
+        String prefix = templateDirKey + ":";
+        TEMPLATE_CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+        TEMPLATE_HASH_CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+        COMPILED_TEMPLATE_MISMATCH.removeIf(key -> key.startsWith(prefix));
+        COMPILED_TEMPLATE_CACHE.remove(templateDirKey);
+        Configuration configuration = CONFIGURATION_CACHE.get(templateDirKey);
+        if (configuration != null) {
+            // 同时重置模板加载器记录的模板来源，新增或删除的自定义模板可以生效
+            configuration.clearTemplateCache();
+        }
+        logger.debug("已清除模板缓存: {}", templateDirKey);
+    }
+
+    /**
+     * 获取渲染时使用的模板，与生成过程共用模板配置和缓存
+     */
+    static Template getTemplate(BasicConfig basicConfig, String ftlName) {
+        String templateDirKey = getTemplateDirKey(basicConfig);
+        return getOrLoadTemplate(getOrCreateConfiguration(basicConfig, templateDirKey), templateDirKey, ftlName);
+    }
+
     /**
      * 获取模板目录标识
      */
@@ -128,9 +465,18 @@ public class FreemarkerUtils {
      * 获取或创建Configuration对象
      */
     private static Configuration getOrCreateConfiguration(BasicConfig basicConfig, String templateDirKey) {
+        Configuration cached = CONFIGURATION_CACHE.get(templateDirKey);
+        GenerateMetrics.getInstance().recordCache(GenerateMetrics.CACHE_CONFIGURATION, cached != null);
+        if (cached != null) {
+            return cached;
+        }
         return CONFIGURATION_CACHE.computeIfAbsent(templateDirKey, key -> {
             Configuration configuration = new Configuration(Configuration.VERSION_2_3_28);
-            choseFtlMode(basicConfig, "", configuration);
+            configuration.setTemplateLoader(createTemplateLoader(basicConfig));
+            configuration.setDefaultEncoding(StandardCharsets.UTF_8.name());
+            // 一次生成过程中模板不会变化，不再检查模板文件是否更新
+            configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+            configuration.setObjectWrapper(ModelObjectWrapper.getInstance());
             logger.info("创建并缓存模板配置: {}", templateDirKey);
             return configuration;
         });
@@ -142,9 +488,17 @@ public class FreemarkerUtils {
     private static Template getOrLoadTemplate(Configuration configuration, String templateDirKey, String ftlName) {
         String templateKey = templateDirKey + ":" + ftlName;
 
+        Template cached = TEMPLATE_CACHE.get(templateKey);
+        GenerateMetrics.getInstance().recordCache(GenerateMetrics.CACHE_TEMPLATE, cached != null);
+        if (cached != null) {
+            return cached;
+        }
         return TEMPLATE_CACHE.computeIfAbsent(templateKey, key -> {
             try {
                 logger.debug("加载并缓存模板: {}", ftlName);
+                if (!"default".equals(templateDirKey) && !new File(templateDirKey, ftlName).exists()) {
+                    logger.info("自定义模板路径 {} 下未找到文件 {}，将使用默认模板", templateDirKey, ftlName);
+                }
                 return configuration.getTemplate(ftlName);
             } catch (IOException e) {
                 logger.error("加载模板失败: {}", ftlName, e);
@@ -153,23 +507,20 @@ public class FreemarkerUtils {
         });
     }
 
-    private static void choseFtlMode(BasicConfig basicConfig, String ftlName, Configuration configuration) {
-        if (basicConfig.getFtlFileDirConfig() != null) {
-            try {
-                String ftlFileDirConfig = basicConfig.getFtlFileDirConfig();
-                configuration.setDirectoryForTemplateLoading(new File(ftlFileDirConfig));
-                String path = ftlFileDirConfig + File.separator + ftlName;
-                File file = new File(path);
-                if (!ftlName.isEmpty() && !file.exists()) {
-                    logger.info("自定义模板路径 {} 下未找到文件 {}，将使用默认模板", ftlFileDirConfig, ftlName);
-                    configuration.setClassForTemplateLoading(FreemarkerUtils.class, "/templates");
-                }
-            } catch (IOException e) {
-                logger.error("加载自定义模板配置失败", e);
-                throw new RuntimeException(e);
-            }
-        } else {
-            configuration.setClassForTemplateLoading(FreemarkerUtils.class, "/templates");
+    /**
+     * 创建模板加载器：配置了自定义模板目录时优先从该目录加载，目录中没有的模板使用默认模板
+     */
+    private static TemplateLoader createTemplateLoader(BasicConfig basicConfig) {
+        TemplateLoader defaultLoader = new ClassTemplateLoader(FreemarkerUtils.class, "/templates");
+        if (basicConfig.getFtlFileDirConfig() == null) {
+            return defaultLoader;
+        }
+        try {
+            return new MultiTemplateLoader(new TemplateLoader[]{
+                    new FileTemplateLoader(new File(basicConfig.getFtlFileDirConfig())), defaultLoader});
+        } catch (IOException e) {
+            logger.error("加载自定义模板配置失败", e);
+            throw new RuntimeException(e);
         }
     }
 }
\ No newline at end of file
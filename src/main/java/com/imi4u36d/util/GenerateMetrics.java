@@ -0,0 +1,500 @@
+package com.imi4u36d.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 生成过程指标：各阶段耗时、每张表的扫描耗时和查询次数、每个模板的渲染耗时和写入字节数、
+ * 连接池获取连接的等待时间以及各缓存命中率；未开启时所有记录方法直接返回
+ *
+ * @author wangzhuo
+ */
+public class GenerateMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(GenerateMetrics.class);
+    private static final GenerateMetrics INSTANCE = new GenerateMetrics();
+
+    public static final String PHASE_CONFIG = "config";
+    public static final String PHASE_POOL_INIT = "poolInit";
+    public static final String PHASE_INTROSPECTION = "introspection";
+    public static final String PHASE_RENDER = "render";
+    public static final String PHASE_WRITE = "write";
+    public static final String PHASE_GENERATE = "generate";
+    public static final String PHASE_TOTAL = "total";
+
+    public static final String CACHE_CONFIGURATION = "configuration";
+    public static final String CACHE_TEMPLATE = "template";
+    public static final String CACHE_SCHEMA_SNAPSHOT = "schemaSnapshot";
+    public static final String CACHE_BUILD_MANIFEST = "buildManifest";
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_CSV = "csv";
+
+    private volatile boolean enabled;
+
+    /**
+     * 各阶段耗时，render和write为所有文件的累计耗时，其余为墙钟时间
+     */
+    private final Map<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+
+    private final List<TableMetric> tableMetrics = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, FileMetric> fileMetrics = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder[]> cacheStats = new ConcurrentHashMap<>();
+
+    private final LongAdder poolAcquireCount = new LongAdder();
+    private final LongAdder poolAcquireNanos = new LongAdder();
+    private final AtomicLong poolAcquireMaxNanos = new AtomicLong();
+    private final LongAdder poolTimeouts = new LongAdder();
+
+    /**
+     * 当前线程执行的查询次数
+     */
+    private final ThreadLocal<int[]> queryCount = ThreadLocal.withInitial(() -> new int[1]);
+
+    private GenerateMetrics() {
+    }
+
+    public static GenerateMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 清空上次执行的指标
+     *
+     * @param enabled 是否记录指标
+     */
+    public void reset(boolean enabled) {
+        this.enabled = enabled;
+        phaseNanos.clear();
+        tableMetrics.clear();
+        fileMetrics.clear();
+        cacheStats.clear();
+        poolAcquireCount.reset();
+        poolAcquireNanos.reset();
+        poolAcquireMaxNanos.set(0);
+        poolTimeouts.reset();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录阶段耗时，同一阶段多次记录时累加
+     *
+     * @param startNanos 阶段开始时的System.nanoTime()
+     */
+    public void recordPhase(String phase, long startNanos) {
+        if (enabled) {
+            phaseNanos.computeIfAbsent(phase, key -> new LongAdder()).add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 记录单张表的扫描耗时和查询次数
+     */
+    public void recordTable(String tableName, long nanos, int queries) {
+        if (enabled) {
+            tableMetrics.add(new TableMetric(tableName, nanos, queries));
+        }
+    }
+
+    /**
+     * 记录单个文件的渲染耗时
+     */
+    public void recordRender(String template, String fileName, long nanos) {
+        if (enabled) {
+            fileMetrics.computeIfAbsent(fileName, key -> new FileMetric(fileName, template)).renderNanos = nanos;
+            phaseNanos.computeIfAbsent(PHASE_RENDER, key -> new LongAdder()).add(nanos);
+        }
+    }
+
+    /**
+     * 记录单个文件的写入耗时和写入字节数，内容未变化未写入时字节数为0
+     */
+    public void recordWrite(String template, String fileName, long nanos, long bytes) {
+        if (enabled) {
+            FileMetric fileMetric = fileMetrics.computeIfAbsent(fileName, key -> new FileMetric(fileName, template));
+            fileMetric.writeNanos = nanos;
+            fileMetric.bytes = bytes;
+            phaseNanos.computeIfAbsent(PHASE_WRITE, key -> new LongAdder()).add(nanos);
+        }
+    }
+
+    /**
+     * 记录一次缓存访问
+     */
+    public void recordCache(String cache, boolean hit) {
+        if (enabled) {
+            cacheStats.computeIfAbsent(cache, key -> new LongAdder[] { new LongAdder(), new LongAdder() })
+                    [hit ? 0 : 1].increment();
+        }
+    }
+
+    /**
+     * 当前线程累计执行的查询次数，用于计算单张表的查询次数
+     */
+    public int getQueryCount() {
+        return queryCount.get()[0];
+    }
+
+    /**
+     * 包装连接，统计语句执行和元数据查询的次数；未开启时返回原连接
+     */
+    public Connection trackQueries(Connection conn) {
+        if (!enabled) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result = invoke(conn, method, args);
+                    if (result instanceof Statement) {
+                        return countingProxy(result, method.getReturnType());
+                    }
+                    if (result instanceof DatabaseMetaData) {
+                        return countingProxy(result, DatabaseMetaData.class);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * 语句的execute*方法和元数据中返回结果集的方法每调用一次记为一次查询
+     */
+    private Object countingProxy(Object target, Class<?> type) {
+        boolean metaData = DatabaseMetaData.class.equals(type);
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (metaData ? ResultSet.class.equals(method.getReturnType()) : method.getName().startsWith("execute")) {
+                queryCount.get()[0]++;
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 连接池指标采集，记录获取连接的等待时间和超时次数
+     */
+    public MetricsTrackerFactory poolMetricsTrackerFactory() {
+        return (poolName, poolStats) -> new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                poolAcquireCount.increment();
+                poolAcquireNanos.add(elapsedAcquiredNanos);
+                poolAcquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                poolTimeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * 输出报告文件并打印最慢的表和文件
+     *
+     * @param reportDir 报告目录
+     * @param formats   报告格式: json, csv
+     * @param topN      摘要中列出的最慢表和文件数量
+     */
+    public void report(File reportDir, List<String> formats, int topN) {
+        if (!enabled) {
+            return;
+        }
+        logSummary(topN);
+        try {
+            Files.createDirectories(reportDir.toPath());
+            for (String format : formats) {
+                String name = format.trim().toLowerCase(Locale.ROOT);
+                File reportFile = new File(reportDir, "metrics." + name);
+                if (FORMAT_JSON.equals(name)) {
+                    Files.write(reportFile.toPath(), toJson(topN).getBytes(StandardCharsets.UTF_8));
+                } else if (FORMAT_CSV.equals(name)) {
+                    Files.write(reportFile.toPath(), toCsv().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    logger.warn("不支持的指标报告格式: {}", format);
+                    continue;
+                }
+                logger.info("指标报告已输出: {}", reportFile.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            // 指标报告不影响生成结果
+            logger.warn("输出指标报告失败: {}", reportDir, e);
+        }
+    }
+
+    private void logSummary(int topN) {
+        logger.info("阶段耗时(ms): {}", getPhases().entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + millis(entry.getValue()))
+                .collect(Collectors.joining(", ")));
+        logger.info("连接池: 获取连接 {} 次，等待共 {} ms，最长 {} ms，超时 {} 次", poolAcquireCount.sum(),
+                millis(poolAcquireNanos.sum()), millis(poolAcquireMaxNanos.get()), poolTimeouts.sum());
+        cacheStats.forEach((cache, stats) -> logger.info("缓存 {}: 命中 {} 次，未命中 {} 次，命中率 {}", cache,
+                stats[0].sum(), stats[1].sum(), hitRatio(stats)));
+        for (TableMetric table : slowestTables(topN)) {
+            logger.info("最慢的表: {} {} ms，查询 {} 次", table.tableName, millis(table.nanos), table.queries);
+        }
+        for (FileMetric file : slowestFiles(topN)) {
+            logger.info("最慢的文件: {} 渲染 {} ms，写入 {} ms，{} 字节", file.fileName, millis(file.renderNanos),
+                    millis(file.writeNanos), file.bytes);
+        }
+    }
+
+    private String toJson(int topN) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"phases\": {");
+        appendJoined(json, getPhases().entrySet().stream()
+                .map(entry -> "\"" + entry.getKey() + "\": " + millis(entry.getValue()))
+                .collect(Collectors.toList()));
+        json.append("},\n");
+        json.append("  \"pool\": {\"acquireCount\": ").append(poolAcquireCount.sum())
+                .append(", \"acquireMillis\": ").append(millis(poolAcquireNanos.sum()))
+                .append(", \"maxAcquireMillis\": ").append(millis(poolAcquireMaxNanos.get()))
+                .append(", \"timeouts\": ").append(poolTimeouts.sum()).append("},\n");
+        json.append("  \"caches\": {");
+        appendJoined(json, cacheStats.entrySet().stream()
+                .map(entry -> "\"" + entry.getKey() + "\": {\"hits\": " + entry.getValue()[0].sum()
+                        + ", \"misses\": " + entry.getValue()[1].sum() + ", \"hitRatio\": "
+                        + hitRatio(entry.getValue()) + "}")
+                .collect(Collectors.toList()));
+        json.append("},\n");
+        json.append("  \"templates\": [");
+        appendJoined(json, getTemplates().stream().map(TemplateMetric::toJson).collect(Collectors.toList()));
+        json.append("],\n");
+        json.append("  \"slowestTables\": [");
+        appendJoined(json, slowestTables(topN).stream().map(TableMetric::toJson).collect(Collectors.toList()));
+        json.append("],\n");
+        json.append("  \"slowestFiles\": [");
+        appendJoined(json, slowestFiles(topN).stream().map(FileMetric::toJson).collect(Collectors.toList()));
+        json.append("],\n");
+        json.append("  \"tables\": [");
+        appendJoined(json, snapshotTables().stream().map(TableMetric::toJson).collect(Collectors.toList()));
+        json.append("],\n");
+        json.append("  \"files\": [");
+        appendJoined(json, fileMetrics.values().stream()
+                .sorted(Comparator.comparing(file -> file.fileName))
+                .map(FileMetric::toJson)
+                .collect(Collectors.toList()));
+        json.append("]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * 长格式CSV：category,name,metric,value
+     */
+    private String toCsv() {
+        StringBuilder csv = new StringBuilder("category,name,metric,value\n");
+        getPhases().forEach((phase, nanos) -> appendCsv(csv, "phase", phase, "millis", millis(nanos)));
+        appendCsv(csv, "pool", "hikari", "acquireCount", poolAcquireCount.sum());
+        appendCsv(csv, "pool", "hikari", "acquireMillis", millis(poolAcquireNanos.sum()));
+        appendCsv(csv, "pool", "hikari", "maxAcquireMillis", millis(poolAcquireMaxNanos.get()));
+        appendCsv(csv, "pool", "hikari", "timeouts", poolTimeouts.sum());
+        cacheStats.forEach((cache, stats) -> {
+            appendCsv(csv, "cache", cache, "hits", stats[0].sum());
+            appendCsv(csv, "cache", cache, "misses", stats[1].sum());
+            appendCsv(csv, "cache", cache, "hitRatio", hitRatio(stats));
+        });
+        for (TemplateMetric template : getTemplates()) {
+            appendCsv(csv, "template", template.template, "files", template.files);
+            appendCsv(csv, "template", template.template, "renderMillis", millis(template.renderNanos));
+            appendCsv(csv, "template", template.template, "maxRenderMillis", millis(template.maxRenderNanos));
+            appendCsv(csv, "template", template.template, "writeMillis", millis(template.writeNanos));
+            appendCsv(csv, "template", template.template, "bytes", template.bytes);
+        }
+        for (TableMetric table : snapshotTables()) {
+            appendCsv(csv, "table", table.tableName, "millis", millis(table.nanos));
+            appendCsv(csv, "table", table.tableName, "queries", table.queries);
+        }
+        return csv.toString();
+    }
+
+    private Map<String, Long> getPhases() {
+        // 按执行顺序输出已知阶段，其余阶段排在后面
+        Map<String, Long> phases = new LinkedHashMap<>();
+        for (String phase : new String[] { PHASE_CONFIG, PHASE_POOL_INIT, PHASE_INTROSPECTION, PHASE_RENDER,
+                PHASE_WRITE, PHASE_GENERATE, PHASE_TOTAL }) {
+            LongAdder nanos = phaseNanos.get(phase);
+            if (nanos != null) {
+                phases.put(phase, nanos.sum());
+            }
+        }
+        phaseNanos.forEach((phase, nanos) -> phases.putIfAbsent(phase, nanos.sum()));
+        return phases;
+    }
+
+    private List<TemplateMetric> getTemplates() {
+        Map<String, TemplateMetric> templates = new LinkedHashMap<>();
+        fileMetrics.values().stream()
+                .sorted(Comparator.comparing(file -> file.template))
+                .forEach(file -> templates.computeIfAbsent(file.template, TemplateMetric::new).add(file));
+        return new ArrayList<>(templates.values());
+    }
+
+    private List<TableMetric> snapshotTables() {
+        synchronized (tableMetrics) {
+            return new ArrayList<>(tableMetrics);
+        }
+    }
+
+    private List<TableMetric> slowestTables(int topN) {
+        return snapshotTables().stream()
+                .sorted(Comparator.comparingLong((TableMetric table) -> table.nanos).reversed())
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    private List<FileMetric> slowestFiles(int topN) {
+        return fileMetrics.values().stream()
+                .sorted(Comparator.comparingLong((FileMetric file) -> file.renderNanos + file.writeNanos).reversed())
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    private static String hitRatio(LongAdder[] stats) {
+        long hits = stats[0].sum();
+        long total = hits + stats[1].sum();
+        return total == 0 ? "0" : String.format(Locale.ROOT, "%.4f", (double) hits / total);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void appendJoined(StringBuilder json, List<String> items) {
+        if (!items.isEmpty()) {
+            json.append("\n    ").append(String.join(",\n    ", items)).append("\n  ");
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, String category, String name, String metric, Object value) {
+        csv.append(category).append(',').append(csvValue(name)).append(',').append(metric).append(',')
+                .append(value).append('\n');
+    }
+
+    private static String csvValue(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 单张表的扫描指标
+     */
+    private static class TableMetric {
+        private final String tableName;
+        private final long nanos;
+        private final int queries;
+
+        TableMetric(String tableName, long nanos, int queries) {
+            this.tableName = tableName;
+            this.nanos = nanos;
+            this.queries = queries;
+        }
+
+        String toJson() {
+            return "{\"table\": " + jsonString(tableName) + ", \"millis\": " + millis(nanos) + ", \"queries\": "
+                    + queries + "}";
+        }
+    }
+
+    /**
+     * 单个文件的生成指标
+     */
+    private static class FileMetric {
+        private final String fileName;
+        private final String template;
+        private volatile long renderNanos;
+        private volatile long writeNanos;
+        private volatile long bytes;
+
+        FileMetric(String fileName, String template) {
+            this.fileName = fileName;
+            this.template = template;
+        }
+
+        String toJson() {
+            return "{\"file\": " + jsonString(fileName) + ", \"template\": " + jsonString(template)
+                    + ", \"renderMillis\": " + millis(renderNanos) + ", \"writeMillis\": " + millis(writeNanos)
+                    + ", \"bytes\": " + bytes + "}";
+        }
+    }
+
+    /**
+     * 按模板汇总的生成指标
+     */
+    private static class TemplateMetric {
+        private final String template;
+        private long files;
+        private long renderNanos;
+        private long maxRenderNanos;
+        private long writeNanos;
+        private long bytes;
+
+        TemplateMetric(String template) {
+            this.template = template;
+        }
+
+        void add(FileMetric file) {
+            files++;
+            renderNanos += file.renderNanos;
+            maxRenderNanos = Math.max(maxRenderNanos, file.renderNanos);
+            writeNanos += file.writeNanos;
+            bytes += file.bytes;
+        }
+
+        String toJson() {
+            return "{\"template\": " + jsonString(template) + ", \"files\": " + files + ", \"renderMillis\": "
+                    + millis(renderNanos) + ", \"maxRenderMillis\": " + millis(maxRenderNanos)
+                    + ", \"writeMillis\": " + millis(writeNanos) + ", \"bytes\": " + bytes + "}";
+        }
+    }
+}
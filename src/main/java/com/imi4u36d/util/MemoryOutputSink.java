@@ -0,0 +1,71 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 将生成文件保存在内存中，key为文件相对输出根目录的路径，不写入磁盘；
+ * 用于测试或在其他JVM工具中嵌入生成器，生成结束后通过 {@link #getFiles()} 读取
+ *
+ * @author wangzhuo
+ */
+public class MemoryOutputSink implements OutputSink {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryOutputSink.class);
+
+    private final Path baseDir;
+
+    // 按路径排序，便于比对
+    private final Map<Path, byte[]> files = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param baseOutputDir 输出根目录
+     */
+    public MemoryOutputSink(String baseOutputDir) {
+        this.baseDir = Paths.get(baseOutputDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void createDirectories(Collection<String> fileNames) {
+        // 内存中不需要目录
+    }
+
+    @Override
+    public boolean exists(File file) {
+        return files.containsKey(OutputSink.relativize(baseDir, file));
+    }
+
+    @Override
+    public long write(File file, byte[] bytes) {
+        files.put(OutputSink.relativize(baseDir, file), bytes.clone());
+        return bytes.length;
+    }
+
+    @Override
+    public void finish() {
+        long totalBytes = 0;
+        for (byte[] bytes : files.values()) {
+            totalBytes += bytes.length;
+        }
+        logger.info("内存输出 {} 个文件，共 {} 字节", files.size(), totalBytes);
+    }
+
+    @Override
+    public void abort() {
+        files.clear();
+    }
+
+    /**
+     * 已生成的文件，key为相对输出根目录的路径
+     */
+    public Map<Path, byte[]> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+}
@@ -0,0 +1,287 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.BasicInfo;
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateSequenceModel;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 模板对象包装器：BasicInfo、ColumnInfo等模型对象按对象缓存为哈希模型，同一张表的所有模板共用，
+ * 每个属性只在第一次访问时反射读取并包装一次，之后的渲染直接复用；其余对象与FreeMarker默认的包装方式一致。
+ * 缓存持有模型对象，一次生成结束后需要调用 {@link #clearCache()} 释放
+ *
+ * @author wangzhuo
+ */
+public class ModelObjectWrapper extends DefaultObjectWrapper {
+    private static final ModelObjectWrapper INSTANCE = new ModelObjectWrapper();
+
+    private static final String MODEL_PACKAGE = BasicInfo.class.getPackageName();
+
+    // 每个模型类的可读属性
+    private static final ClassValue<ModelClass> MODEL_CLASSES = new ClassValue<>() {
+        @Override
+        protected ModelClass computeValue(Class<?> type) {
+            return new ModelClass(type);
+        }
+    };
+
+    // 尚未读取的属性值
+    private static final TemplateModel UNREAD = new SimpleScalar("");
+
+    // 模型对象转换后的哈希模型，只在一次生成内有效
+    private final Map<IdentityKey, TemplateModel> modelCache = new ConcurrentHashMap<>();
+
+    private ModelObjectWrapper() {
+        super(new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_28), true);
+    }
+
+    public static ModelObjectWrapper getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    protected TemplateModel handleUnknownType(Object obj) throws TemplateModelException {
+        Class<?> type = obj.getClass();
+        if (type.isEnum() || !MODEL_PACKAGE.equals(type.getPackageName())) {
+            return super.handleUnknownType(obj);
+        }
+
+        IdentityKey key = new IdentityKey(obj);
+        TemplateModel cached = modelCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        TemplateModel model = new ModelHash(obj, MODEL_CLASSES.get(type));
+        TemplateModel previous = modelCache.putIfAbsent(key, model);
+        return previous != null ? previous : model;
+    }
+
+    /**
+     * 清除模型缓存，释放本次生成的模型对象；下次生成的模型可能是新扫描的对象或属性已变化
+     */
+    public void clearCache() {
+        modelCache.clear();
+    }
+
+    /**
+     * 列表属性（如字段列表）的元素同样预先包装，遍历时不再逐个查找缓存
+     */
+    private TemplateModel wrapProperty(Object value) throws TemplateModelException {
+        if (!(value instanceof List)) {
+            return wrap(value);
+        }
+        List<?> list = (List<?>) value;
+        List<TemplateModel> items = new ArrayList<>(list.size());
+        for (Object item : list) {
+            items.add(wrap(item));
+        }
+        return new ModelSequence(list, Collections.unmodifiableList(items));
+    }
+
+    /**
+     * 模型类的属性表，同一个类的所有对象共用
+     */
+    private static final class ModelClass {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final Method[] readMethods;
+
+        ModelClass(Class<?> type) {
+            List<Method> methods = new ArrayList<>();
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    if (descriptor.getReadMethod() != null && !"class".equals(descriptor.getName())) {
+                        indexes.put(descriptor.getName(), methods.size());
+                        methods.add(descriptor.getReadMethod());
+                    }
+                }
+            } catch (IntrospectionException e) {
+                throw new IllegalStateException("读取类属性失败: " + type.getName(), e);
+            }
+            this.readMethods = methods.toArray(new Method[0]);
+        }
+    }
+
+    /**
+     * 模型对象的哈希模型，属性在第一次访问时读取并包装，之后所有模板直接复用；
+     * 属性以外的名称（如方法）交给默认的BeanModel处理
+     */
+    private final class ModelHash implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel {
+        private final Object object;
+        private final ModelClass modelClass;
+        private final TemplateModel[] values;
+        private volatile TemplateHashModelEx beanModel;
+
+        ModelHash(Object object, ModelClass modelClass) {
+            this.object = object;
+            this.modelClass = modelClass;
+            this.values = new TemplateModel[modelClass.readMethods.length];
+            Arrays.fill(values, UNREAD);
+        }
+
+        @Override
+        public TemplateModel get(String key) throws TemplateModelException {
+            Integer index = modelClass.indexes.get(key);
+            if (index == null) {
+                return beanModel().get(key);
+            }
+            TemplateModel value = values[index];
+            if (value == UNREAD) {
+                // 并发读取时各线程得到的结果相同，重复赋值无影响
+                value = readProperty(index);
+                values[index] = value;
+            }
+            return value;
+        }
+
+        private TemplateModel readProperty(int index) throws TemplateModelException {
+            Method readMethod = modelClass.readMethods[index];
+            try {
+                return wrapProperty(readMethod.invoke(object));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new TemplateModelException("读取属性失败: " + object.getClass().getName() + "."
+                        + readMethod.getName(), e);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() throws TemplateModelException {
+            return beanModel().isEmpty();
+        }
+
+        @Override
+        public int size() throws TemplateModelException {
+            return beanModel().size();
+        }
+
+        @Override
+        public TemplateCollectionModel keys() throws TemplateModelException {
+            return beanModel().keys();
+        }
+
+        @Override
+        public TemplateCollectionModel values() throws TemplateModelException {
+            return beanModel().values();
+        }
+
+        @Override
+        public Object getAdaptedObject(Class<?> hint) {
+            return object;
+        }
+
+        @Override
+        public Object getWrappedObject() {
+            return object;
+        }
+
+        private TemplateHashModelEx beanModel() throws TemplateModelException {
+            TemplateHashModelEx model = beanModel;
+            if (model == null) {
+                model = (TemplateHashModelEx) ModelObjectWrapper.super.handleUnknownType(object);
+                beanModel = model;
+            }
+            return model;
+        }
+    }
+
+    /**
+     * 预先包装了全部元素的列表模型
+     */
+    private static final class ModelSequence implements TemplateSequenceModel, TemplateCollectionModel,
+            AdapterTemplateModel, WrapperTemplateModel {
+        private final List<?> list;
+        private final List<TemplateModel> items;
+
+        ModelSequence(List<?> list, List<TemplateModel> items) {
+            this.list = list;
+            this.items = items;
+        }
+
+        @Override
+        public TemplateModel get(int index) {
+            return index >= 0 && index < items.size() ? items.get(index) : null;
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public TemplateModelIterator iterator() {
+            Iterator<TemplateModel> iterator = items.iterator();
+            return new TemplateModelIterator() {
+                @Override
+                public TemplateModel next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+            };
+        }
+
+        @Override
+        public Object getAdaptedObject(Class<?> hint) {
+            return list;
+        }
+
+        @Override
+        public Object getWrappedObject() {
+            return list;
+        }
+    }
+
+    /**
+     * 按对象地址比较的键
+     */
+    private static final class IdentityKey {
+        private final Object referent;
+        private final int hash;
+
+        IdentityKey(Object referent) {
+            this.referent = referent;
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof IdentityKey)) {
+                return false;
+            }
+            return referent == ((IdentityKey) other).referent;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.imi4u36d.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * 生成文件的输出目标：文件系统、ZIP/JAR压缩包或内存，实现类需支持多个线程同时写入
+ *
+ * @author wangzhuo
+ */
+public interface OutputSink {
+    String SINK_FILESYSTEM = "filesystem";
+    String SINK_ZIP = "zip";
+    String SINK_MEMORY = "memory";
+
+    /**
+     * 一次准备一批文件所需的目录，不需要目录的输出目标可忽略
+     *
+     * @param fileNames 文件完整路径
+     */
+    void createDirectories(Collection<String> fileNames);
+
+    /**
+     * 文件是否已存在，用于未开启覆写时跳过已有文件
+     */
+    boolean exists(File file);
+
+    /**
+     * 写入文件，已存在时覆盖
+     *
+     * @return 写入的字节数
+     */
+    long write(File file, byte[] bytes) throws IOException;
+
+    /**
+     * 按UTF-8编码写入文件，已存在时覆盖
+     *
+     * @return 写入的字节数
+     */
+    default long write(File file, String content) throws IOException {
+        return write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 全部文件写入后结束输出
+     */
+    void finish();
+
+    /**
+     * 生成失败时结束输出，释放资源并丢弃不完整的结果
+     */
+    void abort();
+
+    /**
+     * 计算文件相对输出根目录的路径
+     */
+    static Path relativize(Path baseDir, File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(baseDir)) {
+            throw new IllegalArgumentException("文件不在输出目录下: " + file);
+        }
+        return baseDir.relativize(path);
+    }
+}
@@ -0,0 +1,75 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.SchemaSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 表结构快照文件读写
+ *
+ * @author wangzhuo
+ */
+public class SnapshotUtils {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotUtils.class);
+
+    /**
+     * 读取快照文件
+     *
+     * @param snapshotFile 快照文件
+     * @return 快照，文件不存在或已失效时返回null
+     */
+    public static SchemaSnapshot load(File snapshotFile) {
+        if (!snapshotFile.isFile()) {
+            logger.info("表结构快照不存在: {}", snapshotFile.getAbsolutePath());
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile.toPath()))))) {
+            SchemaSnapshot snapshot = (SchemaSnapshot) in.readObject();
+            if (snapshot.getVersion() != SchemaSnapshot.FORMAT_VERSION) {
+                logger.info("表结构快照格式版本已变化，将重新扫描: {}", snapshotFile.getAbsolutePath());
+                return null;
+            }
+            return snapshot;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // 模型类变化或文件损坏时旧快照失效，重新扫描即可
+            logger.warn("表结构快照已失效，将重新扫描: {}", snapshotFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 保存快照文件，先写入临时文件再替换，避免中断时留下不完整的快照
+     *
+     * @param snapshotFile 快照文件
+     * @param snapshot     快照
+     */
+    public static void save(File snapshotFile, SchemaSnapshot snapshot) {
+        File parent = snapshotFile.getAbsoluteFile().getParentFile();
+        try {
+            Files.createDirectories(parent.toPath());
+            File tmpFile = File.createTempFile(snapshotFile.getName(), ".tmp", parent);
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()))))) {
+                out.writeObject(snapshot);
+            }
+            Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("表结构快照已保存: {}", snapshotFile.getAbsolutePath());
+        } catch (IOException e) {
+            // 快照只用于加速，保存失败不影响代码生成
+            logger.warn("保存表结构快照失败: {}", snapshotFile.getAbsolutePath(), e);
+        }
+    }
+}
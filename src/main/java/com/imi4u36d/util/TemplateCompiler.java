@@ -0,0 +1,1942 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 将FreeMarker模板编译为Java渲染类：以FreeMarker解析后的规范形式（已完成空白处理）为输入，
+ * 生成直接向StringBuilder追加内容的Java源码，再用JDK自带的编译器在内存中编译加载。
+ * 只支持模板语法的一个子集（if、list、sep、assign、macro、noparse和常用内建函数），
+ * 包含其他语法的模板不编译，继续使用FreeMarker渲染
+ *
+ * @author wangzhuo
+ */
+public class TemplateCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCompiler.class);
+
+    public static final String ENGINE_FREEMARKER = "freemarker";
+    public static final String ENGINE_COMPILED = "compiled";
+
+    private static final String PACKAGE_NAME = "com.imi4u36d.compiled";
+
+    // 单个方法中的节点权重上限，超过时拆分为多个方法，避免超出JIT编译的方法大小
+    private static final int METHOD_WEIGHT_LIMIT = 40;
+
+    // Java字符串常量的最大长度按UTF-8字节计算，按字符数保守拆分
+    private static final int TEXT_CHUNK_SIZE = 8000;
+
+    // 编译缓存版本，生成代码或TemplateRuntime不兼容地变化时递增
+    private static final int CACHE_VERSION = 1;
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * 编译一组模板，包含不支持语法或编译失败的模板不在结果中
+     *
+     * @param templates key为模板名称，value为FreeMarker模板的规范形式（Template.toString()）
+     * @param cacheDir  编译结果缓存目录，源码未变化时直接加载缓存的类，为空时不缓存
+     * @return key为模板名称，value为渲染器
+     */
+    public static Map<String, CompiledTemplate> compile(Map<String, String> templates, File cacheDir) {
+        Map<String, String> classNames = new LinkedHashMap<>();
+        Map<String, String> sources = new LinkedHashMap<>();
+        int index = 0;
+        for (Map.Entry<String, String> entry : templates.entrySet()) {
+            String className = "Template" + (index++) + "_" + entry.getKey().replaceAll("[^A-Za-z0-9]", "_");
+            try {
+                sources.put(className, generateSource(className, entry.getKey(), entry.getValue()));
+                classNames.put(entry.getKey(), className);
+            } catch (IllegalArgumentException e) {
+                logger.info("模板 {} 包含不支持编译的语法，使用FreeMarker渲染: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        if (sources.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // 源码未变化的模板直接使用缓存的类
+        Map<String, byte[]> classBytes = new HashMap<>();
+        Map<String, String> uncached = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            Map<String, byte[]> cached = cacheDir == null ? null : loadCache(cacheFile(cacheDir, entry.getValue()));
+            if (cached != null) {
+                classBytes.putAll(cached);
+            } else {
+                uncached.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!uncached.isEmpty()) {
+            classBytes.putAll(compileSources(uncached));
+            if (cacheDir != null) {
+                uncached.forEach((className, source) -> saveCache(cacheFile(cacheDir, source),
+                        classesOf(classBytes, className)));
+            }
+        }
+
+        ClassLoader classLoader = new MemoryClassLoader(classBytes, TemplateCompiler.class.getClassLoader());
+        Map<String, CompiledTemplate> compiled = new HashMap<>();
+        for (Map.Entry<String, String> entry : classNames.entrySet()) {
+            String className = PACKAGE_NAME + "." + entry.getValue();
+            if (!classBytes.containsKey(className)) {
+                continue;
+            }
+            try {
+                compiled.put(entry.getKey(), (CompiledTemplate) classLoader.loadClass(className)
+                        .getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("加载模板类 {} 失败，使用FreeMarker渲染", className, e);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * 编译源码，批量编译失败时逐个编译并跳过失败的模板
+     *
+     * @param sources key为类名，value为源码
+     * @return key为完整类名，value为字节码
+     */
+    private static Map<String, byte[]> compileSources(Map<String, String> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            logger.warn("当前运行环境没有Java编译器（需要使用JDK运行），模板使用FreeMarker渲染");
+            return Collections.emptyMap();
+        }
+
+        Map<String, byte[]> classBytes = new HashMap<>();
+        try {
+            classBytes.putAll(compileSources(compiler, sources));
+        } catch (IllegalStateException e) {
+            logger.warn("批量编译模板失败，逐个编译: {}", e.getMessage());
+            for (Map.Entry<String, String> entry : sources.entrySet()) {
+                try {
+                    classBytes.putAll(compileSources(compiler, Collections.singletonMap(entry.getKey(),
+                            entry.getValue())));
+                } catch (IllegalStateException ex) {
+                    logger.warn("编译模板类 {} 失败，使用FreeMarker渲染: {}", entry.getKey(), ex.getMessage());
+                }
+            }
+        }
+        return classBytes;
+    }
+
+    /**
+     * 模板类及其内部类的字节码
+     */
+    private static Map<String, byte[]> classesOf(Map<String, byte[]> classBytes, String className) {
+        String name = PACKAGE_NAME + "." + className;
+        Map<String, byte[]> classes = new HashMap<>();
+        classBytes.forEach((key, bytes) -> {
+            if (key.equals(name) || key.startsWith(name + "$")) {
+                classes.put(key, bytes);
+            }
+        });
+        return classes;
+    }
+
+    /**
+     * 缓存文件名为源码、缓存版本和Java版本的哈希，任一变化都会重新编译
+     */
+    private static File cacheFile(File cacheDir, String source) {
+        String version = CACHE_VERSION + ":" + System.getProperty("java.specification.version") + ":"
+                + TemplateCompiler.class.getPackage().getImplementationVersion();
+        return new File(cacheDir, BuildManifest.hash(version + ":" + source) + ".bin");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, byte[]> loadCache(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+            return (Map<String, byte[]>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn("编译模板缓存已失效，将重新编译: {}", cacheFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 保存编译结果，先写入临时文件再替换；缓存只用于加速，保存失败不影响代码生成
+     */
+    private static void saveCache(File cacheFile, Map<String, byte[]> classes) {
+        if (classes.isEmpty()) {
+            return;
+        }
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        try {
+            Files.createDirectories(parent.toPath());
+            File tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", parent);
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+                out.writeObject(new HashMap<>(classes));
+            }
+            Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("保存编译模板缓存失败: {}", cacheFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 生成模板对应的Java源码
+     *
+     * @throws IllegalArgumentException 模板包含不支持的语法
+     */
+    static String generateSource(String className, String templateName, String canonicalForm) {
+        Parser parser = new Parser(canonicalForm);
+        List<Node> root = parser.parseTemplate();
+        return new Generator(className, templateName, parser.macros).generate(root);
+    }
+
+    private static Map<String, byte[]> compileSources(JavaCompiler compiler, Map<String, String> sources) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT,
+                StandardCharsets.UTF_8);
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                    FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+                        kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        outputs.put(className, out);
+                        return out;
+                    }
+                };
+            }
+        };
+
+        List<JavaFileObject> units = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            String source = entry.getValue();
+            units.add(new SimpleJavaFileObject(URI.create("string:///" + PACKAGE_NAME.replace('.', '/') + "/"
+                    + entry.getKey() + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            });
+        }
+
+        List<String> options = Arrays.asList("-classpath", getClassPath(), "-proc:none", "-g:none", "-nowarn");
+        StringWriter compilerOutput = new StringWriter();
+        boolean success;
+        try {
+            success = compiler.getTask(compilerOutput, fileManager, diagnostics, options, null, units).call();
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                logger.debug("关闭编译文件管理器失败", e);
+            }
+        }
+        if (!success) {
+            String error = diagnostics.getDiagnostics().stream()
+                    .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                    .findFirst().orElse(compilerOutput.toString());
+            throw new IllegalStateException(error);
+        }
+
+        Map<String, byte[]> classBytes = new HashMap<>();
+        outputs.forEach((name, out) -> classBytes.put(name, out.toByteArray()));
+        return classBytes;
+    }
+
+    /**
+     * 编译时的类路径，渲染类只依赖本插件中的CompiledTemplate和TemplateRuntime，无法定位时使用当前类路径
+     */
+    private static String getClassPath() {
+        try {
+            return Paths.get(TemplateRuntime.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    .toString();
+        } catch (URISyntaxException | RuntimeException e) {
+            return System.getProperty("java.class.path", "");
+        }
+    }
+
+    private static final class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classBytes;
+
+        MemoryClassLoader(Map<String, byte[]> classBytes, ClassLoader parent) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classBytes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static IllegalArgumentException unsupported(String message) {
+        return new IllegalArgumentException(message);
+    }
+
+    // ------------------------------------------------------------------ 模板节点
+
+    private abstract static class Node {
+        /**
+         * 节点权重，用于拆分方法
+         */
+        abstract int weight();
+    }
+
+    private static final class TextNode extends Node {
+        final StringBuilder text = new StringBuilder();
+
+        @Override
+        int weight() {
+            return 1 + text.length() / 2000;
+        }
+    }
+
+    private static final class InterpolationNode extends Node {
+        final Expr expr;
+
+        InterpolationNode(Expr expr) {
+            this.expr = expr;
+        }
+
+        @Override
+        int weight() {
+            return 1;
+        }
+    }
+
+    private static final class IfNode extends Node {
+        final List<Expr> conditions = new ArrayList<>();
+        final List<List<Node>> bodies = new ArrayList<>();
+        List<Node> elseBody;
+
+        @Override
+        int weight() {
+            int weight = conditions.size() + weightOf(elseBody);
+            for (List<Node> body : bodies) {
+                weight += weightOf(body);
+            }
+            return weight;
+        }
+    }
+
+    private static final class ListNode extends Node {
+        final Expr sequence;
+        final String variable;
+        List<Node> body;
+        List<Node> elseBody;
+
+        ListNode(Expr sequence, String variable) {
+            this.sequence = sequence;
+            this.variable = variable;
+        }
+
+        @Override
+        int weight() {
+            return 2 + weightOf(body) + weightOf(elseBody);
+        }
+    }
+
+    private static final class SepNode extends Node {
+        List<Node> body;
+
+        @Override
+        int weight() {
+            return 1 + weightOf(body);
+        }
+    }
+
+    private static final class AssignNode extends Node {
+        final List<String> names = new ArrayList<>();
+        final List<Expr> values = new ArrayList<>();
+
+        @Override
+        int weight() {
+            return names.size();
+        }
+    }
+
+    private static final class CaptureNode extends Node {
+        final String name;
+        List<Node> body;
+
+        CaptureNode(String name) {
+            this.name = name;
+        }
+
+        @Override
+        int weight() {
+            return 2 + weightOf(body);
+        }
+    }
+
+    private static final class CallNode extends Node {
+        final String macro;
+        final Map<String, Expr> args = new LinkedHashMap<>();
+
+        CallNode(String macro) {
+            this.macro = macro;
+        }
+
+        @Override
+        int weight() {
+            return 1 + args.size();
+        }
+    }
+
+    private static final class MacroDef {
+        final String name;
+        final List<String> params = new ArrayList<>();
+        final List<Expr> defaults = new ArrayList<>();
+        List<Node> body;
+
+        MacroDef(String name) {
+            this.name = name;
+        }
+    }
+
+    private static int weightOf(List<Node> nodes) {
+        int weight = 0;
+        if (nodes != null) {
+            for (Node node : nodes) {
+                weight += node.weight();
+            }
+        }
+        return weight;
+    }
+
+    // ------------------------------------------------------------------ 表达式
+
+    private abstract static class Expr {
+        String source;
+    }
+
+    private static final class Literal extends Expr {
+        final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final class StringTemplate extends Expr {
+        final List<Object> parts = new ArrayList<>();
+    }
+
+    private static final class Variable extends Expr {
+        final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Dot extends Expr {
+        final Expr target;
+        final String name;
+
+        Dot(Expr target, String name) {
+            this.target = target;
+            this.name = name;
+        }
+    }
+
+    private static final class Index extends Expr {
+        final Expr target;
+        final Expr key;
+
+        Index(Expr target, Expr key) {
+            this.target = target;
+            this.key = key;
+        }
+    }
+
+    private static final class BuiltIn extends Expr {
+        final Expr target;
+        final String name;
+        final List<Expr> args = new ArrayList<>();
+
+        BuiltIn(Expr target, String name) {
+            this.target = target;
+            this.name = name;
+        }
+    }
+
+    private static final class Exists extends Expr {
+        final Expr target;
+
+        Exists(Expr target) {
+            this.target = target;
+        }
+    }
+
+    private static final class DefaultTo extends Expr {
+        final Expr target;
+        final Expr defaultValue;
+
+        DefaultTo(Expr target, Expr defaultValue) {
+            this.target = target;
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    private static final class Parenthetical extends Expr {
+        final Expr inner;
+
+        Parenthetical(Expr inner) {
+            this.inner = inner;
+        }
+    }
+
+    private static final class Unary extends Expr {
+        final char op;
+        final Expr operand;
+
+        Unary(char op, Expr operand) {
+            this.op = op;
+            this.operand = operand;
+        }
+    }
+
+    private static final class Binary extends Expr {
+        final String op;
+        final Expr left;
+        final Expr right;
+
+        Binary(String op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private static final class SequenceLiteral extends Expr {
+        final List<Expr> items = new ArrayList<>();
+    }
+
+    // ------------------------------------------------------------------ 解析
+
+    /**
+     * 解析FreeMarker规范形式的模板，规范形式中的空白已按FreeMarker的规则处理，文本原样输出
+     */
+    private static final class Parser {
+        private static final Set<String> OPERATOR_WORDS = new HashSet<>(Arrays.asList(
+                "gt", "lt", "gte", "lte", "as", "in", "using"));
+
+        private final String src;
+        private int pos;
+        private int depth;
+        private boolean inTag;
+        final Map<String, MacroDef> macros = new LinkedHashMap<>();
+
+        Parser(String src) {
+            this.src = src;
+        }
+
+        List<Node> parseTemplate() {
+            List<Node> nodes = parseBlock();
+            if (pos < src.length()) {
+                throw error("意外的结束标签");
+            }
+            return nodes;
+        }
+
+        /**
+         * 解析节点直到结束标签、else或elseif
+         */
+        private List<Node> parseBlock() {
+            List<Node> nodes = new ArrayList<>();
+            TextNode text = null;
+            while (pos < src.length()) {
+                if (src.startsWith("<#--", pos)) {
+                    int end = src.indexOf("-->", pos + 4);
+                    if (end < 0) {
+                        throw error("注释未结束");
+                    }
+                    pos = end + 3;
+                } else if (src.startsWith("</#", pos) || src.startsWith("</@", pos)
+                        || isTag("else") || isTag("elseif")) {
+                    break;
+                } else if (src.startsWith("<#", pos) && pos + 2 < src.length()
+                        && Character.isLetter(src.charAt(pos + 2))) {
+                    text = null;
+                    Node node = parseDirective();
+                    if (node != null) {
+                        nodes.add(node);
+                    }
+                } else if (src.startsWith("<@", pos) && pos + 2 < src.length()
+                        && isIdentifierStart(src.charAt(pos + 2))) {
+                    text = null;
+                    nodes.add(parseCall());
+                } else if (src.startsWith("${", pos)) {
+                    text = null;
+                    pos += 2;
+                    nodes.add(new InterpolationNode(parseInterpolation()));
+                } else if (src.startsWith("#{", pos)) {
+                    throw error("不支持#{}插值");
+                } else {
+                    if (text == null) {
+                        text = new TextNode();
+                        nodes.add(text);
+                    }
+                    text.text.append(src.charAt(pos++));
+                }
+            }
+            return nodes;
+        }
+
+        private boolean isTag(String name) {
+            if (!src.startsWith("<#" + name, pos)) {
+                return false;
+            }
+            int end = pos + 2 + name.length();
+            return end < src.length() && !isIdentifierPart(src.charAt(end));
+        }
+
+        private Node parseDirective() {
+            pos += 2;
+            String name = identifier();
+            switch (name) {
+                case "if":
+                    return parseIf();
+                case "list":
+                    return parseList();
+                case "sep": {
+                    expectTagEnd();
+                    SepNode node = new SepNode();
+                    node.body = parseBlock();
+                    expectClose("sep");
+                    return node;
+                }
+                case "assign":
+                    return parseAssign();
+                case "macro":
+                    parseMacro();
+                    return null;
+                case "noparse": {
+                    expectTagEnd();
+                    int end = src.indexOf("</#noparse>", pos);
+                    if (end < 0) {
+                        throw error("noparse未结束");
+                    }
+                    TextNode node = new TextNode();
+                    node.text.append(src, pos, end);
+                    pos = end + "</#noparse>".length();
+                    return node;
+                }
+                default:
+                    throw error("不支持的指令#" + name);
+            }
+        }
+
+        private IfNode parseIf() {
+            IfNode node = new IfNode();
+            node.conditions.add(parseTagExpression());
+            expectTagEnd();
+            node.bodies.add(parseBlock());
+            while (true) {
+                if (isTag("elseif")) {
+                    pos += "<#elseif".length();
+                    node.conditions.add(parseTagExpression());
+                    expectTagEnd();
+                    node.bodies.add(parseBlock());
+                } else if (isTag("else")) {
+                    pos += "<#else".length();
+                    expectTagEnd();
+                    node.elseBody = parseBlock();
+                    expectClose("if");
+                    return node;
+                } else {
+                    expectClose("if");
+                    return node;
+                }
+            }
+        }
+
+        private ListNode parseList() {
+            Expr sequence = parseTagExpression();
+            skipWhitespace();
+            if (!"as".equals(identifier())) {
+                throw error("list只支持<#list 序列 as 变量>的形式");
+            }
+            skipWhitespace();
+            ListNode node = new ListNode(sequence, identifier());
+            expectTagEnd();
+            node.body = parseBlock();
+            if (isTag("else")) {
+                pos += "<#else".length();
+                expectTagEnd();
+                node.elseBody = parseBlock();
+            }
+            expectClose("list");
+            return node;
+        }
+
+        private Node parseAssign() {
+            skipWhitespace();
+            String name = identifier();
+            skipWhitespace();
+            if (peek() == '>') {
+                pos++;
+                CaptureNode node = new CaptureNode(name);
+                node.body = parseBlock();
+                expectClose("assign");
+                return node;
+            }
+            AssignNode node = new AssignNode();
+            while (true) {
+                if (peek() != '=' || peekAt(1) == '=') {
+                    throw error("assign只支持=赋值");
+                }
+                pos++;
+                node.names.add(name);
+                node.values.add(parseTagExpression());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                    skipWhitespace();
+                }
+                if (peek() == '>') {
+                    pos++;
+                    return node;
+                }
+                name = identifier();
+                skipWhitespace();
+            }
+        }
+
+        private void parseMacro() {
+            skipWhitespace();
+            MacroDef macro = new MacroDef(identifier());
+            while (true) {
+                skipWhitespace();
+                if (peek() == '>') {
+                    pos++;
+                    break;
+                }
+                if (peek() == ',') {
+                    pos++;
+                    continue;
+                }
+                macro.params.add(identifier());
+                skipWhitespace();
+                if (peek() == '=') {
+                    pos++;
+                    macro.defaults.add(parseTagExpression());
+                } else if (src.startsWith("...", pos)) {
+                    throw error("不支持可变参数宏");
+                } else {
+                    macro.defaults.add(null);
+                }
+            }
+            macro.body = parseBlock();
+            expectClose("macro");
+            if (macros.put(macro.name, macro) != null) {
+                throw error("宏" + macro.name + "重复定义");
+            }
+        }
+
+        private CallNode parseCall() {
+            pos += 2;
+            CallNode node = new CallNode(identifier());
+            while (true) {
+                skipWhitespace();
+                if (src.startsWith("/>", pos)) {
+                    pos += 2;
+                    return node;
+                }
+                if (peek() == '>') {
+                    throw error("不支持带嵌套内容的宏调用");
+                }
+                String name = identifier();
+                skipWhitespace();
+                if (peek() != '=') {
+                    throw error("宏调用只支持命名参数");
+                }
+                pos++;
+                node.args.put(name, parseTagExpression());
+            }
+        }
+
+        private void expectTagEnd() {
+            skipWhitespace();
+            if (peek() != '>') {
+                throw error("标签未结束");
+            }
+            pos++;
+        }
+
+        private void expectClose(String name) {
+            String close = "</#" + name + ">";
+            if (!src.startsWith(close, pos)) {
+                throw error("缺少" + close);
+            }
+            pos += close.length();
+        }
+
+        private Expr parseTagExpression() {
+            boolean saved = inTag;
+            inTag = true;
+            try {
+                return parseExpression();
+            } finally {
+                inTag = saved;
+            }
+        }
+
+        private Expr parseInterpolation() {
+            boolean saved = inTag;
+            int savedDepth = depth;
+            inTag = false;
+            depth = 0;
+            try {
+                Expr expr = parseExpression();
+                skipWhitespace();
+                if (peek() != '}') {
+                    throw error("插值未结束");
+                }
+                pos++;
+                return expr;
+            } finally {
+                inTag = saved;
+                depth = savedDepth;
+            }
+        }
+
+        private Expr parseExpression() {
+            skipWhitespace();
+            return parseOr();
+        }
+
+        private Expr parseOr() {
+            int start = pos;
+            Expr left = parseAnd();
+            while (true) {
+                skipWhitespace();
+                if (src.startsWith("||", pos)) {
+                    pos += 2;
+                } else if (peek() == '|') {
+                    pos++;
+                } else {
+                    return left;
+                }
+                left = finish(new Binary("||", left, parseAnd()), start);
+            }
+        }
+
+        private Expr parseAnd() {
+            int start = pos;
+            Expr left = parseEquality();
+            while (true) {
+                skipWhitespace();
+                if (src.startsWith("&&", pos)) {
+                    pos += 2;
+                } else if (src.startsWith("&amp;&amp;", pos)) {
+                    pos += "&amp;&amp;".length();
+                } else if (peek() == '&' && !src.startsWith("&lt;", pos) && !src.startsWith("&gt;", pos)) {
+                    pos++;
+                } else {
+                    return left;
+                }
+                left = finish(new Binary("&&", left, parseEquality()), start);
+            }
+        }
+
+        private Expr parseEquality() {
+            int start = pos;
+            Expr left = parseRelational();
+            skipWhitespace();
+            String op;
+            if (src.startsWith("==", pos)) {
+                op = "==";
+                pos += 2;
+            } else if (src.startsWith("!=", pos)) {
+                op = "!=";
+                pos += 2;
+            } else if (peek() == '=') {
+                op = "==";
+                pos++;
+            } else {
+                return left;
+            }
+            return finish(new Binary(op, left, parseRelational()), start);
+        }
+
+        private Expr parseRelational() {
+            int start = pos;
+            Expr left = parseAdditive();
+            skipWhitespace();
+            String op = null;
+            for (String word : new String[]{"gte", "gt", "lte", "lt"}) {
+                if (src.startsWith(word, pos) && !isIdentifierPart(peekAt(word.length()))) {
+                    op = word;
+                    pos += word.length();
+                    break;
+                }
+            }
+            if (op == null) {
+                String[][] symbols = {{"&lt;=", "lte"}, {"&lt;", "lt"}, {"&gt;=", "gte"}, {"&gt;", "gt"},
+                        {"<=", "lte"}, {"<", "lt"}, {">=", "gte"}, {">", "gt"}};
+                for (String[] symbol : symbols) {
+                    boolean closesTag = symbol[0].startsWith(">") && inTag && depth == 0;
+                    if (src.startsWith(symbol[0], pos) && !closesTag) {
+                        op = symbol[1];
+                        pos += symbol[0].length();
+                        break;
+                    }
+                }
+            }
+            if (op == null) {
+                return left;
+            }
+            return finish(new Binary(op, left, parseAdditive()), start);
+        }
+
+        private Expr parseAdditive() {
+            int start = pos;
+            Expr left = parseMultiplicative();
+            while (true) {
+                skipWhitespace();
+                char c = peek();
+                if ((c != '+' && c != '-') || src.startsWith("->", pos)) {
+                    return left;
+                }
+                pos++;
+                left = finish(new Binary(String.valueOf(c), left, parseMultiplicative()), start);
+            }
+        }
+
+        private Expr parseMultiplicative() {
+            int start = pos;
+            Expr left = parseUnary();
+            while (true) {
+                skipWhitespace();
+                char c = peek();
+                if ((c != '*' && c != '/' && c != '%') || src.startsWith("/>", pos)) {
+                    return left;
+                }
+                pos++;
+                left = finish(new Binary(String.valueOf(c), left, parseUnary()), start);
+            }
+        }
+
+        private Expr parseUnary() {
+            skipWhitespace();
+            int start = pos;
+            char c = peek();
+            if (c == '!' && peekAt(1) != '=') {
+                pos++;
+                return finish(new Unary('!', parseUnary()), start);
+            }
+            if (c == '-' || c == '+') {
+                pos++;
+                Expr operand = parseUnary();
+                return c == '+' ? operand : finish(new Unary('-', operand), start);
+            }
+            return parsePostfix();
+        }
+
+        private Expr parsePostfix() {
+            int start = pos;
+            Expr expr = parsePrimary();
+            while (true) {
+                char c = peek();
+                if (c == '.') {
+                    if (peekAt(1) == '.') {
+                        throw error("不支持区间表达式");
+                    }
+                    pos++;
+                    expr = finish(new Dot(expr, identifier()), start);
+                } else if (c == '[') {
+                    pos++;
+                    depth++;
+                    Expr key = parseExpression();
+                    skipWhitespace();
+                    expect(']');
+                    depth--;
+                    expr = finish(new Index(expr, key), start);
+                } else if (c == '?' && peekAt(1) == '?') {
+                    pos += 2;
+                    expr = finish(new Exists(expr), start);
+                } else if (c == '?') {
+                    pos++;
+                    BuiltIn builtIn = new BuiltIn(expr, identifier());
+                    if (peek() == '(') {
+                        pos++;
+                        depth++;
+                        skipWhitespace();
+                        while (peek() != ')') {
+                            builtIn.args.add(parseExpression());
+                            skipWhitespace();
+                            if (peek() == ',') {
+                                pos++;
+                            } else if (peek() != ')') {
+                                throw error("内建函数参数未结束");
+                            }
+                        }
+                        pos++;
+                        depth--;
+                    }
+                    expr = finish(builtIn, start);
+                } else if (c == '(') {
+                    throw error("不支持方法调用");
+                } else if (c == '!' && peekAt(1) != '=') {
+                    // 默认值运算符右侧是完整的表达式，右侧缺省时为空值
+                    pos++;
+                    int saved = pos;
+                    skipWhitespace();
+                    Expr defaultValue = canStartExpression() ? parseOr() : null;
+                    if (defaultValue == null) {
+                        pos = saved;
+                    }
+                    return finish(new DefaultTo(expr, defaultValue), start);
+                } else {
+                    return expr;
+                }
+            }
+        }
+
+        private boolean canStartExpression() {
+            char c = peek();
+            if (c == '"' || c == '\'' || c == '(' || c == '[' || c == '-' || c == '+'
+                    || Character.isDigit(c) || (c == '!' && peekAt(1) != '=')) {
+                return true;
+            }
+            if (isIdentifierStart(c)) {
+                int end = pos;
+                while (end < src.length() && isIdentifierPart(src.charAt(end))) {
+                    end++;
+                }
+                return !OPERATOR_WORDS.contains(src.substring(pos, end));
+            }
+            return false;
+        }
+
+        private Expr parsePrimary() {
+            skipWhitespace();
+            int start = pos;
+            char c = peek();
+            if (c == '"' || c == '\'') {
+                return finish(parseString(false), start);
+            }
+            if (c == 'r' && (peekAt(1) == '"' || peekAt(1) == '\'')) {
+                pos++;
+                return finish(parseString(true), start);
+            }
+            if (Character.isDigit(c)) {
+                return finish(parseNumber(), start);
+            }
+            if (c == '(') {
+                pos++;
+                depth++;
+                Expr inner = parseExpression();
+                skipWhitespace();
+                expect(')');
+                depth--;
+                return finish(new Parenthetical(inner), start);
+            }
+            if (c == '[') {
+                pos++;
+                depth++;
+                SequenceLiteral sequence = new SequenceLiteral();
+                skipWhitespace();
+                while (peek() != ']') {
+                    sequence.items.add(parseExpression());
+                    skipWhitespace();
+                    if (peek() == ',') {
+                        pos++;
+                        skipWhitespace();
+                    } else if (peek() != ']') {
+                        throw error("序列未结束");
+                    }
+                }
+                pos++;
+                depth--;
+                return finish(sequence, start);
+            }
+            if (isIdentifierStart(c)) {
+                String name = identifier();
+                if ("true".equals(name) || "false".equals(name)) {
+                    return finish(new Literal(Boolean.valueOf(name)), start);
+                }
+                if (OPERATOR_WORDS.contains(name)) {
+                    throw error("意外的关键字" + name);
+                }
+                return finish(new Variable(name), start);
+            }
+            throw error("不支持的表达式");
+        }
+
+        private Expr parseString(boolean raw) {
+            char quote = src.charAt(pos++);
+            StringTemplate template = new StringTemplate();
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                if (pos >= src.length()) {
+                    throw error("字符串未结束");
+                }
+                char c = src.charAt(pos);
+                if (c == quote) {
+                    pos++;
+                    break;
+                }
+                if (raw) {
+                    text.append(c);
+                    pos++;
+                } else if (c == '\\') {
+                    text.append(unescape(pos + 1 < src.length() ? src.charAt(pos + 1) : ' '));
+                    pos += 2;
+                } else if (src.startsWith("${", pos)) {
+                    if (text.length() > 0) {
+                        template.parts.add(text.toString());
+                        text.setLength(0);
+                    }
+                    pos += 2;
+                    template.parts.add(parseInterpolation());
+                } else if (src.startsWith("#{", pos)) {
+                    throw error("不支持#{}插值");
+                } else {
+                    text.append(c);
+                    pos++;
+                }
+            }
+            if (template.parts.isEmpty()) {
+                return new Literal(text.toString());
+            }
+            if (text.length() > 0) {
+                template.parts.add(text.toString());
+            }
+            return template;
+        }
+
+        private char unescape(char c) {
+            switch (c) {
+                case '"':
+                case '\'':
+                case '\\':
+                case '{':
+                case '=':
+                    return c;
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'l':
+                    return '<';
+                case 'g':
+                    return '>';
+                case 'a':
+                    return '&';
+                default:
+                    throw error("不支持的转义字符\\" + c);
+            }
+        }
+
+        private Expr parseNumber() {
+            int start = pos;
+            while (Character.isDigit(peek())) {
+                pos++;
+            }
+            if (peek() == '.' && Character.isDigit(peekAt(1))) {
+                pos++;
+                while (Character.isDigit(peek())) {
+                    pos++;
+                }
+                return new Literal(new BigDecimal(src.substring(start, pos)));
+            }
+            String digits = src.substring(start, pos);
+            if (digits.length() > 18) {
+                throw error("数字超出范围");
+            }
+            long value = Long.parseLong(digits);
+            return new Literal(value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value);
+        }
+
+        private <T extends Expr> T finish(T expr, int start) {
+            expr.source = src.substring(start, pos).trim();
+            return expr;
+        }
+
+        private String identifier() {
+            int start = pos;
+            if (pos >= src.length() || !isIdentifierStart(src.charAt(pos))) {
+                throw error("缺少名称");
+            }
+            while (pos < src.length() && isIdentifierPart(src.charAt(pos))) {
+                pos++;
+            }
+            if (pos < src.length() && src.charAt(pos) == '\\') {
+                throw error("不支持含转义字符的名称");
+            }
+            return src.substring(start, pos);
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("缺少" + c);
+            }
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return peekAt(0);
+        }
+
+        private char peekAt(int offset) {
+            return pos + offset < src.length() ? src.charAt(pos + offset) : '\0';
+        }
+
+        private IllegalArgumentException error(String message) {
+            int line = 1;
+            for (int i = 0; i < pos && i < src.length(); i++) {
+                if (src.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return unsupported(message + "（规范形式第" + line + "行）");
+        }
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    // ------------------------------------------------------------------ 代码生成
+
+    private enum Type {
+        OBJECT, BOOLEAN, STRING
+    }
+
+    private static final class Code {
+        final String java;
+        final Type type;
+
+        Code(String java, Type type) {
+            this.java = java;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 作用域中的局部变量：循环变量或宏参数
+     */
+    private static final class Scope {
+        final Scope parent;
+        final String name;
+        final String valueVar;
+        final String indexVar;
+        final String hasNextVar;
+
+        Scope(Scope parent, String name, String valueVar, String indexVar, String hasNextVar) {
+            this.parent = parent;
+            this.name = name;
+            this.valueVar = valueVar;
+            this.indexVar = indexVar;
+            this.hasNextVar = hasNextVar;
+        }
+
+        Scope find(String variable) {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (scope.name.equals(variable)) {
+                    return scope;
+                }
+            }
+            return null;
+        }
+
+        Scope innermostLoop() {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (scope.indexVar != null) {
+                    return scope;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Generator {
+        private final String className;
+        private final String templateName;
+        private final Map<String, MacroDef> macros;
+        private final Set<String> assignedNames = new HashSet<>();
+        private final StringBuilder constants = new StringBuilder();
+        private final StringBuilder methods = new StringBuilder();
+        private final Map<String, String> constantNames = new HashMap<>();
+        private int counter;
+
+        Generator(String className, String templateName, Map<String, MacroDef> macros) {
+            this.className = className;
+            this.templateName = templateName;
+            this.macros = macros;
+        }
+
+        String generate(List<Node> root) {
+            collectAssignedNames(root);
+            for (MacroDef macro : macros.values()) {
+                collectAssignedNames(macro.body);
+            }
+
+            StringBuilder rootMethod = new StringBuilder();
+            rootMethod.append("        void render(StringBuilder out) {\n");
+            rootMethod.append(block(root, null, "out", 3));
+            rootMethod.append("        }\n");
+            for (MacroDef macro : macros.values()) {
+                generateMacro(macro);
+            }
+
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+            source.append("import com.imi4u36d.util.CompiledTemplate;\n");
+            source.append("import com.imi4u36d.util.TemplateRuntime;\n\n");
+            source.append("/** ").append(templateName.replace("*/", "* /")).append(" */\n");
+            source.append("public final class ").append(className).append(" implements CompiledTemplate {\n");
+            source.append(constants);
+            source.append("\n    @Override\n");
+            source.append("    public void render(Object model, StringBuilder out) {\n");
+            source.append("        new Frame(model).render(out);\n");
+            source.append("    }\n\n");
+            source.append("    private static final class Frame {\n");
+            source.append("        private final Object model;\n");
+            for (String name : assignedNames) {
+                source.append("        private Object ").append(field(name)).append(";\n");
+            }
+            source.append("\n        Frame(Object model) {\n");
+            source.append("            this.model = model;\n");
+            source.append("        }\n\n");
+            source.append(rootMethod);
+            source.append(methods);
+            source.append("    }\n");
+            source.append("}\n");
+            return source.toString();
+        }
+
+        private void collectAssignedNames(List<Node> nodes) {
+            if (nodes == null) {
+                return;
+            }
+            for (Node node : nodes) {
+                if (node instanceof AssignNode) {
+                    for (String name : ((AssignNode) node).names) {
+                        assignedNames.add(checkName(name));
+                    }
+                } else if (node instanceof CaptureNode) {
+                    assignedNames.add(checkName(((CaptureNode) node).name));
+                    collectAssignedNames(((CaptureNode) node).body);
+                } else if (node instanceof IfNode) {
+                    for (List<Node> body : ((IfNode) node).bodies) {
+                        collectAssignedNames(body);
+                    }
+                    collectAssignedNames(((IfNode) node).elseBody);
+                } else if (node instanceof ListNode) {
+                    collectAssignedNames(((ListNode) node).body);
+                    collectAssignedNames(((ListNode) node).elseBody);
+                } else if (node instanceof SepNode) {
+                    collectAssignedNames(((SepNode) node).body);
+                }
+            }
+        }
+
+        private static String checkName(String name) {
+            for (char c : name.toCharArray()) {
+                if (!isIdentifierPart(c)) {
+                    throw unsupported("不支持的变量名" + name);
+                }
+            }
+            return name;
+        }
+
+        private static String field(String name) {
+            return "f_" + name;
+        }
+
+        private void generateMacro(MacroDef macro) {
+            StringBuilder method = new StringBuilder();
+            method.append("\n        void m_").append(checkName(macro.name)).append("(StringBuilder out");
+            for (String param : macro.params) {
+                method.append(", Object a_").append(checkName(param));
+            }
+            method.append(") {\n");
+            Scope scope = null;
+            for (int i = 0; i < macro.params.size(); i++) {
+                String param = macro.params.get(i);
+                Expr defaultValue = macro.defaults.get(i);
+                String value = defaultValue == null
+                        ? "TemplateRuntime.defined(null, " + literal("宏" + macro.name + "的参数" + param) + ")"
+                        : object(expression(defaultValue, scope));
+                String local = "p" + (counter++) + "_" + param;
+                method.append("            final Object ").append(local).append(" = a_").append(param)
+                        .append(" != null ? a_").append(param).append(" : ").append(value).append(";\n");
+                scope = new Scope(scope, param, local, null, null);
+            }
+            method.append(block(macro.body, scope, "out", 3));
+            method.append("        }\n");
+            methods.append(method);
+        }
+
+        /**
+         * 生成节点列表的代码，权重超过上限时拆分到单独的方法中
+         */
+        private String block(List<Node> nodes, Scope scope, String out, int indent) {
+            if (nodes == null || nodes.isEmpty()) {
+                return "";
+            }
+            if (weightOf(nodes) <= METHOD_WEIGHT_LIMIT) {
+                StringBuilder code = new StringBuilder();
+                for (Node node : nodes) {
+                    statement(code, node, scope, out, indent);
+                }
+                return code.toString();
+            }
+            // 按权重分组，每组生成一个方法
+            StringBuilder calls = new StringBuilder();
+            List<Node> group = new ArrayList<>();
+            int groupWeight = 0;
+            for (Node node : nodes) {
+                if (!group.isEmpty() && groupWeight + node.weight() > METHOD_WEIGHT_LIMIT) {
+                    calls.append(extract(group, scope, out, indent));
+                    group = new ArrayList<>();
+                    groupWeight = 0;
+                }
+                group.add(node);
+                groupWeight += node.weight();
+            }
+            calls.append(extract(group, scope, out, indent));
+            return calls.toString();
+        }
+
+        private String extract(List<Node> nodes, Scope scope, String out, int indent) {
+            String methodName = "b" + (counter++);
+            StringBuilder params = new StringBuilder("StringBuilder out");
+            StringBuilder args = new StringBuilder(out);
+            for (Scope s = scope; s != null; s = s.parent) {
+                params.append(", final Object ").append(s.valueVar);
+                args.append(", ").append(s.valueVar);
+                if (s.indexVar != null) {
+                    params.append(", final int ").append(s.indexVar).append(", final boolean ").append(s.hasNextVar);
+                    args.append(", ").append(s.indexVar).append(", ").append(s.hasNextVar);
+                }
+            }
+            StringBuilder body = new StringBuilder();
+            for (Node node : nodes) {
+                statement(body, node, scope, "out", 3);
+            }
+            methods.append("\n        private void ").append(methodName).append("(").append(params).append(") {\n")
+                    .append(body).append("        }\n");
+            return indent(indent) + methodName + "(" + args + ");\n";
+        }
+
+        private void statement(StringBuilder code, Node node, Scope scope, String out, int indent) {
+            String pad = indent(indent);
+            if (node instanceof TextNode) {
+                String text = ((TextNode) node).text.toString();
+                for (int i = 0; i < text.length(); i += TEXT_CHUNK_SIZE) {
+                    code.append(pad).append(out).append(".append(")
+                            .append(literal(text.substring(i, Math.min(text.length(), i + TEXT_CHUNK_SIZE))))
+                            .append(");\n");
+                }
+            } else if (node instanceof InterpolationNode) {
+                Expr expr = ((InterpolationNode) node).expr;
+                Code value = expression(expr, scope);
+                if (value.type == Type.STRING) {
+                    code.append(pad).append(out).append(".append(").append(value.java).append(");\n");
+                } else {
+                    code.append(pad).append("TemplateRuntime.append(").append(out).append(", ").append(object(value))
+                            .append(", ").append(literal(expr.source)).append(");\n");
+                }
+            } else if (node instanceof IfNode) {
+                IfNode ifNode = (IfNode) node;
+                for (int i = 0; i < ifNode.conditions.size(); i++) {
+                    code.append(i == 0 ? pad + "if (" : " else if (")
+                            .append(bool(ifNode.conditions.get(i), scope)).append(") {\n")
+                            .append(block(ifNode.bodies.get(i), scope, out, indent + 1))
+                            .append(pad).append("}");
+                }
+                if (ifNode.elseBody != null && !ifNode.elseBody.isEmpty()) {
+                    code.append(" else {\n").append(block(ifNode.elseBody, scope, out, indent + 1))
+                            .append(pad).append("}");
+                }
+                code.append("\n");
+            } else if (node instanceof ListNode) {
+                listStatement(code, (ListNode) node, scope, out, indent);
+            } else if (node instanceof SepNode) {
+                Scope loop = scope == null ? null : scope.innermostLoop();
+                if (loop == null) {
+                    throw unsupported("sep不在list中");
+                }
+                code.append(pad).append("if (").append(loop.hasNextVar).append(") {\n")
+                        .append(block(((SepNode) node).body, scope, out, indent + 1))
+                        .append(pad).append("}\n");
+            } else if (node instanceof AssignNode) {
+                AssignNode assign = (AssignNode) node;
+                for (int i = 0; i < assign.names.size(); i++) {
+                    Expr value = assign.values.get(i);
+                    code.append(pad).append(field(assign.names.get(i))).append(" = TemplateRuntime.defined(")
+                            .append(object(expression(value, scope))).append(", ").append(literal(value.source))
+                            .append(");\n");
+                }
+            } else if (node instanceof CaptureNode) {
+                CaptureNode capture = (CaptureNode) node;
+                String buffer = "o" + (counter++);
+                code.append(pad).append("{\n")
+                        .append(pad).append("    StringBuilder ").append(buffer).append(" = new StringBuilder();\n")
+                        .append(block(capture.body, scope, buffer, indent + 1))
+                        .append(pad).append("    ").append(field(capture.name)).append(" = ").append(buffer)
+                        .append(".toString();\n")
+                        .append(pad).append("}\n");
+            } else if (node instanceof CallNode) {
+                CallNode call = (CallNode) node;
+                MacroDef macro = macros.get(call.macro);
+                if (macro == null) {
+                    throw unsupported("宏" + call.macro + "未在模板中定义");
+                }
+                for (String arg : call.args.keySet()) {
+                    if (!macro.params.contains(arg)) {
+                        throw unsupported("宏" + call.macro + "没有参数" + arg);
+                    }
+                }
+                code.append(pad).append("m_").append(macro.name).append("(").append(out);
+                for (String param : macro.params) {
+                    Expr arg = call.args.get(param);
+                    code.append(", ").append(arg == null ? "null" : object(expression(arg, scope)));
+                }
+                code.append(");\n");
+            } else {
+                throw unsupported("不支持的节点");
+            }
+        }
+
+        private void listStatement(StringBuilder code, ListNode list, Scope scope, String out, int indent) {
+            String pad = indent(indent);
+            int id = counter++;
+            String items = "l" + id;
+            String size = "n" + id;
+            String index = "i" + id;
+            Scope loop = new Scope(scope, checkName(list.variable), "v" + id, "x" + id, "h" + id);
+            code.append(pad).append("{\n");
+            code.append(pad).append("    final java.util.List<?> ").append(items).append(" = TemplateRuntime.list(")
+                    .append(object(expression(list.sequence, scope))).append(", ")
+                    .append(literal(list.sequence.source)).append(");\n");
+            code.append(pad).append("    final int ").append(size).append(" = ").append(items).append(".size();\n");
+            if (list.elseBody != null && !list.elseBody.isEmpty()) {
+                code.append(pad).append("    if (").append(size).append(" == 0) {\n")
+                        .append(block(list.elseBody, scope, out, indent + 2))
+                        .append(pad).append("    }\n");
+            }
+            code.append(pad).append("    for (int ").append(index).append(" = 0; ").append(index).append(" < ")
+                    .append(size).append("; ").append(index).append("++) {\n");
+            code.append(pad).append("        final Object ").append(loop.valueVar).append(" = ").append(items)
+                    .append(".get(").append(index).append(");\n");
+            code.append(pad).append("        final int ").append(loop.indexVar).append(" = ").append(index)
+                    .append(";\n");
+            code.append(pad).append("        final boolean ").append(loop.hasNextVar).append(" = ").append(index)
+                    .append(" + 1 < ").append(size).append(";\n");
+            code.append(block(list.body, loop, out, indent + 2));
+            code.append(pad).append("    }\n");
+            code.append(pad).append("}\n");
+        }
+
+        // ---------------------------------------------------------- 表达式代码
+
+        private Code expression(Expr expr, Scope scope) {
+            if (expr instanceof Literal) {
+                Object value = ((Literal) expr).value;
+                if (value instanceof String) {
+                    return new Code(literal((String) value), Type.STRING);
+                }
+                if (value instanceof Boolean) {
+                    return new Code(value.toString(), Type.BOOLEAN);
+                }
+                return new Code(constant(value), Type.OBJECT);
+            }
+            if (expr instanceof StringTemplate) {
+                StringBuilder java = new StringBuilder("(\"\"");
+                for (Object part : ((StringTemplate) expr).parts) {
+                    java.append(" + ");
+                    java.append(part instanceof String ? literal((String) part) : string((Expr) part, scope));
+                }
+                return new Code(java.append(")").toString(), Type.STRING);
+            }
+            if (expr instanceof Variable) {
+                return variable((Variable) expr, scope);
+            }
+            if (expr instanceof Dot) {
+                Dot dot = (Dot) expr;
+                return new Code(property(dot.name, dot.source) + ".get(" + object(expression(dot.target, scope)) + ")",
+                        Type.OBJECT);
+            }
+            if (expr instanceof Index) {
+                Index index = (Index) expr;
+                return new Code("TemplateRuntime.index(" + object(expression(index.target, scope)) + ", "
+                        + object(expression(index.key, scope)) + ", " + literal(expr.source) + ")", Type.OBJECT);
+            }
+            if (expr instanceof Parenthetical) {
+                Code inner = expression(((Parenthetical) expr).inner, scope);
+                return new Code("(" + inner.java + ")", inner.type);
+            }
+            if (expr instanceof Exists) {
+                return new Code("(" + existence(((Exists) expr).target, scope) + " != null)", Type.BOOLEAN);
+            }
+            if (expr instanceof DefaultTo) {
+                DefaultTo defaultTo = (DefaultTo) expr;
+                String value = existence(defaultTo.target, scope);
+                if (defaultTo.defaultValue == null) {
+                    // 缺省的默认值是空值，按空字符串处理，作为序列或哈希使用时会报错并退回FreeMarker
+                    return new Code("TemplateRuntime.or(" + value + ", (Object) \"\")", Type.OBJECT);
+                }
+                Code defaultValue = expression(defaultTo.defaultValue, scope);
+                if (defaultTo.defaultValue instanceof Literal) {
+                    return new Code("TemplateRuntime.or(" + value + ", (Object) " + object(defaultValue) + ")",
+                            Type.OBJECT);
+                }
+                return new Code("TemplateRuntime.or(" + value + ", () -> " + object(defaultValue) + ")",
+                        Type.OBJECT);
+            }
+            if (expr instanceof Unary) {
+                Unary unary = (Unary) expr;
+                if (unary.op == '!') {
+                    return new Code("!" + bool(unary.operand, scope), Type.BOOLEAN);
+                }
+                return new Code("TemplateRuntime.negate(" + object(expression(unary.operand, scope)) + ", "
+                        + literal(expr.source) + ")", Type.OBJECT);
+            }
+            if (expr instanceof Binary) {
+                return binary((Binary) expr, scope);
+            }
+            if (expr instanceof SequenceLiteral) {
+                List<Expr> items = ((SequenceLiteral) expr).items;
+                if (items.isEmpty()) {
+                    return new Code("java.util.Collections.emptyList()", Type.OBJECT);
+                }
+                StringBuilder java = new StringBuilder("TemplateRuntime.seq(").append(literal(expr.source));
+                for (Expr item : items) {
+                    java.append(", ").append(object(expression(item, scope)));
+                }
+                return new Code(java.append(")").toString(), Type.OBJECT);
+            }
+            if (expr instanceof BuiltIn) {
+                return builtIn((BuiltIn) expr, scope);
+            }
+            throw unsupported("不支持的表达式" + expr.source);
+        }
+
+        private Code variable(Variable variable, Scope scope) {
+            String name = variable.name;
+            Scope local = scope == null ? null : scope.find(name);
+            if (local != null) {
+                return new Code(local.valueVar, Type.OBJECT);
+            }
+            // 旧式的循环变量后缀：x_index、x_has_next
+            if (scope != null && name.endsWith("_index")) {
+                Scope loop = scope.find(name.substring(0, name.length() - "_index".length()));
+                if (loop != null && loop.indexVar != null) {
+                    return new Code("Integer.valueOf(" + loop.indexVar + ")", Type.OBJECT);
+                }
+            }
+            if (scope != null && name.endsWith("_has_next")) {
+                Scope loop = scope.find(name.substring(0, name.length() - "_has_next".length()));
+                if (loop != null && loop.indexVar != null) {
+                    return new Code(loop.hasNextVar, Type.BOOLEAN);
+                }
+            }
+            checkName(name);
+            String lookup = property(name, name) + ".get(model)";
+            if (assignedNames.contains(name)) {
+                return new Code("(" + field(name) + " != null ? " + field(name) + " : " + lookup + ")", Type.OBJECT);
+            }
+            return new Code(lookup, Type.OBJECT);
+        }
+
+        private Code binary(Binary binary, Scope scope) {
+            String source = literal(binary.source);
+            switch (binary.op) {
+                case "&&":
+                case "||":
+                    return new Code("(" + bool(binary.left, scope) + " " + binary.op + " " + bool(binary.right, scope)
+                            + ")", Type.BOOLEAN);
+                case "==":
+                case "!=":
+                    return new Code((binary.op.equals("!=") ? "!" : "") + "TemplateRuntime.eq("
+                            + object(expression(binary.left, scope)) + ", " + object(expression(binary.right, scope))
+                            + ", " + source + ")", Type.BOOLEAN);
+                case "gt":
+                case "lt":
+                case "gte":
+                case "lte": {
+                    String op = binary.op.startsWith("g") ? ">" : "<";
+                    if (binary.op.endsWith("e")) {
+                        op += "=";
+                    }
+                    return new Code("(TemplateRuntime.compare(" + object(expression(binary.left, scope)) + ", "
+                            + object(expression(binary.right, scope)) + ", " + source + ") " + op + " 0)",
+                            Type.BOOLEAN);
+                }
+                case "+": {
+                    Code left = expression(binary.left, scope);
+                    Code right = expression(binary.right, scope);
+                    if (left.type == Type.STRING || right.type == Type.STRING) {
+                        return new Code("(" + string(left, binary.left) + " + " + string(right, binary.right) + ")",
+                                Type.STRING);
+                    }
+                    return new Code("TemplateRuntime.plus(" + object(left) + ", " + object(right) + ", " + source
+                            + ")", Type.OBJECT);
+                }
+                case "-":
+                    return new Code("TemplateRuntime.minus(" + object(expression(binary.left, scope)) + ", "
+                            + object(expression(binary.right, scope)) + ", " + source + ")", Type.OBJECT);
+                case "*":
+                    return new Code("TemplateRuntime.times(" + object(expression(binary.left, scope)) + ", "
+                            + object(expression(binary.right, scope)) + ", " + source + ")", Type.OBJECT);
+                default:
+                    throw unsupported("不支持的运算符" + binary.op);
+            }
+        }
+
+        private Code builtIn(BuiltIn builtIn, Scope scope) {
+            String source = literal(builtIn.source);
+            List<Expr> args = builtIn.args;
+            // 循环变量的内建函数
+            if (builtIn.target instanceof Variable && scope != null) {
+                Scope loop = scope.find(((Variable) builtIn.target).name);
+                if (loop != null && loop.indexVar != null) {
+                    switch (builtIn.name) {
+                        case "index":
+                            return new Code("Integer.valueOf(" + loop.indexVar + ")", Type.OBJECT);
+                        case "counter":
+                            return new Code("Integer.valueOf(" + loop.indexVar + " + 1)", Type.OBJECT);
+                        case "has_next":
+                            return new Code(loop.hasNextVar, Type.BOOLEAN);
+                        case "is_first":
+                            return new Code("(" + loop.indexVar + " == 0)", Type.BOOLEAN);
+                        case "is_last":
+                            return new Code("!" + loop.hasNextVar, Type.BOOLEAN);
+                        default:
+                            break;
+                    }
+                }
+            }
+            switch (builtIn.name + "/" + args.size()) {
+                case "has_content/0":
+                    return new Code("TemplateRuntime.hasContent(" + existence(builtIn.target, scope) + ")",
+                            Type.BOOLEAN);
+                case "c/0":
+                    return new Code("TemplateRuntime.c(" + object(expression(builtIn.target, scope)) + ", " + source
+                            + ")", Type.STRING);
+                case "cap_first/0":
+                    return new Code("TemplateRuntime.capFirst(" + string(builtIn.target, scope) + ")", Type.STRING);
+                case "uncap_first/0":
+                    return new Code("TemplateRuntime.uncapFirst(" + string(builtIn.target, scope) + ")", Type.STRING);
+                case "upper_case/0":
+                    return new Code("TemplateRuntime.upperCase(" + string(builtIn.target, scope) + ")", Type.STRING);
+                case "lower_case/0":
+                    return new Code("TemplateRuntime.lowerCase(" + string(builtIn.target, scope) + ")", Type.STRING);
+                case "xml/0":
+                    return new Code("TemplateRuntime.xml(" + string(builtIn.target, scope) + ")", Type.STRING);
+                case "trim/0":
+                    return new Code(string(builtIn.target, scope) + ".trim()", Type.STRING);
+                case "length/0":
+                    return new Code("Integer.valueOf(" + string(builtIn.target, scope) + ".length())", Type.OBJECT);
+                case "size/0":
+                    return new Code("TemplateRuntime.size(" + object(expression(builtIn.target, scope)) + ", "
+                            + source + ")", Type.OBJECT);
+                case "seq_contains/1":
+                    return new Code("TemplateRuntime.seqContains(" + object(expression(builtIn.target, scope)) + ", "
+                            + object(expression(args.get(0), scope)) + ", " + source + ")", Type.BOOLEAN);
+                case "max/0":
+                case "min/0":
+                    return new Code("TemplateRuntime.extreme(" + object(expression(builtIn.target, scope)) + ", "
+                            + builtIn.name.equals("max") + ", " + source + ")", Type.OBJECT);
+                case "first/0":
+                case "last/0":
+                    return new Code("TemplateRuntime.edge(" + object(expression(builtIn.target, scope)) + ", "
+                            + builtIn.name.equals("first") + ", " + source + ")", Type.OBJECT);
+                case "starts_with/1":
+                    return new Code(string(builtIn.target, scope) + ".startsWith(" + string(args.get(0), scope) + ")",
+                            Type.BOOLEAN);
+                case "ends_with/1":
+                    return new Code(string(builtIn.target, scope) + ".endsWith(" + string(args.get(0), scope) + ")",
+                            Type.BOOLEAN);
+                case "contains/1":
+                    return new Code(string(builtIn.target, scope) + ".contains(" + string(args.get(0), scope) + ")",
+                            Type.BOOLEAN);
+                case "replace/2":
+                    return new Code(string(builtIn.target, scope) + ".replace(" + string(args.get(0), scope) + ", "
+                            + string(args.get(1), scope) + ")", Type.STRING);
+                case "string/2":
+                    return new Code("(" + bool(builtIn.target, scope) + " ? " + string(args.get(0), scope) + " : "
+                            + string(args.get(1), scope) + ")", Type.STRING);
+                case "then/2":
+                    return new Code("(" + bool(builtIn.target, scope) + " ? " + object(expression(args.get(0), scope))
+                            + " : " + object(expression(args.get(1), scope)) + ")", Type.OBJECT);
+                default:
+                    throw unsupported("不支持的内建函数?" + builtIn.name);
+            }
+        }
+
+        /**
+         * 存在性判断（??、!、?has_content）的操作数：带括号时其中任何一级未定义都视为未定义
+         */
+        private String existence(Expr target, Scope scope) {
+            if (target instanceof Parenthetical) {
+                return "TemplateRuntime.safe(() -> " + object(expression(((Parenthetical) target).inner, scope))
+                        + ")";
+            }
+            return object(expression(target, scope));
+        }
+
+        private String bool(Expr expr, Scope scope) {
+            Code code = expression(expr, scope);
+            if (code.type == Type.BOOLEAN) {
+                return code.java;
+            }
+            return "TemplateRuntime.bool(" + code.java + ", " + literal(expr.source) + ")";
+        }
+
+        private String string(Expr expr, Scope scope) {
+            return string(expression(expr, scope), expr);
+        }
+
+        private String string(Code code, Expr expr) {
+            if (code.type == Type.STRING) {
+                return code.java;
+            }
+            return "TemplateRuntime.string(" + object(code) + ", " + literal(expr.source) + ")";
+        }
+
+        private static String object(Code code) {
+            return code.type == Type.BOOLEAN ? "Boolean.valueOf(" + code.java + ")" : code.java;
+        }
+
+        private String property(String name, String source) {
+            String key = "property:" + name + ":" + source;
+            String constant = constantNames.get(key);
+            if (constant == null) {
+                constant = "P" + constantNames.size();
+                constantNames.put(key, constant);
+                constants.append("    private static final TemplateRuntime.Property ").append(constant)
+                        .append(" = new TemplateRuntime.Property(").append(literal(name)).append(", ")
+                        .append(literal(source)).append(");\n");
+            }
+            return className + "." + constant;
+        }
+
+        private String constant(Object value) {
+            String key = "constant:" + value.getClass().getName() + ":" + value;
+            String constant = constantNames.get(key);
+            if (constant == null) {
+                constant = "K" + constantNames.size();
+                constantNames.put(key, constant);
+                String init;
+                if (value instanceof Integer) {
+                    init = "Integer.valueOf(" + value + ")";
+                } else if (value instanceof Long) {
+                    init = "Long.valueOf(" + value + "L)";
+                } else {
+                    init = "new java.math.BigDecimal(\"" + value + "\")";
+                }
+                constants.append("    private static final Object ").append(constant).append(" = ").append(init)
+                        .append(";\n");
+            }
+            return className + "." + constant;
+        }
+
+        private static String indent(int level) {
+            StringBuilder pad = new StringBuilder();
+            for (int i = 0; i < level; i++) {
+                pad.append("    ");
+            }
+            return pad.toString();
+        }
+
+        private static String literal(String value) {
+            StringBuilder java = new StringBuilder(value.length() + 16).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        java.append("\\\"");
+                        break;
+                    case '\\':
+                        java.append("\\\\");
+                        break;
+                    case '\n':
+                        java.append("\\n");
+                        break;
+                    case '\r':
+                        java.append("\\r");
+                        break;
+                    case '\t':
+                        java.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20 || c > 0x7e) {
+                            java.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            java.append(c);
+                        }
+                }
+            }
+            return java.append('"').toString();
+        }
+    }
+}
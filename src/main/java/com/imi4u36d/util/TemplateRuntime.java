@@ -0,0 +1,684 @@
+package com.imi4u36d.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.Collator;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 编译模板运行时调用的方法，语义与FreeMarker（incompatible_improvements为2.3.28，默认对象包装器）一致；
+ * 无法保证结果与FreeMarker一致时抛出异常，由调用方退回FreeMarker渲染
+ *
+ * @author wangzhuo
+ */
+public final class TemplateRuntime {
+
+    // 与FreeMarker默认的number_format一致，按默认语言环境格式化（带千分位）
+    private static final ThreadLocal<NumberFormat> NUMBER_FORMAT = ThreadLocal.withInitial(
+            () -> NumberFormat.getNumberInstance(Locale.getDefault()));
+
+    // FreeMarker按语言环境的Collator比较字符串是否相等
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(
+            () -> Collator.getInstance(Locale.getDefault()));
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // 数字格式化的快速路径只在默认语言环境使用ASCII数字时可用
+    private static final boolean ASCII_DIGITS = DecimalFormatSymbols.getInstance(Locale.getDefault())
+            .getZeroDigit() == '0';
+
+    // 每个类的可读属性，key为属性名，value为getter，不可访问时为null
+    private static final ClassValue<Map<String, Function<Object, Object>>> PROPERTY_READERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Object, Object>> computeValue(Class<?> type) {
+            Map<String, Function<Object, Object>> readers = new HashMap<>();
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    Method readMethod = descriptor.getReadMethod();
+                    if (readMethod == null || "class".equals(descriptor.getName())) {
+                        continue;
+                    }
+                    try {
+                        readers.put(descriptor.getName(), getter(readMethod));
+                    } catch (IllegalAccessException e) {
+                        // 非公开类中声明的getter，FreeMarker会查找可访问的同名方法，这里不做处理
+                        readers.put(descriptor.getName(), null);
+                    }
+                }
+            } catch (IntrospectionException e) {
+                throw new IllegalStateException("读取类属性失败: " + type.getName(), e);
+            }
+            return readers;
+        }
+    };
+
+    /**
+     * 将getter转换为函数对象，调用开销与直接调用接近；无法生成时使用方法句柄
+     */
+    private static Function<Object, Object> getter(Method readMethod) throws IllegalAccessException {
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(readMethod);
+        Class<?> declaringClass = readMethod.getDeclaringClass();
+        try {
+            if (Class.forName(declaringClass.getName(), false, TemplateRuntime.class.getClassLoader())
+                    == declaringClass) {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                @SuppressWarnings("unchecked")
+                Function<Object, Object> function = (Function<Object, Object>) LambdaMetafactory.metafactory(
+                        lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), handle,
+                        MethodType.methodType(readMethod.getReturnType().isPrimitive()
+                                ? MethodType.methodType(readMethod.getReturnType()).wrap().returnType()
+                                : readMethod.getReturnType(), declaringClass))
+                        .getTarget().invokeExact();
+                return function;
+            }
+        } catch (Throwable e) {
+            // 退回方法句柄
+        }
+        MethodHandle getter = handle.asType(GETTER_TYPE);
+        return target -> {
+            try {
+                return getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("读取属性失败: " + readMethod.getName(), e);
+            }
+        };
+    }
+
+    private TemplateRuntime() {
+    }
+
+    /**
+     * 变量未定义，对应FreeMarker的InvalidReferenceException，带括号的存在性判断会忽略该异常
+     */
+    public static final class UndefinedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public UndefinedException(String expression) {
+            // 存在性判断会频繁抛出并捕获，不记录堆栈
+            super("模板表达式的值未定义: " + expression, null, false, false);
+        }
+    }
+
+    /**
+     * 属性读取点，缓存最近一次访问的类对应的getter
+     */
+    public static final class Property {
+        private final String name;
+        private final String expression;
+        private volatile Reader cached;
+
+        public Property(String name, String expression) {
+            this.name = name;
+            this.expression = expression;
+        }
+
+        /**
+         * 读取属性，属性不存在或值为null时返回null
+         */
+        public Object get(Object target) {
+            if (target == null) {
+                throw new UndefinedException(expression);
+            }
+            Reader reader = cached;
+            if (reader == null || reader.type != target.getClass()) {
+                reader = new Reader(target.getClass(), name, expression);
+                cached = reader;
+            }
+            return reader.read(target);
+        }
+    }
+
+    private static final class Reader {
+        private final Class<?> type;
+        private final String name;
+        private final String expression;
+        private final boolean map;
+        private final boolean present;
+        private final Function<Object, Object> getter;
+
+        Reader(Class<?> type, String name, String expression) {
+            if (!isHash(type)) {
+                throw new IllegalArgumentException("模板表达式 " + expression + " 的对象不支持读取属性: " + type.getName());
+            }
+            this.type = type;
+            this.name = name;
+            this.expression = expression;
+            this.map = Map.class.isAssignableFrom(type);
+            Map<String, Function<Object, Object>> readers = map ? Collections.emptyMap() : PROPERTY_READERS.get(type);
+            this.present = readers.containsKey(name);
+            this.getter = readers.get(name);
+        }
+
+        Object read(Object target) {
+            if (map) {
+                return ((Map<?, ?>) target).get(name);
+            }
+            if (!present) {
+                return null;
+            }
+            if (getter == null) {
+                throw new IllegalArgumentException("模板表达式 " + expression + " 的getter不可访问");
+            }
+            return getter.apply(target);
+        }
+    }
+
+    private static boolean isPrintableAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHash(Class<?> type) {
+        return !(CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type)
+                || Boolean.class == type || Character.class == type || Date.class.isAssignableFrom(type)
+                || Collection.class.isAssignableFrom(type) || type.isArray());
+    }
+
+    /**
+     * 带括号的表达式用于存在性判断时，其中任何一级未定义都视为未定义
+     */
+    public static Object safe(Supplier<Object> expression) {
+        try {
+            return expression.get();
+        } catch (UndefinedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 默认值运算符 value!default
+     */
+    public static Object or(Object value, Object defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 默认值运算符，默认值只在需要时计算
+     */
+    public static Object or(Object value, Supplier<Object> defaultValue) {
+        return value != null ? value : defaultValue.get();
+    }
+
+    public static Object defined(Object value, String expression) {
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        return value;
+    }
+
+    public static boolean bool(Object value, String expression) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不是布尔值");
+    }
+
+    /**
+     * 插值 ${...}
+     */
+    public static void append(StringBuilder out, Object value, String expression) {
+        if (value instanceof String) {
+            out.append((String) value);
+        } else {
+            out.append(string(value, expression));
+        }
+    }
+
+    /**
+     * 按FreeMarker的规则转换为字符串：数字按默认格式格式化，布尔值、序列和哈希不能转换
+     */
+    public static String string(Object value, String expression) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        if (value instanceof Number) {
+            // 三位以内的非负整数格式化结果与语言环境无关
+            if (ASCII_DIGITS && (value instanceof Integer || value instanceof Long || value instanceof Short
+                    || value instanceof Byte) && ((Number) value).longValue() >= 0
+                    && ((Number) value).longValue() < 1000) {
+                return Long.toString(((Number) value).longValue());
+            }
+            return NUMBER_FORMAT.get().format(value);
+        }
+        if (value instanceof Boolean || value instanceof Date || value instanceof Collection
+                || value instanceof Map || value.getClass().isArray()) {
+            throw new IllegalArgumentException("模板表达式 " + expression + " 不能转换为字符串");
+        }
+        return value.toString();
+    }
+
+    /**
+     * ?c
+     */
+    public static String c(Object value, String expression) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger) {
+            return value.toString();
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof BigDecimal && ((BigDecimal) value).scale() <= 0) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不支持?c");
+    }
+
+    /**
+     * ?has_content
+     */
+    public static boolean hasContent(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value) > 0;
+        }
+        return true;
+    }
+
+    /**
+     * 将&lt;#list&gt;的对象转换为列表
+     */
+    public static List<?> list(Object value, String expression) {
+        if (value instanceof List) {
+            return (List<?>) value;
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> items = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                items.add(Array.get(value, i));
+            }
+            return items;
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不是序列");
+    }
+
+    /**
+     * 序列字面量 [a, b]
+     */
+    public static List<Object> seq(String expression, Object... items) {
+        for (Object item : items) {
+            if (item == null) {
+                throw new UndefinedException(expression);
+            }
+        }
+        return Arrays.asList(items);
+    }
+
+    /**
+     * ?size
+     */
+    public static Integer size(Object value, String expression) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        }
+        if (value != null && value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不支持?size");
+    }
+
+    /**
+     * 下标访问 a[i]：序列越界时为未定义，字符串返回对应位置的字符
+     */
+    public static Object index(Object target, Object key, String expression) {
+        if (target == null || key == null) {
+            throw new UndefinedException(expression);
+        }
+        if (key instanceof Number) {
+            int i = ((Number) key).intValue();
+            if (target instanceof List) {
+                List<?> items = (List<?>) target;
+                return i >= 0 && i < items.size() ? items.get(i) : null;
+            }
+            if (target instanceof String && i >= 0 && i < ((String) target).length()) {
+                return String.valueOf(((String) target).charAt(i));
+            }
+        } else if (key instanceof String && isHash(target.getClass())) {
+            return new Property((String) key, expression).get(target);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不支持下标访问");
+    }
+
+    /**
+     * == 与 !=
+     */
+    public static boolean eq(Object left, Object right, String expression) {
+        if (left == null || right == null) {
+            throw new UndefinedException(expression);
+        }
+        if (left instanceof Number || right instanceof Number) {
+            if (!(left instanceof Number && right instanceof Number)) {
+                throw new IllegalArgumentException("模板表达式 " + expression + " 比较的类型不一致");
+            }
+            return compareNumbers((Number) left, (Number) right) == 0;
+        }
+        if (left instanceof Boolean || right instanceof Boolean) {
+            if (!(left instanceof Boolean && right instanceof Boolean)) {
+                throw new IllegalArgumentException("模板表达式 " + expression + " 比较的类型不一致");
+            }
+            return left.equals(right);
+        }
+        String leftString = string(left, expression);
+        String rightString = string(right, expression);
+        if (leftString.equals(rightString)) {
+            return true;
+        }
+        // 可打印ASCII字符在各语言环境的Collator中都不相互等价，不同即不相等
+        if (isPrintableAscii(leftString) && isPrintableAscii(rightString)) {
+            return false;
+        }
+        return COLLATOR.get().compare(leftString, rightString) == 0;
+    }
+
+    /**
+     * 序列元素比较，类型不一致时视为不相等
+     */
+    private static boolean looseEq(Object left, Object right, String expression) {
+        if (left == null || right == null) {
+            return false;
+        }
+        if ((left instanceof Number) != (right instanceof Number)
+                || (left instanceof Boolean) != (right instanceof Boolean)) {
+            return false;
+        }
+        if (!(left instanceof Number) && !(left instanceof Boolean) && !(isScalar(left) && isScalar(right))) {
+            return false;
+        }
+        return eq(left, right, expression);
+    }
+
+    private static boolean isScalar(Object value) {
+        return !(value instanceof Date || value instanceof Collection || value instanceof Map
+                || value.getClass().isArray());
+    }
+
+    /**
+     * gt、lt、gte、lte，只支持数字
+     */
+    public static int compare(Object left, Object right, String expression) {
+        if (left == null || right == null) {
+            throw new UndefinedException(expression);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 只支持比较数字");
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return toBigDecimal(left).compareTo(toBigDecimal(right));
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        double value = number.doubleValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("不支持比较NaN或无穷大");
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * +：数字相加、序列连接或字符串连接
+     */
+    public static Object plus(Object left, Object right, String expression) {
+        if (left == null || right == null) {
+            throw new UndefinedException(expression);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return Math.addExact(integral((Number) left, expression), integral((Number) right, expression));
+        }
+        if (left instanceof List && right instanceof List) {
+            List<Object> items = new ArrayList<>((List<?>) left);
+            items.addAll((List<?>) right);
+            return items;
+        }
+        if (left instanceof Map || right instanceof Map) {
+            throw new IllegalArgumentException("模板表达式 " + expression + " 不支持哈希相加");
+        }
+        return string(left, expression) + string(right, expression);
+    }
+
+    public static Object minus(Object left, Object right, String expression) {
+        return Math.subtractExact(integral(number(left, expression), expression),
+                integral(number(right, expression), expression));
+    }
+
+    public static Object times(Object left, Object right, String expression) {
+        return Math.multiplyExact(integral(number(left, expression), expression),
+                integral(number(right, expression), expression));
+    }
+
+    public static Object negate(Object value, String expression) {
+        return Math.negateExact(integral(number(value, expression), expression));
+    }
+
+    private static Number number(Object value, String expression) {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value == null) {
+            throw new UndefinedException(expression);
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 不是数字");
+    }
+
+    // FreeMarker按BigDecimal运算，这里只处理整数，结果的格式化与FreeMarker一致
+    private static long integral(Number number, String expression) {
+        if (isIntegral(number)) {
+            return number.longValue();
+        }
+        throw new IllegalArgumentException("模板表达式 " + expression + " 只支持整数运算");
+    }
+
+    /**
+     * ?cap_first：第一个非空白字符转为大写
+     */
+    public static String capFirst(String value) {
+        int i = firstNonWhitespace(value);
+        if (i < value.length()) {
+            char first = value.charAt(i);
+            char upper = Character.toUpperCase(first);
+            if (upper != first) {
+                return value.substring(0, i) + upper + value.substring(i + 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * ?uncap_first：第一个非空白字符转为小写
+     */
+    public static String uncapFirst(String value) {
+        int i = firstNonWhitespace(value);
+        if (i < value.length()) {
+            char first = value.charAt(i);
+            char lower = Character.toLowerCase(first);
+            if (lower != first) {
+                return value.substring(0, i) + lower + value.substring(i + 1);
+            }
+        }
+        return value;
+    }
+
+    private static int firstNonWhitespace(String value) {
+        int i = 0;
+        while (i < value.length() && Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    public static String upperCase(String value) {
+        return value.toUpperCase(Locale.getDefault());
+    }
+
+    public static String lowerCase(String value) {
+        return value.toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * ?xml
+     */
+    public static String xml(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                escaped.append(replacement);
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    /**
+     * ?seq_contains(item)
+     */
+    public static boolean seqContains(Object sequence, Object item, String expression) {
+        for (Object element : list(sequence, expression)) {
+            if (looseEq(element, defined(item, expression), expression)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ?max 与 ?min，忽略null元素，空序列返回null
+     */
+    public static Object extreme(Object sequence, boolean max, String expression) {
+        Object best = null;
+        for (Object element : list(sequence, expression)) {
+            if (element == null) {
+                continue;
+            }
+            if (best == null) {
+                number(element, expression);
+                best = element;
+            } else {
+                int cmp = compare(element, best, expression);
+                if (max ? cmp > 0 : cmp < 0) {
+                    best = element;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * ?first 与 ?last
+     */
+    public static Object edge(Object sequence, boolean first, String expression) {
+        if (!(sequence instanceof List)) {
+            throw new IllegalArgumentException("模板表达式 " + expression + " 不是序列");
+        }
+        List<?> items = (List<?>) sequence;
+        if (items.isEmpty()) {
+            return null;
+        }
+        return first ? items.get(0) : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,340 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.ColumnType;
+import com.imi4u36d.model.DatabaseType;
+import com.imi4u36d.model.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 字段类型映射表：按数据库类型预先构建类型名称和JDBC类型编码两张查找表，
+ * 解析顺序为 配置覆盖 -> 精度/符号细化规则 -> 类型名称 -> JDBC类型编码 -> 兜底类型，
+ * 未知类型不会中断扫描
+ *
+ * @author wangzhuo
+ */
+public class TypeMappingRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TypeMappingRegistry.class);
+
+    /**
+     * 无法识别的类型统一映射为String
+     */
+    private static final JavaType FALLBACK = JavaType.of(ColumnType.VARCHAR);
+
+    private static final JavaType INTEGER = JavaType.of(ColumnType.INT);
+    private static final JavaType LONG = JavaType.of(ColumnType.BIGINT);
+    private static final JavaType STRING = JavaType.of(ColumnType.VARCHAR);
+    private static final JavaType BYTES = JavaType.of(ColumnType.BLOB);
+    private static final JavaType BOOLEAN = JavaType.of(ColumnType.BOOLEAN);
+    private static final JavaType FLOAT = JavaType.of(ColumnType.FLOAT);
+    private static final JavaType DOUBLE = JavaType.of(ColumnType.DOUBLE);
+    private static final JavaType BIG_DECIMAL = JavaType.of(ColumnType.DECIMAL);
+    private static final JavaType BIG_INTEGER = JavaType.of("java.math.BigInteger");
+    private static final JavaType DATE = JavaType.of(ColumnType.DATETIME);
+    private static final JavaType TIME = JavaType.of(ColumnType.TIME);
+    private static final JavaType TIMESTAMP = JavaType.of(ColumnType.TIMESTAMP);
+    private static final JavaType OFFSET_DATE_TIME = JavaType.of("java.time.OffsetDateTime");
+    private static final JavaType OFFSET_TIME = JavaType.of("java.time.OffsetTime");
+
+    /**
+     * 类型参数，如 VARCHAR(64)、DECIMAL(10,2)
+     */
+    private static final Pattern TYPE_PARAMS = Pattern.compile("\\(.*?\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 各数据库的内置类型名称映射，首次使用时构建
+     */
+    private static final Map<DatabaseType, Map<String, JavaType>> BUILT_IN_NAME_MAPPINGS =
+            Collections.synchronizedMap(new EnumMap<>(DatabaseType.class));
+
+    /**
+     * JDBC类型编码映射，与数据库无关
+     */
+    private static final Map<Integer, JavaType> JDBC_MAPPINGS = createJdbcMappings();
+
+    /**
+     * 大对象类型名称，包含内置枚举中标记的类型和各数据库的同类类型
+     */
+    private static final Set<String> LARGE_OBJECT_NAMES = createLargeObjectNames();
+
+    /**
+     * 大对象的JDBC类型编码
+     */
+    private static final Set<Integer> LARGE_OBJECT_JDBC_TYPES = Set.of(Types.LONGVARCHAR, Types.LONGNVARCHAR,
+            Types.CLOB, Types.NCLOB, Types.SQLXML, Types.LONGVARBINARY, Types.BLOB);
+
+    private final DatabaseType databaseType;
+
+    private final Map<String, JavaType> nameMappings;
+
+    private final Map<String, JavaType> overrides;
+
+    /**
+     * 已提示过的兜底类型，同一类型只提示一次
+     */
+    private final Set<String> fallbackTypes = ConcurrentHashMap.newKeySet();
+
+    private TypeMappingRegistry(DatabaseType databaseType, Map<String, JavaType> overrides) {
+        this.databaseType = databaseType;
+        this.nameMappings = BUILT_IN_NAME_MAPPINGS.computeIfAbsent(databaseType,
+                TypeMappingRegistry::createNameMappings);
+        this.overrides = overrides;
+    }
+
+    /**
+     * 创建映射表
+     *
+     * @param databaseType 数据库类型
+     * @param typeMapping  配置的类型覆盖，key为数据库类型名称（如 JSONB、INT UNSIGNED），value为Java类名
+     */
+    public static TypeMappingRegistry create(DatabaseType databaseType, Map<String, String> typeMapping) {
+        Map<String, JavaType> overrides = new HashMap<>();
+        if (typeMapping != null) {
+            typeMapping.forEach((typeName, className) -> overrides.put(normalize(typeName), JavaType.of(className)));
+        }
+        return new TypeMappingRegistry(databaseType, overrides);
+    }
+
+    /**
+     * 解析字段对应的Java类型
+     *
+     * @param typeName      数据库类型名称，可带参数和UNSIGNED等修饰
+     * @param jdbcType      JDBC类型编码（java.sql.Types），未知时为空
+     * @param columnSize    长度或精度，未知时为空
+     * @param decimalDigits 小数位数，未知时为空
+     * @return Java类型
+     */
+    public JavaType resolve(String typeName, Integer jdbcType, Integer columnSize, Integer decimalDigits) {
+        String normalized = normalize(typeName);
+        boolean unsigned = normalized.contains(" UNSIGNED");
+        String baseName = normalized.replace(" UNSIGNED", "").replace(" ZEROFILL", "");
+
+        // 配置覆盖：完整类型名称优先，其次为基础类型名称
+        JavaType javaType = overrides.get(normalized);
+        if (javaType == null) {
+            javaType = overrides.get(baseName);
+        }
+        if (javaType == null) {
+            javaType = refine(baseName, unsigned, columnSize, decimalDigits);
+        }
+        if (javaType == null) {
+            javaType = nameMappings.get(baseName);
+        }
+        if (javaType == null && jdbcType != null) {
+            javaType = JDBC_MAPPINGS.get(jdbcType);
+        }
+        if (javaType == null) {
+            if (fallbackTypes.add(normalized)) {
+                logger.warn("未识别的字段类型 {}（{}），将映射为 {}，可通过 database.typeMapping 配置", typeName,
+                        databaseType.getName(), FALLBACK.getFieldType());
+            }
+            javaType = FALLBACK;
+        }
+        return javaType;
+    }
+
+    /**
+     * 判断是否为大对象类型，如 TEXT、BLOB、JSON、CLOB
+     *
+     * @param typeName 数据库类型名称
+     * @param jdbcType JDBC类型编码，未知时为空
+     */
+    public boolean isLargeObject(String typeName, Integer jdbcType) {
+        return LARGE_OBJECT_NAMES.contains(normalize(typeName))
+                || (jdbcType != null && LARGE_OBJECT_JDBC_TYPES.contains(jdbcType));
+    }
+
+    /**
+     * 依赖符号、精度的细化规则，不适用时返回空
+     */
+    private JavaType refine(String baseName, boolean unsigned, Integer columnSize, Integer decimalDigits) {
+        // 无符号整数的取值范围超出同名有符号类型
+        if (unsigned) {
+            switch (baseName) {
+                case "TINYINT":
+                case "SMALLINT":
+                case "MEDIUMINT":
+                    return INTEGER;
+                case "INT":
+                case "INTEGER":
+                    return LONG;
+                case "BIGINT":
+                    return BIG_INTEGER;
+                default:
+                    return null;
+            }
+        }
+        // Oracle的NUMBER按精度映射整数类型，未指定精度时保持BigDecimal
+        if (databaseType == DatabaseType.ORACLE && "NUMBER".equals(baseName)
+                && columnSize != null && columnSize > 0 && decimalDigits != null && decimalDigits == 0) {
+            return columnSize <= 9 ? INTEGER : columnSize <= 18 ? LONG : BIG_DECIMAL;
+        }
+        // MySQL的多位BIT为位串
+        if (databaseType == DatabaseType.MYSQL && "BIT".equals(baseName) && columnSize != null && columnSize > 1) {
+            return BYTES;
+        }
+        return null;
+    }
+
+    /**
+     * 统一类型名称：大写、去掉类型参数、合并空白
+     */
+    private static String normalize(String typeName) {
+        String name = TYPE_PARAMS.matcher(typeName).replaceAll("");
+        return WHITESPACE.matcher(name.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+
+    private static Map<String, JavaType> createNameMappings(DatabaseType databaseType) {
+        Map<String, JavaType> mappings = new HashMap<>();
+        for (ColumnType columnType : ColumnType.values()) {
+            mappings.put(columnType.name(), JavaType.of(columnType));
+            mappings.put(columnType.name().replace('_', ' '), JavaType.of(columnType));
+        }
+
+        // 通用类型名称
+        mappings.put("INTEGER", INTEGER);
+        mappings.put("REAL", FLOAT);
+        mappings.put("TINYTEXT", STRING);
+        mappings.put("NCHAR", STRING);
+        mappings.put("NVARCHAR", STRING);
+        mappings.put("NTEXT", STRING);
+        mappings.put("CLOB", STRING);
+        mappings.put("NCLOB", STRING);
+        mappings.put("XML", STRING);
+        mappings.put("UUID", STRING);
+        mappings.put("VARBINARY", BYTES);
+        mappings.put("TINYBLOB", BYTES);
+        mappings.put("CHARACTER", STRING);
+        mappings.put("CHARACTER VARYING", STRING);
+        mappings.put("CHARACTER LARGE OBJECT", STRING);
+        mappings.put("BINARY VARYING", BYTES);
+        mappings.put("BINARY LARGE OBJECT", BYTES);
+        mappings.put("TIMESTAMP WITH TIME ZONE", OFFSET_DATE_TIME);
+        mappings.put("TIME WITH TIME ZONE", OFFSET_TIME);
+
+        switch (databaseType) {
+            case POSTGRESQL:
+                mappings.put("INT2", INTEGER);
+                mappings.put("INT4", INTEGER);
+                mappings.put("INT8", LONG);
+                mappings.put("SERIAL", INTEGER);
+                mappings.put("SERIAL4", INTEGER);
+                mappings.put("SMALLSERIAL", INTEGER);
+                mappings.put("BIGSERIAL", LONG);
+                mappings.put("SERIAL8", LONG);
+                mappings.put("FLOAT4", FLOAT);
+                mappings.put("FLOAT8", DOUBLE);
+                mappings.put("BPCHAR", STRING);
+                mappings.put("JSONB", STRING);
+                mappings.put("BYTEA", BYTES);
+                mappings.put("TIMESTAMPTZ", OFFSET_DATE_TIME);
+                mappings.put("TIMESTAMP WITHOUT TIME ZONE", TIMESTAMP);
+                mappings.put("TIMETZ", OFFSET_TIME);
+                mappings.put("TIME WITHOUT TIME ZONE", TIME);
+                mappings.put("MONEY", BIG_DECIMAL);
+                mappings.put("INET", STRING);
+                mappings.put("CIDR", STRING);
+                mappings.put("MACADDR", STRING);
+                mappings.put("INTERVAL", STRING);
+                break;
+            case ORACLE:
+                mappings.put("NUMBER", BIG_DECIMAL);
+                mappings.put("VARCHAR2", STRING);
+                mappings.put("NVARCHAR2", STRING);
+                mappings.put("LONG", STRING);
+                mappings.put("RAW", BYTES);
+                mappings.put("LONG RAW", BYTES);
+                mappings.put("BINARY_FLOAT", FLOAT);
+                mappings.put("BINARY_DOUBLE", DOUBLE);
+                mappings.put("ROWID", STRING);
+                mappings.put("XMLTYPE", STRING);
+                mappings.put("TIMESTAMP WITH LOCAL TIME ZONE", TIMESTAMP);
+                break;
+            case SQL_SERVER:
+                // SQL Server的TINYINT取值0~255，TIMESTAMP为行版本号
+                mappings.put("TINYINT", INTEGER);
+                mappings.put("TIMESTAMP", BYTES);
+                mappings.put("ROWVERSION", BYTES);
+                mappings.put("DATETIME2", DATE);
+                mappings.put("SMALLDATETIME", DATE);
+                mappings.put("DATETIMEOFFSET", OFFSET_DATE_TIME);
+                mappings.put("MONEY", BIG_DECIMAL);
+                mappings.put("SMALLMONEY", BIG_DECIMAL);
+                mappings.put("UNIQUEIDENTIFIER", STRING);
+                mappings.put("IMAGE", BYTES);
+                mappings.put("BIT", BOOLEAN);
+                break;
+            case H2:
+            case DB2:
+                mappings.put("TINYINT", INTEGER);
+                mappings.put("VARCHAR_IGNORECASE", STRING);
+                mappings.put("GRAPHIC", STRING);
+                mappings.put("VARGRAPHIC", STRING);
+                mappings.put("DBCLOB", STRING);
+                break;
+            default:
+                break;
+        }
+        return mappings;
+    }
+
+    private static Set<String> createLargeObjectNames() {
+        Set<String> names = new HashSet<>();
+        for (ColumnType columnType : ColumnType.values()) {
+            if (columnType.isLargeObject()) {
+                names.add(columnType.name());
+            }
+        }
+        names.addAll(Arrays.asList("TINYBLOB", "NTEXT", "CLOB", "NCLOB", "DBCLOB", "XML", "XMLTYPE", "JSONB",
+                "BYTEA", "IMAGE", "LONG", "LONG RAW", "CHARACTER LARGE OBJECT", "BINARY LARGE OBJECT"));
+        return names;
+    }
+
+    private static Map<Integer, JavaType> createJdbcMappings() {
+        Map<Integer, JavaType> mappings = new HashMap<>();
+        mappings.put(Types.BIT, BOOLEAN);
+        mappings.put(Types.BOOLEAN, BOOLEAN);
+        mappings.put(Types.TINYINT, INTEGER);
+        mappings.put(Types.SMALLINT, INTEGER);
+        mappings.put(Types.INTEGER, INTEGER);
+        mappings.put(Types.BIGINT, LONG);
+        mappings.put(Types.REAL, FLOAT);
+        mappings.put(Types.FLOAT, DOUBLE);
+        mappings.put(Types.DOUBLE, DOUBLE);
+        mappings.put(Types.NUMERIC, BIG_DECIMAL);
+        mappings.put(Types.DECIMAL, BIG_DECIMAL);
+        mappings.put(Types.CHAR, STRING);
+        mappings.put(Types.VARCHAR, STRING);
+        mappings.put(Types.LONGVARCHAR, STRING);
+        mappings.put(Types.NCHAR, STRING);
+        mappings.put(Types.NVARCHAR, STRING);
+        mappings.put(Types.LONGNVARCHAR, STRING);
+        mappings.put(Types.CLOB, STRING);
+        mappings.put(Types.NCLOB, STRING);
+        mappings.put(Types.SQLXML, STRING);
+        mappings.put(Types.BINARY, BYTES);
+        mappings.put(Types.VARBINARY, BYTES);
+        mappings.put(Types.LONGVARBINARY, BYTES);
+        mappings.put(Types.BLOB, BYTES);
+        mappings.put(Types.DATE, DATE);
+        mappings.put(Types.TIME, TIME);
+        mappings.put(Types.TIMESTAMP, TIMESTAMP);
+        mappings.put(Types.TIME_WITH_TIMEZONE, OFFSET_TIME);
+        mappings.put(Types.TIMESTAMP_WITH_TIMEZONE, OFFSET_DATE_TIME);
+        return mappings;
+    }
+}
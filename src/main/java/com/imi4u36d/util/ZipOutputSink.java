@@ -0,0 +1,120 @@
+package com.imi4u36d.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 将生成文件依次写入一个ZIP压缩包（文件名以.jar结尾时为JAR），整个压缩包只有一次顺序写入，
+ * 不在磁盘上创建目录和源文件；条目名称为文件相对输出根目录的路径
+ *
+ * @author wangzhuo
+ */
+public class ZipOutputSink implements OutputSink {
+    private static final Logger logger = LoggerFactory.getLogger(ZipOutputSink.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File archiveFile;
+
+    private final Path baseDir;
+
+    private final ZipOutputStream out;
+
+    // 已写入的条目
+    private final Set<String> entries = ConcurrentHashMap.newKeySet();
+
+    private long totalBytes;
+
+    /**
+     * @param archiveFile   压缩包文件，已存在时覆盖
+     * @param baseOutputDir 输出根目录
+     */
+    public ZipOutputSink(File archiveFile, String baseOutputDir) {
+        this.archiveFile = archiveFile;
+        this.baseDir = Paths.get(baseOutputDir).toAbsolutePath().normalize();
+        try {
+            File parent = archiveFile.getAbsoluteFile().getParentFile();
+            Files.createDirectories(parent.toPath());
+            OutputStream stream = new BufferedOutputStream(Files.newOutputStream(archiveFile.toPath()), BUFFER_SIZE);
+            this.out = archiveFile.getName().toLowerCase(Locale.ROOT).endsWith(".jar")
+                    ? new JarOutputStream(stream) : new ZipOutputStream(stream);
+        } catch (IOException e) {
+            logger.error("创建压缩包失败: {}", archiveFile, e);
+            throw new RuntimeException("创建压缩包失败", e);
+        }
+    }
+
+    @Override
+    public void createDirectories(Collection<String> fileNames) {
+        // 压缩包中的目录由条目路径隐含，不需要单独创建
+    }
+
+    @Override
+    public boolean exists(File file) {
+        return entries.contains(entryName(file));
+    }
+
+    @Override
+    public long write(File file, byte[] bytes) throws IOException {
+        String name = entryName(file);
+        synchronized (out) {
+            out.putNextEntry(new ZipEntry(name));
+            out.write(bytes);
+            out.closeEntry();
+            totalBytes += bytes.length;
+        }
+        entries.add(name);
+        return bytes.length;
+    }
+
+    @Override
+    public void finish() {
+        synchronized (out) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.error("写入压缩包失败: {}", archiveFile, e);
+                throw new RuntimeException("写入压缩包失败", e);
+            }
+            logger.info("生成压缩包: {}，共 {} 个文件，原始大小 {} 字节，压缩后 {} 字节", archiveFile.getAbsolutePath(),
+                    entries.size(), totalBytes, archiveFile.length());
+        }
+    }
+
+    @Override
+    public void abort() {
+        synchronized (out) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.debug("关闭压缩包失败: {}", archiveFile, e);
+            }
+        }
+        try {
+            if (Files.deleteIfExists(archiveFile.toPath())) {
+                logger.warn("生成失败，已删除不完整的压缩包: {}", archiveFile.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            logger.warn("删除不完整的压缩包失败: {}", archiveFile.getAbsolutePath(), e);
+        }
+    }
+
+    private String entryName(File file) {
+        return OutputSink.relativize(baseDir, file).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -16,4 +16,15 @@ public class BaseResponseDto<T> implements Serializable {
     private T data;
 
     private String msg;
+
+    /**
+     * 游标分页中下一页的游标，为空时表示没有更多数据
+     */
+    private String nextCursor;
+
+    public BaseResponseDto(Integer code, T data, String msg) {
+        this.code = code;
+        this.data = data;
+        this.msg = msg;
+    }
 }
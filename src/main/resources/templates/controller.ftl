@@ -1,12 +1,17 @@
 package ${packageUrl};
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pagehelper.PageInfo;
 import ${entityUrl}.${entityName};
 import ${dtoUrl}.${entityName}Dto;
 import ${serviceUrl}.${entityName}Service;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 <#-- 自定义返回对象 -->
 <#if customProperties?? && customProperties.returnObject??>
 import ${customProperties.returnObject.packagePath};
@@ -26,9 +31,23 @@ import io.swagger.v3.oas.annotations.Parameter;
 </#if>
 </#if>
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+<#if idColumn??>
+import java.util.Map;
+</#if>
 import java.util.Objects;
 import java.util.stream.Collectors;
+<#list keyImportPackages![] as package>
+import ${package};
+</#list>
 
 /**
  * @说明: ${tableComment}相关接口
@@ -45,11 +64,27 @@ import java.util.stream.Collectors;
 </#if>
 @RequestMapping("/api/${entityStartByLowCase}")
 public class ${entityName}Controller {
+<#if sortKey??>
+
+    /**
+     * 游标分页每页最大数量
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+</#if>
+
+
+    /**
+     * 导出CSV的表头
+     */
+    private static final String CSV_HEADER = "<#list columnInfos as col>${col.javaName}<#if col_has_next>,</#if></#list>\n";
 
     private final ${entityName}Service ${entityStartByLowCase}Service;
 
-    public ${entityName}Controller(${entityName}Service ${entityStartByLowCase}Service) {
+    private final ObjectMapper objectMapper;
+
+    public ${entityName}Controller(${entityName}Service ${entityStartByLowCase}Service, ObjectMapper objectMapper) {
         this.${entityStartByLowCase}Service = ${entityStartByLowCase}Service;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -70,6 +105,38 @@ public class ${entityName}Controller {
         return Result.success("查询成功", resList);
     }
 
+    /**
+     * 是否存在满足筛选条件的记录
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("是否存在满足筛选条件的记录")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "是否存在满足筛选条件的记录")
+    </#if>
+    </#if>
+    @PostMapping("/exists")
+    public BaseResponseDto<Boolean> exists(@RequestBody(required = false) @Nullable ${entityName}Dto ${entityStartByLowCase}) {
+        boolean exists = ${entityStartByLowCase}Service.exists(${entityStartByLowCase} == null ? null : ${entityStartByLowCase}.toEntity());
+        return Result.success("查询成功", exists);
+    }
+
+    /**
+     * 估算总数，来自数据库统计信息，不保证精确
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("估算总数")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "估算总数")
+    </#if>
+    </#if>
+    @GetMapping("/estimatedTotal")
+    public BaseResponseDto<Long> estimatedTotal() {
+        return Result.success("查询成功", ${entityStartByLowCase}Service.estimatedTotal());
+    }
+<#if idColumn?? || compositeKey>
+
     /**
      * 通过id查询对象
      * TODO 这里记录不存在需要使用异常处理
@@ -81,14 +148,72 @@ public class ${entityName}Controller {
     @Operation(summary = "通过id查询对象")
     </#if>
     </#if>
+<#if idColumn??>
     @GetMapping("/selById/{id}")
-    public BaseResponseDto<${entityName}Dto> selById(<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "id", value = "需要查询数据的id")<#elseif apiDocType == "openapi">@Parameter(name = "id", description = "需要查询数据的id")</#if></#if> @PathVariable Long id) {
+    public BaseResponseDto<${entityName}Dto> selById(<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "id", value = "需要查询数据的id")<#elseif apiDocType == "openapi">@Parameter(name = "id", description = "需要查询数据的id")</#if></#if> @PathVariable ${idColumn.javaType} id) {
         ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Service.selById(id);
+<#else>
+    @PostMapping("/selById")
+    public BaseResponseDto<${entityName}Dto> selById(@RequestBody ${entityName}Dto key) {
+        <#-- 复合主键使用DTO传递主键字段 -->
+        ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Service.selById(key.toEntity());
+</#if>
         if (Objects.nonNull(${entityStartByLowCase})){
             return Result.success("查询成功",${entityStartByLowCase}.toDto());
         }
         return Result.fail("记录不存在");
     }
+</#if>
+<#if heavyColumnInfos?has_content>
+
+    /**
+     * 通过id查询对象，包含延迟加载的大字段
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("通过id查询对象详情")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "通过id查询对象详情")
+    </#if>
+    </#if>
+<#if idColumn??>
+    @GetMapping("/selDetailById/{id}")
+    public BaseResponseDto<${entityName}Dto> selDetailById(<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "id", value = "需要查询数据的id")<#elseif apiDocType == "openapi">@Parameter(name = "id", description = "需要查询数据的id")</#if></#if> @PathVariable ${idColumn.javaType} id) {
+        ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Service.selDetailById(id);
+<#else>
+    @PostMapping("/selDetailById")
+    public BaseResponseDto<${entityName}Dto> selDetailById(@RequestBody ${entityName}Dto key) {
+        ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Service.selDetailById(key.toEntity());
+</#if>
+        if (Objects.nonNull(${entityStartByLowCase})){
+            return Result.success("查询成功",${entityStartByLowCase}.toDto());
+        }
+        return Result.fail("记录不存在");
+    }
+</#if>
+<#if idColumn??>
+
+    /**
+     * 通过id列表查询对象，按请求中id的顺序返回，不存在的id不返回
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("通过id列表查询对象")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "通过id列表查询对象")
+    </#if>
+    </#if>
+    @PostMapping("/selByIds")
+    public BaseResponseDto<List<${entityName}Dto>> selByIds(@RequestBody List<${idColumn.javaType}> ids) {
+        if (ids.isEmpty()) {
+            return Result.fail("参数错误");
+        }
+        Map<${idColumn.javaType}, ${entityName}> map = ${entityStartByLowCase}Service.selByIds(ids);
+        List<${entityName}Dto> resList = ids.stream().distinct().map(map::get).filter(Objects::nonNull)
+                .map(${entityName}::toDto).collect(Collectors.toList());
+        return Result.success("查询成功", resList);
+    }
+</#if>
 
     /**
      * 新增
@@ -109,6 +234,7 @@ public class ${entityName}Controller {
         }
         return Result.fail("新增失败");
     }
+<#if primaryKeys?has_content && updateColumnInfos?has_content>
 
     /**
      * 更新
@@ -123,7 +249,7 @@ public class ${entityName}Controller {
     @PutMapping("/update")
     public BaseResponseDto<String> update(@RequestBody ${entityName}Dto ${entityStartByLowCase}) {
         <#-- 使用DTO作为请求对象 -->
-        ${entityName} selById = ${entityStartByLowCase}Service.selById(${entityStartByLowCase}.getId());
+        ${entityName} selById = ${entityStartByLowCase}Service.selById(<#if idColumn??>${entityStartByLowCase}.get${idColumn.javaName?cap_first}()<#else>${entityStartByLowCase}.toEntity()</#if>);
         if (Objects.isNull(selById)) {
             return Result.fail("记录不存在");
         }
@@ -133,6 +259,8 @@ public class ${entityName}Controller {
         }
         return Result.fail("更新失败");
     }
+</#if>
+<#if idColumn?? || compositeKey>
 
     /**
      * 通过id删除
@@ -144,9 +272,15 @@ public class ${entityName}Controller {
     @Operation(summary = "通过id删除")
     </#if>
     </#if>
+<#if idColumn??>
     @PutMapping("/delById/{id}")
-    public BaseResponseDto<String> delById(<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "id", value = "需要删除数据的id")<#elseif apiDocType == "openapi">@Parameter(name = "id", description = "需要删除数据的id")</#if></#if> @PathVariable Long id) {
+    public BaseResponseDto<String> delById(<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "id", value = "需要删除数据的id")<#elseif apiDocType == "openapi">@Parameter(name = "id", description = "需要删除数据的id")</#if></#if> @PathVariable ${idColumn.javaType} id) {
         Integer res = ${entityStartByLowCase}Service.delById(id);
+<#else>
+    @PutMapping("/delById")
+    public BaseResponseDto<String> delById(@RequestBody ${entityName}Dto key) {
+        Integer res = ${entityStartByLowCase}Service.delById(key.toEntity());
+</#if>
         if (res == 1){
             return Result.success("删除成功");
         }
@@ -164,16 +298,21 @@ public class ${entityName}Controller {
     </#if>
     </#if>
     @PutMapping("/delBatchByIdList")
-    public BaseResponseDto<String> delBatchByIdList(@RequestBody List<Long> ids) {
+    public BaseResponseDto<String> delBatchByIdList(@RequestBody List<<#if idColumn??>${idColumn.javaType}<#else>${entityName}Dto</#if>> ids) {
         if (ids.size() <= 0) {
             return Result.fail("参数错误");
         }
+<#if idColumn??>
         Integer res = ${entityStartByLowCase}Service.delBatchByIdList(ids);
+<#else>
+        Integer res = ${entityStartByLowCase}Service.delBatchByIdList(ids.stream().map(${entityName}Dto::toEntity).collect(Collectors.toList()));
+</#if>
         if (res == ids.size()) {
             return Result.success("删除成功");
         }
         return Result.fail("删除成功/部分记录不存在");
     }
+</#if>
 
     /**
      * 分页列表查询
@@ -186,9 +325,9 @@ public class ${entityName}Controller {
     </#if>
     </#if>
     @PostMapping("/page/{pageNum}/{pageSize}")
-    public BaseResponseDto<PageInfo<${entityName}Dto>> page(@RequestBody @Nullable ${entityName}Dto ${entityStartByLowCase},<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "pageNum", value = "页码")<#elseif apiDocType == "openapi">@Parameter(name = "pageNum", description = "页码")</#if></#if> @PathVariable int pageNum, <#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "pageSize", value = "每页数量")<#elseif apiDocType == "openapi">@Parameter(name = "pageSize", description = "每页数量")</#if></#if> @PathVariable int pageSize) {
+    public BaseResponseDto<PageInfo<${entityName}Dto>> page(@RequestBody @Nullable ${entityName}Dto ${entityStartByLowCase},<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "pageNum", value = "页码")<#elseif apiDocType == "openapi">@Parameter(name = "pageNum", description = "页码")</#if></#if> @PathVariable int pageNum, <#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "pageSize", value = "每页数量")<#elseif apiDocType == "openapi">@Parameter(name = "pageSize", description = "每页数量")</#if></#if> @PathVariable int pageSize, <#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "count", value = "是否查询总数，为false时返回的total为-1")<#elseif apiDocType == "openapi">@Parameter(name = "count", description = "是否查询总数，为false时返回的total为-1")</#if></#if> @RequestParam(defaultValue = "true") boolean count) {
         <#-- 使用DTO作为请求对象，并返回DTO列表 -->
-        PageInfo<${entityName}> page = ${entityStartByLowCase}Service.page(<#if entityStartByLowCase??>${entityStartByLowCase}.toEntity()<#else>null</#if>, pageNum, pageSize);
+        PageInfo<${entityName}> page = ${entityStartByLowCase}Service.page(<#if entityStartByLowCase??>${entityStartByLowCase}.toEntity()<#else>null</#if>, pageNum, pageSize, count);
         PageInfo<${entityName}Dto> dtoPage = new PageInfo<>();
         dtoPage.setPageNum(page.getPageNum());
         dtoPage.setPageSize(page.getPageSize());
@@ -196,5 +335,163 @@ public class ${entityName}Controller {
         dtoPage.setList(page.getList().stream().map(${entityName}::toDto).collect(Collectors.toList()));
         return Result.success("查询成功", dtoPage);
     }
+<#if sortKey??>
+
+    /**
+     * 游标分页查询，按${sortKey.javaName}升序返回cursor之后的一页
+     * 返回的nextCursor作为下一次请求的cursor，nextCursor为空时表示没有更多数据
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("游标分页查询")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "游标分页查询")
+    </#if>
+    </#if>
+    @PostMapping("/pageAfter")
+    public BaseResponseDto<List<${entityName}Dto>> pageAfter(@RequestBody(required = false) @Nullable ${entityName}Dto ${entityStartByLowCase},<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "cursor", value = "上一页返回的nextCursor，查询第一页时为空")<#elseif apiDocType == "openapi">@Parameter(name = "cursor", description = "上一页返回的nextCursor，查询第一页时为空")</#if></#if> @RequestParam(required = false) String cursor, <#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "pageSize", value = "每页数量")<#elseif apiDocType == "openapi">@Parameter(name = "pageSize", description = "每页数量")</#if></#if> @RequestParam(defaultValue = "20") int pageSize) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            return Result.fail("每页数量须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+        ${sortKey.javaType} lastKey;
+        try {
+            lastKey = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Result.fail("游标无效");
+        }
+        // 多查询一条用于判断是否还有下一页
+        List<${entityName}> list = ${entityStartByLowCase}Service.pageAfter(lastKey, pageSize + 1, ${entityStartByLowCase} == null ? null : ${entityStartByLowCase}.toEntity());
+        String nextCursor = null;
+        if (list.size() > pageSize) {
+            list = list.subList(0, pageSize);
+            nextCursor = encodeCursor(list.get(pageSize - 1).get${sortKey.javaName?cap_first}());
+        }
+        List<${entityName}Dto> resList = list.stream().map(${entityName}::toDto).collect(Collectors.toList());
+        BaseResponseDto<List<${entityName}Dto>> response = Result.success("查询成功", resList);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    /**
+     * 将排序字段的值编码为游标
+     */
+    private static String encodeCursor(${sortKey.javaType} key) {
+<#if sortKey.javaType == "Date">
+        String value = String.valueOf(key.getTime());
+<#elseif sortKey.javaType == "BigDecimal">
+        String value = key.toPlainString();
+<#else>
+        String value = key.toString();
+</#if>
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 将游标解码为排序字段的值，游标为空时返回null
+     */
+    private static ${sortKey.javaType} decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+<#if sortKey.javaType == "Long">
+            return Long.valueOf(value);
+<#elseif sortKey.javaType == "Integer">
+            return Integer.valueOf(value);
+<#elseif sortKey.javaType == "BigDecimal">
+            return new BigDecimal(value);
+<#elseif sortKey.javaType == "Date">
+            return new Date(Long.parseLong(value));
+<#elseif sortKey.javaType == "Timestamp">
+            return Timestamp.valueOf(value);
+<#elseif sortKey.javaType == "LocalDateTime">
+            return LocalDateTime.parse(value);
+<#elseif sortKey.javaType == "LocalDate">
+            return LocalDate.parse(value);
+<#else>
+            return value;
+</#if>
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("游标无效: " + cursor, e);
+        }
+    }
+</#if>
+
+    /**
+     * 流式导出，边查询边写出NDJSON（每行一个JSON对象）或CSV，内存占用与导出数量无关
+     */
+    <#if swaggerEnable == true>
+    <#if apiDocType == "swagger">
+    @ApiOperation("流式导出")
+    <#elseif apiDocType == "openapi">
+    @Operation(summary = "流式导出")
+    </#if>
+    </#if>
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody(required = false) @Nullable ${entityName}Dto ${entityStartByLowCase},<#if swaggerEnable == true><#if apiDocType == "swagger">@ApiParam(name = "format", value = "导出格式：ndjson或csv")<#elseif apiDocType == "openapi">@Parameter(name = "format", description = "导出格式：ndjson或csv")</#if></#if> @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        ${entityName} filter = ${entityStartByLowCase} == null ? null : ${entityStartByLowCase}.toEntity();
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+            }
+            ${entityStartByLowCase}Service.streamAll(filter, row -> {
+                try {
+                    if (csv) {
+                        writeCsvRow(writer, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row.toDto()));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"${tableName}." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    /**
+     * 按表头顺序写出一行CSV
+     */
+    private static void writeCsvRow(Writer writer, ${entityName} row) throws IOException {
+<#list columnInfos as col>
+        writer.write(csvValue(row.get${col.javaName?cap_first}()));
+        writer.write(<#if col_has_next>','<#else>'\n'</#if>);
+</#list>
+    }
+
+    /**
+     * 转换为CSV字段值，包含逗号、引号或换行的值使用双引号包裹
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text;
+        if (value instanceof java.util.Date) {
+            text = new java.sql.Timestamp(((java.util.Date) value).getTime()).toString();
+        } else if (value instanceof BigDecimal) {
+            text = ((BigDecimal) value).toPlainString();
+        } else if (value instanceof byte[]) {
+            text = Base64.getEncoder().encodeToString((byte[]) value);
+        } else {
+            text = value.toString();
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
 
 }
\ No newline at end of file
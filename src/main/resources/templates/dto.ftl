@@ -40,6 +40,12 @@ public class ${entityName}Dto {
     * ${col.columnComment}")
     */
     </#if>
+    <#if !col.indexed>
+    // 无索引：单独按该字段筛选会全表扫描
+    </#if>
+    <#if col.heavy>
+    // 大字段：列表、分页和selById不返回，通过selDetailById查询
+    </#if>
     private ${col.javaType} ${col.javaName};
 
 </#list>
@@ -1,29 +1,186 @@
 package ${packageUrl};
 
+<#-- 配置了inListExecutor时，按id列表查询的各分批在该Executor上并发执行 -->
+<#assign parallelIds = idColumn?? && (inListExecutor!"")?has_content>
+<#-- 开启缓存时缓存totalSize，单列主键的表同时按id缓存实体 -->
+<#assign cache = cacheEnable!false>
+<#assign idCache = cache && idColumn??>
+<#-- 配置了countCacheTtlSeconds时，不开启缓存也缓存totalSize -->
+<#assign countCached = cache || (countCacheTtlSeconds!0) gt 0>
+<#if (countCacheTtlSeconds!0) gt 0><#assign countTtl = countCacheTtlSeconds><#else><#assign countTtl = cacheTtlSeconds!300></#if>
+<#-- 外键引用的父表通过父表Service批量查询，引用自身的外键直接调用selByIds -->
+<#assign foreignKeys = foreignKeyInfos![]>
+<#assign relationParents = []>
+<#list foreignKeys as fk>
+<#if !fk.selfReference && !relationParents?seq_contains(fk.parentEntityName)><#assign relationParents = relationParents + [fk.parentEntityName]></#if>
+</#list>
+<#if countCached>
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+</#if>
+<#if cache>
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+</#if>
+<#if countCached>
+import com.github.pagehelper.Page;
+</#if>
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+<#if readWriteSplitEnable!false>
+import ${packageUrl}.datasource.ReadOnlyTransactional;
+</#if>
 import ${entityUrl}.${entityName};
+<#list relationParents as parent>
+import ${entityUrl}.${parent};
+</#list>
 import ${mapperUrl}.${entityName}Mapper;
 import ${serviceUrl}.${entityName}Service;
+<#list relationParents as parent>
+import ${serviceUrl}.${parent}Service;
+</#list>
+import org.apache.ibatis.cursor.Cursor;
+<#if parallelIds>
+import org.springframework.beans.factory.annotation.Qualifier;
+</#if>
+<#if relationParents?has_content>
+import org.springframework.context.annotation.Lazy;
+</#if>
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+<#if countCached>
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+</#if>
 import org.springframework.util.ObjectUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+<#if countCached>
+import java.time.Duration;
+</#if>
+<#if insertColumnInfos?has_content || primaryKeys?has_content || foreignKeys?has_content>
+import java.util.ArrayList;
+</#if>
+<#if idColumn?? || foreignKeys?has_content>
+import java.util.Collection;
+</#if>
+<#if idCache || foreignKeys?has_content>
+import java.util.Collections;
+</#if>
+<#if idColumn?? || foreignKeys?has_content>
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+</#if>
 import java.util.List;
+<#if idColumn?? || foreignKeys?has_content>
+import java.util.Map;
+</#if>
+<#if idCache || foreignKeys?has_content>
+import java.util.Objects;
+import java.util.Set;
+</#if>
+<#if parallelIds>
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+</#if>
+import java.util.function.Consumer;
+<#if idCache || foreignKeys?has_content>
+import java.util.stream.Collectors;
+</#if>
+<#list keyImportPackages![] as package>
+import ${package};
+</#list>
 
 /**
 * @说明: ${tableComment}相关接口实现类
 * @作者: ${author} powered By noWork.fun
 * @创建时间: ${curTime}
 **/
+<#-- 单列主键使用主键类型，复合主键使用实体作为主键参数 -->
+<#if idColumn??><#assign keyType = idColumn.javaType keyName = "id"><#else><#assign keyType = entityName keyName = "key"></#if>
+<#-- 数据变更后调用的缓存失效语句，ids为受影响的id集合表达式 -->
+<#macro evictCache ids>
+<#if countCached>
+        evictCache(<#if idCache>${ids}</#if>);
+</#if>
+</#macro>
 @Service
-@Transactional
+<#-- 查询方法使用只读事务，写方法单独声明读写事务；开启读写分离时只读事务路由到从库 -->
+<#if readWriteSplitEnable!false>
+@ReadOnlyTransactional
+<#else>
+@Transactional(readOnly = true)
+</#if>
 public class ${entityName}ServiceImpl implements ${entityName}Service {
+<#assign dbType = databaseType!"">
+<#-- 单条语句的绑定参数上限：SQL Server 2100，PostgreSQL 32767，其余数据库按65535 -->
+<#if dbType == "SQL_SERVER"><#assign maxParams = 2000><#elseif dbType == "POSTGRESQL"><#assign maxParams = 32767><#else><#assign maxParams = 65535></#if>
+<#if insertColumnInfos?has_content || primaryKeys?has_content>
+<#-- SQL Server的insert values单条语句最多1000行 -->
+<#if dbType == "SQL_SERVER" && batchSize gt 1000><#assign maxRows = 1000><#else><#assign maxRows = batchSize></#if>
+
+    /**
+     * 批量操作每批最大行数，同时受单条语句绑定参数数量的限制
+     */
+    private static final int BATCH_SIZE = Math.max(1, Math.min(${maxRows?c}, ${maxParams?c} / ${columnInfos?size}));
+
+    /**
+     * 批量操作每批SQL的最大估算字节数，需小于数据库的max_allowed_packet等限制
+     */
+    private static final long BATCH_MAX_BYTES = ${batchMaxBytes?c}L;
+</#if>
+<#if idColumn?? || compositeKey || foreignKeys?has_content>
+<#-- Oracle的in列表最多1000个元素 -->
+<#if dbType == "ORACLE" && inListChunkSize gt 1000><#assign maxIds = 1000><#else><#assign maxIds = inListChunkSize></#if>
+
+    /**
+     * 按id列表查询和删除时每条语句的最大id数量，同时受单条语句绑定参数数量的限制
+     */
+    private static final int IN_LIST_CHUNK_SIZE = Math.max(1, Math.min(${maxIds?c}, ${maxParams?c} / ${[primaryKeys?size, 1]?max}));
+</#if>
+<#if idCache>
+
+    /**
+     * 按id缓存的实体，写入${cacheTtlSeconds?c}秒后过期，数据变更时失效；缓存中的对象为共享实例，调用方不应修改
+     */
+    private final Cache<${keyType}, ${entityName}> entityCache = Caffeine.newBuilder()
+            .maximumSize(${cacheMaxSize?c})
+            .expireAfterWrite(Duration.ofSeconds(${cacheTtlSeconds?c}))
+            .recordStats()
+            .build();
+</#if>
+<#if countCached>
+
+    /**
+     * 缓存的总数查询结果，只缓存无筛选条件的总数，写入${countTtl?c}秒后过期，数据变更时失效
+     */
+    private final Cache<String, Long> countCache = Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(Duration.ofSeconds(${countTtl?c}))
+            .recordStats()
+            .build();
+</#if>
 
     private final ${entityName}Mapper ${entityStartByLowCase}Mapper;
+<#if parallelIds>
+
+    private final Executor inListExecutor;
+</#if>
+<#list relationParents as parent>
 
-    public ${entityName}ServiceImpl(${entityName}Mapper ${entityStartByLowCase}Mapper) {
+    private final ${parent}Service ${parent?uncap_first}Service;
+</#list>
+<#-- 父表Service使用@Lazy注入，表之间相互引用时避免循环依赖 -->
+
+    public ${entityName}ServiceImpl(${entityName}Mapper ${entityStartByLowCase}Mapper<#if parallelIds>, @Qualifier("${inListExecutor}") Executor inListExecutor</#if><#list relationParents as parent>, @Lazy ${parent}Service ${parent?uncap_first}Service</#list>) {
         this.${entityStartByLowCase}Mapper = ${entityStartByLowCase}Mapper;
+<#if parallelIds>
+        this.inListExecutor = inListExecutor;
+</#if>
+<#list relationParents as parent>
+        this.${parent?uncap_first}Service = ${parent?uncap_first}Service;
+</#list>
     }
 
     /**
@@ -42,54 +199,335 @@ public class ${entityName}ServiceImpl implements ${entityName}Service {
      */
     @Override
     public Long totalSize() {
+<#if countCached>
+        return countCache.get("totalSize", key -> ${entityStartByLowCase}Mapper.totalSize());
+<#else>
         return ${entityStartByLowCase}Mapper.totalSize();
+</#if>
+    }
+
+    /**
+     * 是否存在满足筛选条件的记录，只查询第一条，不统计总数
+     *
+     * @return 是否存在
+     */
+    public boolean exists(${entityName} ${entityStartByLowCase}) {
+        if (ObjectUtils.isEmpty(${entityStartByLowCase})) {
+            ${entityStartByLowCase} = new ${entityName}();
+        }
+        return ${entityStartByLowCase}Mapper.exists(${entityStartByLowCase}) != null;
+    }
+
+    /**
+     * 数据库统计信息中的估算总数，统计信息不存在时使用精确总数
+     *
+     * @return 估算总数
+     */
+    @Override
+    public Long estimatedTotal() {
+        Long estimated = ${entityStartByLowCase}Mapper.estimatedTotal();
+        return estimated != null ? estimated : totalSize();
     }
+<#if idColumn?? || compositeKey>
 
     /**
-     * 通过id查询对象
+     * 通过id查询对象<#if heavyColumnInfos?has_content>，不包含大字段</#if>
      *
      * @return 实体对象
      */
-    public ${entityName} selById(Long id) {
-        ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Mapper.selById(id);
+    public ${entityName} selById(${keyType} ${keyName}) {
+<#if idCache>
+        // 记录不存在时不写入缓存
+        return entityCache.get(${keyName}, ${entityStartByLowCase}Mapper::selById);
+<#else>
+        ${entityName} ${entityStartByLowCase} = ${entityStartByLowCase}Mapper.selById(${keyName});
         return ${entityStartByLowCase};
+</#if>
+    }
+</#if>
+<#if idColumn??>
+
+    /**
+     * 通过id列表查询对象<#if idCache>，缓存中没有的id</#if>去重后按IN_LIST_CHUNK_SIZE个一组分批查询<#if parallelIds>，多个分批时在Executor上并发执行</#if>
+     *
+     * @return id到实体对象的映射，不存在的id不包含在结果中
+     */
+    public Map<${keyType}, ${entityName}> selByIds(Collection<${keyType}> ids) {
+<#if idCache>
+        Set<${keyType}> missingIds = new LinkedHashSet<>(ids);
+        Map<${keyType}, ${entityName}> result = new HashMap<>(entityCache.getAllPresent(missingIds));
+        missingIds.removeAll(result.keySet());
+        if (!missingIds.isEmpty()) {
+            Map<${keyType}, ${entityName}> loaded = loadByIds(missingIds);
+            entityCache.putAll(loaded);
+            result.putAll(loaded);
+        }
+        return result;
     }
 
+    /**
+     * 按IN_LIST_CHUNK_SIZE个一组分批查询id列表对应的对象
+     */
+    private Map<${keyType}, ${entityName}> loadByIds(Collection<${keyType}> ids) {
+        List<List<${keyType}>> chunks = splitChunks(new ArrayList<>(ids));
+<#else>
+        List<List<${keyType}>> chunks = splitChunks(new ArrayList<>(new LinkedHashSet<>(ids)));
+</#if>
+        List<${entityName}> list = new ArrayList<>();
+<#if parallelIds>
+        if (chunks.size() > 1) {
+            // 各分批在Executor线程上使用独立的数据库连接执行，不参与当前事务
+            List<CompletableFuture<List<${entityName}>>> futures = new ArrayList<>(chunks.size());
+            for (List<${keyType}> chunk : chunks) {
+                futures.add(CompletableFuture.supplyAsync(() -> ${entityStartByLowCase}Mapper.selByIds(chunk), inListExecutor));
+            }
+            try {
+                for (CompletableFuture<List<${entityName}>> future : futures) {
+                    list.addAll(future.join());
+                }
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        } else {
+            for (List<${keyType}> chunk : chunks) {
+                list.addAll(${entityStartByLowCase}Mapper.selByIds(chunk));
+            }
+        }
+<#else>
+        for (List<${keyType}> chunk : chunks) {
+            list.addAll(${entityStartByLowCase}Mapper.selByIds(chunk));
+        }
+</#if>
+        Map<${keyType}, ${entityName}> result = new HashMap<>(list.size() * 4 / 3 + 1);
+        for (${entityName} ${entityStartByLowCase} : list) {
+            result.put(${entityStartByLowCase}.get${idColumn.javaName?cap_first}(), ${entityStartByLowCase});
+        }
+        return result;
+    }
+</#if>
+<#if heavyColumnInfos?has_content>
+
+    /**
+     * 通过id查询对象，包含延迟加载的大字段
+     *
+     * @return 实体对象
+     */
+    public ${entityName} selDetailById(${keyType} ${keyName}) {
+        return ${entityStartByLowCase}Mapper.selDetailById(${keyName});
+    }
+<#list heavyColumnInfos as col>
+
+    /**
+     * 通过id查询大字段${col.columnName}
+     *
+     * @return 字段值
+     */
+    public ${col.javaType} load${col.javaName?cap_first}ById(${keyType} ${keyName}) {
+        return ${entityStartByLowCase}Mapper.load${col.javaName?cap_first}ById(${keyName});
+    }
+</#list>
+</#if>
+<#list foreignKeys as fk>
+<#assign fkType = fk.columnInfo.javaType fkGetter = "get" + fk.columnInfo.javaName?cap_first>
+
+    /**
+     * 批量加载外键${fk.columnInfo.columnName}引用的${fk.parentEntityName}，去重后<#if fk.selfReference>通过selByIds<#else>通过${fk.parentEntityName}Service.selByIds</#if>按id列表查询
+     *
+     * @return ${fk.columnInfo.javaName}到${fk.parentEntityName}的映射，不存在的记录不包含在结果中
+     */
+    public Map<${fkType}, ${fk.parentEntityName}> load${fk.relationName}For(List<${entityName}> list) {
+        Set<${fkType}> ids = list.stream()
+                .map(${entityName}::${fkGetter})
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return <#if fk.selfReference>selByIds(ids)<#else>${fk.parentEntityName?uncap_first}Service.selByIds(ids)</#if>;
+    }
+
+    /**
+     * 按外键${fk.columnInfo.columnName}的值列表批量查询，去重后按IN_LIST_CHUNK_SIZE个一组分批查询
+     *
+     * @return ${fk.columnInfo.javaName}到实体列表的映射，没有记录的值不包含在结果中
+     */
+    public Map<${fkType}, List<${entityName}>> listBy${fk.columnInfo.javaName?cap_first}In(Collection<${fkType}> ids) {
+        List<${fkType}> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<${fkType}, List<${entityName}>> result = new HashMap<>();
+        for (List<${fkType}> chunk : splitChunks(distinctIds)) {
+            for (${entityName} ${entityStartByLowCase} : ${entityStartByLowCase}Mapper.listBy${fk.columnInfo.javaName?cap_first}In(chunk)) {
+                result.computeIfAbsent(${entityStartByLowCase}.${fkGetter}(), key -> new ArrayList<>()).add(${entityStartByLowCase});
+            }
+        }
+        return result;
+    }
+</#list>
+
     /**
      * 新增
      *
      * @return 新增结果
      */
+    @Transactional
     public Integer add(${entityName} ${entityStartByLowCase}) {
+<#if countCached>
+        Integer rows = ${entityStartByLowCase}Mapper.add(${entityStartByLowCase});
+<@evictCache ids="Collections.emptyList()"/>
+        return rows;
+<#else>
         return ${entityStartByLowCase}Mapper.add(${entityStartByLowCase});
+</#if>
     }
+<#if primaryKeys?has_content && updateColumnInfos?has_content>
 
     /**
      * 更新
      *
      * @return 更新结果
      */
+    @Transactional
     public Integer update(${entityName} ${entityStartByLowCase}) {
+<#if countCached>
+        Integer rows = ${entityStartByLowCase}Mapper.update(${entityStartByLowCase});
+<@evictCache ids="Collections.singletonList(${entityStartByLowCase}.get${(idColumn.javaName?cap_first)!}())"/>
+        return rows;
+<#else>
         return ${entityStartByLowCase}Mapper.update(${entityStartByLowCase});
+</#if>
     }
+</#if>
+<#if insertColumnInfos?has_content>
+
+    /**
+     * 批量新增，按行数和语句大小分批执行
+     *
+     * @return 新增结果
+     */
+    @Transactional
+    public Integer addBatch(List<${entityName}> list) {
+        int rows = 0;
+        for (List<${entityName}> batch : splitBatch(list)) {
+            rows += ${entityStartByLowCase}Mapper.addBatch(batch);
+        }
+<@evictCache ids="Collections.emptyList()"/>
+        return rows;
+    }
+</#if>
+<#if primaryKeys?has_content>
+
+    /**
+     * 批量新增或更新，主键冲突时更新非主键字段，按行数和语句大小分批执行
+     *
+     * @return 数据库返回的影响行数
+     */
+    @Transactional
+    public Integer upsertBatch(List<${entityName}> list) {
+        int rows = 0;
+        for (List<${entityName}> batch : splitBatch(list)) {
+            rows += ${entityStartByLowCase}Mapper.upsertBatch(batch);
+        }
+<@evictCache ids="list.stream().map(${entityName}::get${(idColumn.javaName?cap_first)!}).collect(Collectors.toList())"/>
+        return rows;
+    }
+</#if>
+<#if insertColumnInfos?has_content || primaryKeys?has_content>
+
+    /**
+     * 按行数和估算的语句大小拆分批次
+     */
+    private static List<List<${entityName}>> splitBatch(List<${entityName}> list) {
+        List<List<${entityName}>> batches = new ArrayList<>();
+        List<${entityName}> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (${entityName} ${entityStartByLowCase} : list) {
+            long rowBytes = estimateRowBytes(${entityStartByLowCase});
+            if (!batch.isEmpty() && (batch.size() >= BATCH_SIZE || batchBytes + rowBytes > BATCH_MAX_BYTES)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(${entityStartByLowCase});
+            batchBytes += rowBytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * 估算单行在SQL语句中占用的字节数
+     */
+    private static long estimateRowBytes(${entityName} ${entityStartByLowCase}) {
+        long bytes = 4;
+<#list columnInfos as col>
+        bytes += estimateValueBytes(${entityStartByLowCase}.get${col.javaName?cap_first}());
+</#list>
+        return bytes;
+    }
+
+    /**
+     * 估算单个值在SQL语句中占用的字节数，字符串按UTF-8编码和转义后的最大长度估算
+     */
+    private static long estimateValueBytes(Object value) {
+        if (value == null) {
+            return 6;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() * 3L + 4;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length * 2L + 12;
+        }
+        return 40;
+    }
+</#if>
+<#if idColumn?? || compositeKey>
 
     /**
      * 通过id删除单条记录
      *
      * @return 删除结果
      */
-    public Integer delById(Long id) {
-        return ${entityStartByLowCase}Mapper.delById(id);
+    @Transactional
+    public Integer delById(${keyType} ${keyName}) {
+<#if countCached>
+        Integer rows = ${entityStartByLowCase}Mapper.delById(${keyName});
+<@evictCache ids="Collections.singletonList(${keyName})"/>
+        return rows;
+<#else>
+        return ${entityStartByLowCase}Mapper.delById(${keyName});
+</#if>
     }
 
     /**
-     * 使用id列表批量删除
+     * 使用id列表批量删除，按IN_LIST_CHUNK_SIZE个一组分批删除
      *
      * @return 批量删除结果
      */
-    public Integer delBatchByIdList(List<Long> ids) {
-        return ${entityStartByLowCase}Mapper.delBatchByIdList(ids.toArray(new Long[0]));
+    @Transactional
+    public Integer delBatchByIdList(List<${keyType}> ids) {
+        int rows = 0;
+        for (List<${keyType}> chunk : splitChunks(ids)) {
+            rows += ${entityStartByLowCase}Mapper.delBatchByIdList(chunk.toArray(new ${keyType}[0]));
+        }
+<@evictCache ids="ids"/>
+        return rows;
+    }
+</#if>
+<#if idColumn?? || compositeKey || foreignKeys?has_content>
+
+    /**
+     * 按IN_LIST_CHUNK_SIZE拆分id列表
+     */
+    private static <T> List<List<T>> splitChunks(List<T> ids) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + IN_LIST_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
     }
+</#if>
 
     /**
     * 使用对象进行筛选后分页
@@ -97,13 +535,42 @@ public class ${entityName}ServiceImpl implements ${entityName}Service {
     * @return 使用对象进行筛选后分页
     */
     public PageInfo<${entityName}> page(${entityName} ${entityStartByLowCase}, int pageNum, int pageSize) {
+        return page(${entityStartByLowCase}, pageNum, pageSize, true);
+    }
+
+    /**
+    * 使用对象进行筛选后分页，count为false时不查询总数，返回的total为-1<#if countCached>；没有筛选条件时使用缓存的总数</#if>
+    *
+    * @return 使用对象进行筛选后分页
+    */
+    public PageInfo<${entityName}> page(${entityName} ${entityStartByLowCase}, int pageNum, int pageSize, boolean count) {
         if (ObjectUtils.isEmpty(${entityStartByLowCase})) {
         ${entityStartByLowCase} = new ${entityName}();
         }
-        PageHelper.startPage(pageNum, pageSize);
+<#if countCached>
+        boolean cachedCount = count && isEmptyFilter(${entityStartByLowCase});
+        Page<${entityName}> page = PageHelper.startPage(pageNum, pageSize, count && !cachedCount);
+        ${entityStartByLowCase}Mapper.list(${entityStartByLowCase});
+        if (cachedCount) {
+            page.setTotal(totalSize());
+        }
+        return new PageInfo<>(page);
+<#else>
+        PageHelper.startPage(pageNum, pageSize, count);
         List<${entityName}> list = ${entityStartByLowCase}Mapper.list(${entityStartByLowCase});
         return new PageInfo<>(list);
+</#if>
+    }
+<#if countCached>
+
+    /**
+     * 是否没有任何筛选条件
+     */
+    private static boolean isEmptyFilter(${entityName} ${entityStartByLowCase}) {
+        return <#list columnInfos as col>${entityStartByLowCase}.get${col.javaName?cap_first}() == null<#if col_has_next>
+                && </#if></#list>;
     }
+</#if>
 
     /**
     * 数据总条数
@@ -113,5 +580,88 @@ public class ${entityName}ServiceImpl implements ${entityName}Service {
     public Integer total(${entityName} ${entityStartByLowCase}) {
         return ${entityStartByLowCase}Mapper.total(${entityStartByLowCase});
     }
+<#list uniqueKeys![] as uniqueKey>
+
+    /**
+    * 通过唯一索引${uniqueKey.indexName}查询对象
+    *
+    * @return 实体对象
+    */
+    public ${entityName} selBy${uniqueKey.methodSuffix}(<#list uniqueKey.columnInfos as col>${col.javaType} ${col.javaName}<#if col_has_next>, </#if></#list>) {
+        return ${entityStartByLowCase}Mapper.selBy${uniqueKey.methodSuffix}(<#list uniqueKey.columnInfos as col>${col.javaName}<#if col_has_next>, </#if></#list>);
+    }
+</#list>
+<#list indexPrefixes![] as indexPrefix>
+
+    /**
+    * 使用索引${indexPrefix.indexName}查询，最多返回limit条记录
+    *
+    * @return 实体列表
+    */
+    public List<${entityName}> listBy${indexPrefix.methodSuffix}(<#list indexPrefix.columnInfos as col>${col.javaType} ${col.javaName}, </#list>int limit) {
+        return ${entityStartByLowCase}Mapper.listBy${indexPrefix.methodSuffix}(<#list indexPrefix.columnInfos as col>${col.javaName}, </#list>limit);
+    }
+</#list>
+<#if sortKey??>
+
+    /**
+    * 游标分页，查询${sortKey.columnName}大于lastKey的一页
+    *
+    * @return 按${sortKey.columnName}升序的实体列表
+    */
+    public List<${entityName}> pageAfter(${sortKey.javaType} lastKey, int pageSize, ${entityName} filter) {
+        return ${entityStartByLowCase}Mapper.pageAfter(lastKey, pageSize, filter);
+    }
+</#if>
+
+    /**
+    * 流式查询，游标需要在事务中遍历，遍历结束后关闭
+    */
+    @Transactional(readOnly = true)
+    public void streamAll(${entityName} filter, Consumer<${entityName}> consumer) {
+        try (Cursor<${entityName}> cursor = ${entityStartByLowCase}Mapper.streamAll(filter)) {
+            for (${entityName} ${entityStartByLowCase} : cursor) {
+                consumer.accept(${entityStartByLowCase});
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+<#if cache>
+
+    /**
+    * 缓存命中统计<#if idCache>，合计按id缓存和总数缓存</#if>
+    *
+    * @return 命中次数、未命中次数等统计信息
+    */
+    public CacheStats cacheStats() {
+        return <#if idCache>entityCache.stats().plus(countCache.stats())<#else>countCache.stats()</#if>;
+    }
+</#if>
+<#if countCached>
+
+    /**
+     * 数据变更后失效缓存，事务中在提交后再失效一次，避免提交前重新加载的旧数据留在缓存中
+     */
+    private void evictCache(<#if idCache>Collection<${keyType}> ids</#if>) {
+<#if idCache>
+        // 缓存不支持null键，主键为空的记录不会在缓存中
+        List<${keyType}> keys = ids.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        entityCache.invalidateAll(keys);
+</#if>
+        countCache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+<#if idCache>
+                    entityCache.invalidateAll(keys);
+</#if>
+                    countCache.invalidateAll();
+                }
+            });
+        }
+    }
+</#if>
 
 }
\ No newline at end of file
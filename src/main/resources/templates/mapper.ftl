@@ -3,7 +3,14 @@ package ${packageUrl};
 import ${entityUrl}.${entityName};
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+<#list keyImportPackages![] as package>
+import ${package};
+</#list>
 
+<#if idColumn?? || (foreignKeyInfos![])?has_content>
+import java.util.Collection;
+</#if>
 import java.util.List;
 
 /**
@@ -11,6 +18,8 @@ import java.util.List;
 * @作者: ${author} powered By noWork.fun
 * @创建时间: ${curTime}
 **/
+<#-- 单列主键使用主键类型，复合主键使用实体作为主键参数 -->
+<#if idColumn??><#assign keyType = idColumn.javaType keyName = "id"><#else><#assign keyType = entityName keyName = "key"></#if>
 @Mapper
 public interface ${entityName}Mapper {
 
@@ -29,11 +38,63 @@ public interface ${entityName}Mapper {
     Long totalSize();
 
     /**
-    * 通过id查询对象
+    * 是否存在满足筛选条件的记录
+    *
+    * @return 存在时返回1，不存在时返回null
+    */
+    Integer exists(${entityName} ${entityStartByLowCase});
+
+    /**
+    * 数据库统计信息中的估算总数
+    *
+    * @return 估算总数，没有统计信息时返回null
+    */
+    Long estimatedTotal();
+<#if idColumn?? || compositeKey>
+
+    /**
+    * 通过id查询对象<#if heavyColumnInfos?has_content>，不包含大字段</#if>
     *
     * @return 实体对象
     */
-    ${entityName} selById(Long id);
+    ${entityName} selById(${keyType} ${keyName});
+</#if>
+<#if idColumn??>
+
+    /**
+    * 通过id列表查询对象，调用方需控制id数量不超过数据库in列表的限制
+    *
+    * @return 实体列表
+    */
+    List<${entityName}> selByIds(@Param("ids") Collection<${keyType}> ids);
+</#if>
+<#if heavyColumnInfos?has_content>
+
+    /**
+    * 通过id查询对象，包含延迟加载的大字段
+    *
+    * @return 实体对象
+    */
+    ${entityName} selDetailById(${keyType} ${keyName});
+<#list heavyColumnInfos as col>
+
+    /**
+    * 通过id查询大字段${col.columnName}
+    *
+    * @return 字段值
+    */
+    ${col.javaType} load${col.javaName?cap_first}ById(${keyType} ${keyName});
+</#list>
+</#if>
+<#list foreignKeyInfos![] as fk>
+
+    /**
+    * 按外键${fk.columnInfo.columnName}的值列表查询
+    *
+    * @return 实体列表
+    */
+    List<${entityName}> listBy${fk.columnInfo.javaName?cap_first}In(@Param("ids") Collection<${fk.columnInfo.javaType}> ids);
+</#list>
 
     /**
     * 新增
@@ -41,6 +102,7 @@ public interface ${entityName}Mapper {
     * @return 新增结果
     */
     Integer add(${entityName} ${entityStartByLowCase});
+<#if primaryKeys?has_content && updateColumnInfos?has_content>
 
     /**
     * 更新
@@ -48,20 +110,41 @@ public interface ${entityName}Mapper {
     * @return 更新结果
     */
     Integer update(${entityName} ${entityStartByLowCase});
+</#if>
+<#if insertColumnInfos?has_content>
+
+    /**
+    * 批量新增，多行values在一条语句中插入，调用方需控制每批的行数
+    *
+    * @return 新增结果
+    */
+    Integer addBatch(@Param("list") List<${entityName}> list);
+</#if>
+<#if primaryKeys?has_content>
+
+    /**
+    * 批量新增或更新，主键冲突时更新非主键字段，调用方需控制每批的行数
+    *
+    * @return 数据库返回的影响行数
+    */
+    Integer upsertBatch(@Param("list") List<${entityName}> list);
+</#if>
+<#if idColumn?? || compositeKey>
 
     /**
     * 通过id删除单条记录
     *
     * @return 删除结果
     */
-    Integer delById(Long id);
+    Integer delById(${keyType} ${keyName});
 
     /**
-    * 使用id列表批量删除
+    * 使用id列表批量删除，调用方需控制id数量不超过数据库in列表的限制
     *
     * @return 批量删除结果
     */
-    Integer delBatchByIdList(Long[] ids);
+    Integer delBatchByIdList(${keyType}[] ids);
+</#if>
 
     /**
     * 使用对象进行筛查后分页
@@ -76,5 +159,39 @@ public interface ${entityName}Mapper {
     * @return 数据总条数
     */
     Integer total(${entityName} ${entityStartByLowCase});
+<#list uniqueKeys![] as uniqueKey>
+
+    /**
+    * 通过唯一索引${uniqueKey.indexName}查询对象
+    *
+    * @return 实体对象
+    */
+    ${entityName} selBy${uniqueKey.methodSuffix}(<#list uniqueKey.columnInfos as col>@Param("${col.javaName}") ${col.javaType} ${col.javaName}<#if col_has_next>, </#if></#list>);
+</#list>
+<#list indexPrefixes![] as indexPrefix>
+
+    /**
+    * 使用索引${indexPrefix.indexName}查询，最多返回limit条记录
+    *
+    * @return 实体列表
+    */
+    List<${entityName}> listBy${indexPrefix.methodSuffix}(<#list indexPrefix.columnInfos as col>@Param("${col.javaName}") ${col.javaType} ${col.javaName}, </#list>@Param("limit") int limit);
+</#list>
+<#if sortKey??>
+
+    /**
+    * 游标分页，查询${sortKey.columnName}大于lastKey的一页，不使用offset，查询耗时与翻页深度无关
+    *
+    * @return 按${sortKey.columnName}升序的实体列表
+    */
+    List<${entityName}> pageAfter(@Param("lastKey") ${sortKey.javaType} lastKey, @Param("pageSize") int pageSize, @Param("filter") ${entityName} filter);
+</#if>
+
+    /**
+    * 流式查询，按fetchSize分批从数据库读取，需在事务中遍历并在遍历结束后关闭
+    *
+    * @return 实体游标
+    */
+    Cursor<${entityName}> streamAll(@Param("filter") ${entityName} filter);
 
 }
\ No newline at end of file
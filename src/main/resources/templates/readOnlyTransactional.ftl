@@ -0,0 +1,22 @@
+package ${packageUrl}.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @说明: 只读事务，使用ReadWriteRoutingDataSource时路由到从库
+ * 加入已有的读写事务时沿用外层事务的连接，仍然访问主库
+ * @作者: ${author} powered By noWork.fun
+ * @创建时间: ${curTime}
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -0,0 +1,60 @@
+package ${packageUrl}.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @说明: 读写分离数据源，只读事务轮询使用从库，其余访问主库
+ * @作者: ${author} powered By noWork.fun
+ * @创建时间: ${curTime}
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica-";
+
+    private final int replicaCount;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ReadWriteRoutingDataSource(int replicaCount) {
+        this.replicaCount = replicaCount;
+    }
+
+    /**
+     * 创建读写分离数据源
+     * 事务管理器在开启事务时就会获取连接，此时还没有设置只读标记，因此需要使用LazyConnectionDataSourceProxy延迟到第一条语句执行时再获取连接
+     *
+     * @param primary  主库
+     * @param replicas 从库，为空时全部访问主库
+     * @return 包装后的数据源，作为应用的主数据源注册
+     */
+    public static DataSource create(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicas.size());
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaCount == 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return REPLICA + Math.floorMod(next.getAndIncrement(), replicaCount);
+    }
+}
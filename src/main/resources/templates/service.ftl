@@ -1,16 +1,39 @@
 package ${packageUrl};
 
 
+<#if cacheEnable!false>
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+</#if>
 import com.github.pagehelper.PageInfo;
 import ${entityUrl}.${entityName};
+<#-- 外键引用的父表实体，引用自身的外键不需要导入 -->
+<#assign relationParents = []>
+<#list foreignKeyInfos![] as fk>
+<#if !fk.selfReference && !relationParents?seq_contains(fk.parentEntityName)><#assign relationParents = relationParents + [fk.parentEntityName]></#if>
+</#list>
+<#list relationParents as parent>
+import ${entityUrl}.${parent};
+</#list>
 
+<#if idColumn?? || (foreignKeyInfos![])?has_content>
+import java.util.Collection;
+</#if>
 import java.util.List;
+<#if idColumn?? || (foreignKeyInfos![])?has_content>
+import java.util.Map;
+</#if>
+import java.util.function.Consumer;
+<#list keyImportPackages![] as package>
+import ${package};
+</#list>
 
 /**
 * @说明: ${tableComment}业务接口层
 * @作者: ${author} powered By noWork.fun
 * @创建时间: ${curTime}
 **/
+<#-- 单列主键使用主键类型，复合主键使用实体作为主键参数 -->
+<#if idColumn??><#assign keyType = idColumn.javaType keyName = "id"><#else><#assign keyType = entityName keyName = "key"></#if>
 public interface ${entityName}Service {
 
     /**
@@ -29,11 +52,70 @@ public interface ${entityName}Service {
     Long totalSize();
 
     /**
-     * 通过id查询对象
+     * 是否存在满足筛选条件的记录，不统计总数
+     *
+     * @return 是否存在
+     */
+    boolean exists(${entityName} ${entityStartByLowCase});
+
+    /**
+     * 数据库统计信息中的估算总数，没有统计信息时返回精确总数
+     *
+     * @return 估算总数
+     */
+    Long estimatedTotal();
+<#if idColumn?? || compositeKey>
+
+    /**
+     * 通过id查询对象<#if heavyColumnInfos?has_content>，不包含大字段</#if>
+     *
+     * @return 实体对象
+     */
+    ${entityName} selById(${keyType} ${keyName});
+</#if>
+<#if idColumn??>
+
+    /**
+     * 通过id列表查询对象，id列表按${inListChunkSize?c}个一组分批查询
+     *
+     * @return id到实体对象的映射，不存在的id不包含在结果中
+     */
+    Map<${keyType}, ${entityName}> selByIds(Collection<${keyType}> ids);
+</#if>
+<#if heavyColumnInfos?has_content>
+
+    /**
+     * 通过id查询对象，包含延迟加载的大字段
      *
      * @return 实体对象
      */
-    ${entityName} selById(Long id);
+    ${entityName} selDetailById(${keyType} ${keyName});
+<#list heavyColumnInfos as col>
+
+    /**
+     * 通过id查询大字段${col.columnName}
+     *
+     * @return 字段值
+     */
+    ${col.javaType} load${col.javaName?cap_first}ById(${keyType} ${keyName});
+</#list>
+</#if>
+<#list foreignKeyInfos![] as fk>
+
+    /**
+     * 批量加载外键${fk.columnInfo.columnName}引用的${fk.parentEntityName}，一次按id列表查询
+     *
+     * @return ${fk.columnInfo.javaName}到${fk.parentEntityName}的映射，不存在的记录不包含在结果中
+     */
+    Map<${fk.columnInfo.javaType}, ${fk.parentEntityName}> load${fk.relationName}For(List<${entityName}> list);
+
+    /**
+     * 按外键${fk.columnInfo.columnName}的值列表批量查询
+     *
+     * @return ${fk.columnInfo.javaName}到实体列表的映射，没有记录的值不包含在结果中
+     */
+    Map<${fk.columnInfo.javaType}, List<${entityName}>> listBy${fk.columnInfo.javaName?cap_first}In(Collection<${fk.columnInfo.javaType}> ids);
+</#list>
 
     /**
      * 新增
@@ -41,6 +123,7 @@ public interface ${entityName}Service {
      * @return 新增结果
      */
     Integer add(${entityName} ${entityStartByLowCase});
+<#if primaryKeys?has_content && updateColumnInfos?has_content>
 
     /**
      * 更新
@@ -48,20 +131,41 @@ public interface ${entityName}Service {
      * @return 更新结果
      */
     Integer update(${entityName} ${entityStartByLowCase});
+</#if>
+<#if insertColumnInfos?has_content>
+
+    /**
+     * 批量新增，按行数和语句大小分批执行
+     *
+     * @return 新增结果
+     */
+    Integer addBatch(List<${entityName}> list);
+</#if>
+<#if primaryKeys?has_content>
+
+    /**
+     * 批量新增或更新，主键冲突时更新非主键字段，按行数和语句大小分批执行
+     *
+     * @return 数据库返回的影响行数
+     */
+    Integer upsertBatch(List<${entityName}> list);
+</#if>
+<#if idColumn?? || compositeKey>
 
     /**
      * 通过id删除单条记录
      *
      * @return 删除结果
      */
-    Integer delById(Long id);
+    Integer delById(${keyType} ${keyName});
 
     /**
-     * 使用id列表批量删除
+     * 使用id列表批量删除，id列表按${inListChunkSize?c}个一组分批删除
      *
      * @return 批量删除结果
      */
-    Integer delBatchByIdList(List<Long> ids);
+    Integer delBatchByIdList(List<${keyType}> ids);
+</#if>
 
     /**
     * 使用对象进行筛选后分页
@@ -70,11 +174,65 @@ public interface ${entityName}Service {
     */
     PageInfo<${entityName}> page(${entityName} ${entityStartByLowCase}, int pageNum, int pageSize);
 
+    /**
+    * 使用对象进行筛选后分页，count为false时不查询总数，返回的total为-1
+    *
+    * @return 使用对象进行筛选后分页
+    */
+    PageInfo<${entityName}> page(${entityName} ${entityStartByLowCase}, int pageNum, int pageSize, boolean count);
+
     /**
     * 数据总条数
     *
     * @return 数据总条数
     */
     Integer total(${entityName} ${entityStartByLowCase});
+<#list uniqueKeys![] as uniqueKey>
+
+    /**
+     * 通过唯一索引${uniqueKey.indexName}查询对象
+     *
+     * @return 实体对象
+     */
+    ${entityName} selBy${uniqueKey.methodSuffix}(<#list uniqueKey.columnInfos as col>${col.javaType} ${col.javaName}<#if col_has_next>, </#if></#list>);
+</#list>
+<#list indexPrefixes![] as indexPrefix>
+
+    /**
+     * 使用索引${indexPrefix.indexName}查询，最多返回limit条记录
+     *
+     * @return 实体列表
+     */
+    List<${entityName}> listBy${indexPrefix.methodSuffix}(<#list indexPrefix.columnInfos as col>${col.javaType} ${col.javaName}, </#list>int limit);
+</#list>
+<#if sortKey??>
+
+    /**
+    * 游标分页，查询${sortKey.columnName}大于lastKey的一页
+    *
+    * @param lastKey  上一页最后一条记录的${sortKey.javaName}，为空时查询第一页
+    * @param pageSize 每页数量
+    * @param filter   筛选条件，可为空
+    * @return 按${sortKey.columnName}升序的实体列表
+    */
+    List<${entityName}> pageAfter(${sortKey.javaType} lastKey, int pageSize, ${entityName} filter);
+</#if>
+
+    /**
+     * 流式查询，按fetchSize分批从数据库读取并逐条交给consumer处理，内存占用与结果数量无关
+     *
+     * @param filter   筛选条件，可为空
+     * @param consumer 逐条处理查询结果
+     */
+    void streamAll(${entityName} filter, Consumer<${entityName}> consumer);
+<#if cacheEnable!false>
+
+    /**
+     * 缓存命中统计
+     *
+     * @return 命中次数、未命中次数等统计信息
+     */
+    CacheStats cacheStats();
+</#if>
 
 }
\ No newline at end of file
@@ -1,3 +1,22 @@
+<#assign dbType = databaseType!"">
+<#-- 开启大字段延迟加载时，列表、分页和selById只查询lightColumns -->
+<#assign lightColumns = lightColumnInfos!columnInfos>
+<#assign heavyColumns = heavyColumnInfos![]>
+<#-- 按数据库类型限制返回行数，SQL Server的offset fetch必须带order by -->
+<#macro limitRows param ordered=true>
+<#if dbType == "ORACLE" || dbType == "DB2">
+        fetch first <#noparse>#</#noparse>{${param}} rows only
+<#elseif dbType == "SQL_SERVER">
+<#if !ordered>
+        order by (select null)
+</#if>
+        offset 0 rows fetch next <#noparse>#</#noparse>{${param}} rows only
+<#else>
+        limit <#noparse>#</#noparse>{${param}}
+</#if>
+</#macro>
+<#-- 主键条件，prefix为参数的属性前缀 -->
+<#macro keyCondition prefix=""><#list primaryKeys as col>${col.columnName} = <#noparse>#</#noparse>{${prefix}${col.javaName}}<#if col_has_next> and </#if></#list></#macro>
 <?xml version="1.0" encoding="UTF-8" ?>
 <!DOCTYPE mapper PUBLIC "-//mybatis.org//DTD Mapper 3.0//EN" "http://mybatis.org/dtd/mybatis-3-mapper.dtd" >
 <mapper namespace="${mapperUrl}.${entityName}Mapper">
@@ -9,10 +28,18 @@
     </resultMap>
 
     <sql id="sel${entityStartByLowCase}Vo">
+        <#list lightColumns as col>
+            ${col.columnName}<#if col_has_next>,</#if>
+        </#list>
+    </sql>
+<#if heavyColumns?has_content>
+
+    <sql id="sel${entityStartByLowCase}DetailVo">
         <#list columnInfos as col>
             ${col.columnName}<#if col_has_next>,</#if>
         </#list>
     </sql>
+</#if>
 
     <select id="list" parameterType="${entityUrl}.${entityName}" resultMap="${entityName}Result">
         select
@@ -20,26 +47,137 @@
         from ${tableName}
         <where>
             <#list columnInfos as col>
-                <if test="${col.javaName} != null> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if>
+                <if test="${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
             </#list>
         </where>
-        order by id desc
+<#if primaryKeys?has_content>
+        order by <#list primaryKeys as col>${col.columnName} desc<#if col_has_next>, </#if></#list>
+</#if>
     </select>
 
     <select id="totalSize" resultType="java.lang.Long">
         select count(*) from ${tableName}
         <where>
             <#list columnInfos as col>
-                <if test="${col.javaName} != null> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if>
+                <if test="${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
             </#list>
         </where>
     </select>
 
-    <select id="selById" parameterType="Long" resultMap="${entityName}Result">
+    <!-- 只判断是否存在，找到第一条记录即返回，不统计总数 -->
+    <select id="exists" parameterType="${entityUrl}.${entityName}" resultType="java.lang.Integer">
+        select <#if dbType == "SQL_SERVER">top 1 </#if>1 from ${tableName}
+        <where>
+            <#list columnInfos as col>
+                <if test="${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
+            </#list>
+        </where>
+<#if dbType == "ORACLE" || dbType == "DB2">
+        fetch first 1 rows only
+<#elseif dbType != "SQL_SERVER">
+        limit 1
+</#if>
+    </select>
+
+    <!-- 从数据库统计信息中读取估算行数，统计信息不存在时返回空 -->
+    <select id="estimatedTotal" resultType="java.lang.Long">
+<#if dbType == "MYSQL">
+        select TABLE_ROWS from information_schema.TABLES
+        where TABLE_SCHEMA = database() and TABLE_NAME = '${tableName}'
+<#elseif dbType == "POSTGRESQL">
+        select case when reltuples &lt; 0 then null else cast(reltuples as bigint) end from pg_class
+        where oid = to_regclass('${tableName}')
+<#elseif dbType == "SQL_SERVER">
+        select sum(rows) from sys.partitions
+        where object_id = object_id('${tableName}') and index_id in (0, 1)
+<#elseif dbType == "ORACLE">
+        select NUM_ROWS from USER_TABLES
+        where TABLE_NAME = '${tableName?upper_case}'
+<#elseif dbType == "DB2">
+        select case when CARD &lt; 0 then null else CARD end from SYSCAT.TABLES
+        where TABSCHEMA = CURRENT SCHEMA and TABNAME = '${tableName?upper_case}'
+<#else>
+        <!-- 没有可用的统计信息视图，使用精确总数 -->
+        select count(*) from ${tableName}
+</#if>
+    </select>
+
+<#if idColumn??>
+    <select id="selById" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        where ${idColumn.columnName} = <#noparse>#</#noparse>{id}
+    </select>
+
+    <select id="selByIds" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        where ${idColumn.columnName} in
+        <foreach item="id" collection="ids" open="(" separator="," close=")">
+            <#noparse>#</#noparse>{id}
+        </foreach>
+    </select>
+
+<#elseif compositeKey>
+    <select id="selById" parameterType="${entityUrl}.${entityName}" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        where <@keyCondition/>
+    </select>
+
+</#if>
+<#if heavyColumns?has_content>
+<#-- 单列主键的参数为id，复合主键的参数为实体 -->
+<#if idColumn??><#assign keyWhere = idColumn.columnName + " = #" + "{id}"><#else><#assign keyWhere><@keyCondition/></#assign></#if>
+    <select id="selDetailById" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}DetailVo"/>
+        from ${tableName}
+        where ${keyWhere}
+    </select>
+
+<#list heavyColumns as col>
+    <select id="load${col.javaName?cap_first}ById" resultType="<#if col.javaType == "byte[]">_byte[]<#else>java.lang.String</#if>">
+        select ${col.columnName} from ${tableName}
+        where ${keyWhere}
+    </select>
+
+</#list>
+</#if>
+<#list foreignKeyInfos![] as fk>
+    <select id="listBy${fk.columnInfo.javaName?cap_first}In" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        where ${fk.columnInfo.columnName} in<#if !fk.columnInfo.indexed> <!-- 无索引，会全表扫描 --></#if>
+        <foreach item="id" collection="ids" open="(" separator="," close=")">
+            <#noparse>#</#noparse>{id}
+        </foreach>
+    </select>
+
+</#list>
+<#list uniqueKeys![] as uniqueKey>
+    <select id="selBy${uniqueKey.methodSuffix}" resultMap="${entityName}Result">
+        select
         <include refid="sel${entityStartByLowCase}Vo"/>
-        where id = <#noparse>#</#noparse>{id}
+        from ${tableName}
+        where <#list uniqueKey.columnInfos as col>${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}<#if col_has_next> and </#if></#list>
     </select>
 
+</#list>
+<#list indexPrefixes![] as indexPrefix>
+    <select id="listBy${indexPrefix.methodSuffix}" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        where <#list indexPrefix.columnInfos as col>${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}<#if col_has_next> and </#if></#list>
+        <@limitRows param="limit" ordered=false/>
+    </select>
+
+</#list>
     <insert id="add" parameterType="${entityUrl}.${entityName}">
         insert into ${tableName}
         <trim prefix="(" suffix=")" suffixOverrides=",">
@@ -54,32 +192,144 @@
         </trim>
     </insert>
 
+<#if insertColumnInfos?has_content>
+    <insert id="addBatch">
+        insert into ${tableName} (<#list insertColumnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>)
+<#if dbType == "ORACLE">
+        <foreach collection="list" item="item" separator=" union all ">
+            select <#list insertColumnInfos as col><#noparse>#</#noparse>{item.${col.javaName}}<#if col_has_next>, </#if></#list> from dual
+        </foreach>
+<#else>
+        values
+        <foreach collection="list" item="item" separator=",">
+            (<#list insertColumnInfos as col><#noparse>#</#noparse>{item.${col.javaName}}<#if col_has_next>, </#if></#list>)
+        </foreach>
+</#if>
+    </insert>
+
+</#if>
+<#if primaryKeys?has_content>
+    <insert id="upsertBatch">
+<#if dbType == "ORACLE">
+        merge into ${tableName} t
+        using (
+        <foreach collection="list" item="item" separator=" union all ">
+            select <#list columnInfos as col><#noparse>#</#noparse>{item.${col.javaName}} ${col.columnName}<#if col_has_next>, </#if></#list> from dual
+        </foreach>
+        ) s
+        on (<#list primaryKeys as col>t.${col.columnName} = s.${col.columnName}<#if col_has_next> and </#if></#list>)
+<#if updateColumnInfos?has_content>
+        when matched then update set <#list updateColumnInfos as col>t.${col.columnName} = s.${col.columnName}<#if col_has_next>, </#if></#list>
+</#if>
+        when not matched then insert (<#list insertColumnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>) values (<#list insertColumnInfos as col>s.${col.columnName}<#if col_has_next>, </#if></#list>)
+<#elseif dbType == "SQL_SERVER" || dbType == "DB2">
+        merge into ${tableName} as t
+        using (values
+        <foreach collection="list" item="item" separator=",">
+            (<#list columnInfos as col><#noparse>#</#noparse>{item.${col.javaName}}<#if col_has_next>, </#if></#list>)
+        </foreach>
+        ) as s (<#list columnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>)
+        on (<#list primaryKeys as col>t.${col.columnName} = s.${col.columnName}<#if col_has_next> and </#if></#list>)
+<#if updateColumnInfos?has_content>
+        when matched then update set <#list updateColumnInfos as col>${col.columnName} = s.${col.columnName}<#if col_has_next>, </#if></#list>
+</#if>
+        when not matched then insert (<#list insertColumnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>) values (<#list insertColumnInfos as col>s.${col.columnName}<#if col_has_next>, </#if></#list>)<#if dbType == "SQL_SERVER">;</#if>
+<#elseif dbType == "H2">
+        merge into ${tableName} (<#list columnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>)
+        key (<#list primaryKeys as col>${col.columnName}<#if col_has_next>, </#if></#list>)
+        values
+        <foreach collection="list" item="item" separator=",">
+            (<#list columnInfos as col><#noparse>#</#noparse>{item.${col.javaName}}<#if col_has_next>, </#if></#list>)
+        </foreach>
+<#else>
+        insert into ${tableName} (<#list columnInfos as col>${col.columnName}<#if col_has_next>, </#if></#list>)
+        values
+        <foreach collection="list" item="item" separator=",">
+            (<#list columnInfos as col><#noparse>#</#noparse>{item.${col.javaName}}<#if col_has_next>, </#if></#list>)
+        </foreach>
+<#if dbType == "POSTGRESQL">
+        on conflict (<#list primaryKeys as col>${col.columnName}<#if col_has_next>, </#if></#list>) <#if updateColumnInfos?has_content>do update set <#list updateColumnInfos as col>${col.columnName} = excluded.${col.columnName}<#if col_has_next>, </#if></#list><#else>do nothing</#if>
+<#else>
+        on duplicate key update <#if updateColumnInfos?has_content><#list updateColumnInfos as col>${col.columnName} = values(${col.columnName})<#if col_has_next>, </#if></#list><#else>${primaryKeys[0].columnName} = ${primaryKeys[0].columnName}</#if>
+</#if>
+</#if>
+    </insert>
+
+</#if>
+<#if primaryKeys?has_content && updateColumnInfos?has_content>
     <update id="update" parameterType="${entityUrl}.${entityName}">
         update ${tableName}
         <trim prefix="SET" suffixOverrides=",">
-            <#list columnInfos as col>
+            <#list updateColumnInfos as col>
                 <if test="${col.javaName} != null">${col.columnName} = <#noparse>#</#noparse>{${col.javaName}},</if>
             </#list>
         </trim>
-        where id = <#noparse>#</#noparse>{id}
+        where <@keyCondition/>
     </update>
 
-    <delete id="delById" parameterType="Long">
-        delete from ${tableName} where id = <#noparse>#</#noparse>{id}
+</#if>
+<#if idColumn??>
+    <delete id="delById">
+        delete from ${tableName} where ${idColumn.columnName} = <#noparse>#</#noparse>{id}
     </delete>
 
-    <delete id="delBatchByIdList" parameterType="Long">
-        delete from ${tableName} where id in
+    <delete id="delBatchByIdList">
+        delete from ${tableName} where ${idColumn.columnName} in
         <foreach item="id" collection="array" open="(" separator="," close=")">
             <#noparse>#</#noparse>{id}
         </foreach>
     </delete>
+<#elseif compositeKey>
+    <delete id="delById" parameterType="${entityUrl}.${entityName}">
+        delete from ${tableName} where <@keyCondition/>
+    </delete>
+
+    <delete id="delBatchByIdList">
+        delete from ${tableName} where
+        <foreach item="key" collection="array" open="(" separator=" or " close=")">
+            (<@keyCondition prefix="key."/>)
+        </foreach>
+    </delete>
+</#if>
+
+<#if sortKey??>
+    <select id="pageAfter" resultMap="${entityName}Result">
+        select
+        <include refid="sel${entityStartByLowCase}Vo"/>
+        from ${tableName}
+        <where>
+            <if test="lastKey != null"> and ${sortKey.columnName} &gt; <#noparse>#</#noparse>{lastKey}</if>
+            <if test="filter != null">
+            <#list columnInfos as col>
+                <if test="filter.${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{filter.${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
+            </#list>
+            </if>
+        </where>
+        order by ${sortKey.columnName} asc
+        <@limitRows param="pageSize"/>
+    </select>
+
+</#if>
+<#-- MySQL驱动只有fetchSize为Integer.MIN_VALUE时才按行流式读取，其余数据库按streamFetchSize分批读取 -->
+<#if dbType == "MYSQL"><#assign fetchSize = -2147483648><#else><#assign fetchSize = streamFetchSize></#if>
+    <select id="streamAll" resultMap="${entityName}Result" fetchSize="${fetchSize?c}" resultSetType="FORWARD_ONLY">
+        select
+        <include refid="sel${entityStartByLowCase}<#if heavyColumns?has_content>Detail</#if>Vo"/>
+        from ${tableName}
+        <where>
+            <if test="filter != null">
+            <#list columnInfos as col>
+                <if test="filter.${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{filter.${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
+            </#list>
+            </if>
+        </where>
+    </select>
 
     <select id="total" parameterType="${entityUrl}.${entityName}" resultType="Integer">
         select count(*) from ${tableName}
         <where>
             <#list columnInfos as col>
-                <if test="${col.javaName} != null> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if>
+                <if test="${col.javaName} != null"> and ${col.columnName} = <#noparse>#</#noparse>{${col.javaName}}</if><#if !col.indexed> <!-- 无索引，单独使用该条件会全表扫描 --></#if>
             </#list>
         </where>
     </select>
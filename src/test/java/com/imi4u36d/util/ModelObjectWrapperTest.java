@@ -0,0 +1,49 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.model.IndexInfo;
+import freemarker.template.TemplateModel;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 模板对象包装器的模型缓存只在一次生成内有效，清除后模型对象可以被回收
+ *
+ * @author wangzhuo
+ */
+class ModelObjectWrapperTest {
+
+    @Test
+    void reusesModelUntilCacheCleared() throws Exception {
+        ModelObjectWrapper wrapper = ModelObjectWrapper.getInstance();
+        IndexInfo indexInfo = new IndexInfo();
+        indexInfo.setIndexName("IX_NAME");
+        TemplateModel model = wrapper.wrap(indexInfo);
+        assertSame(model, wrapper.wrap(indexInfo));
+
+        wrapper.clearCache();
+        assertNotSame(model, wrapper.wrap(indexInfo));
+        wrapper.clearCache();
+    }
+
+    @Test
+    void releasesModelObjectsAfterCacheCleared() throws Exception {
+        ModelObjectWrapper wrapper = ModelObjectWrapper.getInstance();
+        IndexInfo indexInfo = new IndexInfo();
+        indexInfo.setIndexName("IX_NAME");
+        wrapper.wrap(indexInfo);
+        WeakReference<IndexInfo> reference = new WeakReference<>(indexInfo);
+        indexInfo = null;
+
+        wrapper.clearCache();
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+}
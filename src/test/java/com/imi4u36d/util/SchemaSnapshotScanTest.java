@@ -0,0 +1,108 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.config.DBConfiguration;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.ScanMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用表结构快照扫描时，外键需要随配置的表和关联查询开关变化
+ *
+ * @author wangzhuo
+ */
+class SchemaSnapshotScanTest {
+
+    private static final String URL = "jdbc:h2:mem:schema_snapshot_scan_test;DB_CLOSE_DELAY=-1";
+
+    private static Connection connection;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table T_USER (ID bigint primary key, NAME varchar(50))");
+            statement.execute("create table T_USER_ROLE (ID bigint primary key, USER_ID bigint, ROLE varchar(20),"
+                    + " constraint FK_ROLE_USER foreign key (USER_ID) references T_USER (ID))");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        DBUtils.getInstance().closeConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Test
+    void removedParentTableDropsForeignKey() {
+        File snapshotFile = tempDir.resolve("schema-snapshot.bin").toFile();
+        assertEquals(1, scan(snapshotFile, false, true, "T_USER", "T_USER_ROLE").getForeignKeyInfos().size());
+        assertTrue(scan(snapshotFile, false, true, "T_USER_ROLE").getForeignKeyInfos().isEmpty());
+        // 重新加入父表后外键恢复
+        assertEquals(1, scan(snapshotFile, false, true, "T_USER", "T_USER_ROLE").getForeignKeyInfos().size());
+    }
+
+    @Test
+    void enablingRelationRestoresForeignKey() {
+        File snapshotFile = tempDir.resolve("schema-snapshot.bin").toFile();
+        assertTrue(scan(snapshotFile, false, false, "T_USER", "T_USER_ROLE").getForeignKeyInfos().isEmpty());
+        assertEquals(1, scan(snapshotFile, false, true, "T_USER", "T_USER_ROLE").getForeignKeyInfos().size());
+    }
+
+    @Test
+    void offlineScanDropsForeignKeyOfRemovedParent() {
+        File snapshotFile = tempDir.resolve("schema-snapshot.bin").toFile();
+        assertEquals(1, scan(snapshotFile, false, true, "T_USER", "T_USER_ROLE").getForeignKeyInfos().size());
+        assertTrue(scan(snapshotFile, true, true, "T_USER_ROLE").getForeignKeyInfos().isEmpty());
+    }
+
+    /**
+     * 开启表结构快照扫描配置的表
+     *
+     * @return T_USER_ROLE的表信息
+     */
+    private static BasicInfo scan(File snapshotFile, boolean offline, boolean relationEnable, String... tableNames) {
+        List<String> tables = Arrays.asList(tableNames);
+        DBConfiguration dbConfiguration = new DBConfiguration();
+        dbConfiguration.setUrl(URL);
+        dbConfiguration.setUsername("sa");
+        dbConfiguration.setPwd("");
+        dbConfiguration.setDriverClassName("org.h2.Driver");
+        dbConfiguration.setScanMode(ScanMode.BULK);
+        dbConfiguration.setTableNames(tables);
+        dbConfiguration.setSchemaCacheEnable(true);
+        dbConfiguration.setOfflineEnable(offline);
+        dbConfiguration.setSnapshotFile(snapshotFile.getPath());
+        DBUtils.getInstance().setDbConfiguration(dbConfiguration);
+
+        BasicInfo basicInfo = new BasicInfo().toBuilder()
+                .packageUrl("com.example.demo")
+                .lombokEnable(true)
+                .databaseType("H2")
+                .relationEnable(relationEnable)
+                .build();
+        DBUtils.getInstance().scanInfoToModel(basicInfo);
+        assertEquals(tables.size(), DBUtils.getInstance().getTableInfoMap().size());
+        return DBUtils.getInstance().getTableInfoMap().get("T_USER_ROLE");
+    }
+}
@@ -0,0 +1,230 @@
+package com.imi4u36d.util;
+
+import com.imi4u36d.config.DBConfiguration;
+import com.imi4u36d.model.BasicConfig;
+import com.imi4u36d.model.BasicInfo;
+import com.imi4u36d.model.FileType;
+import com.imi4u36d.model.ScanMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 编译模板与FreeMarker的渲染结果必须逐字节一致，覆盖全部内置模板、各数据库方言和常见的表结构
+ *
+ * @author wangzhuo
+ */
+class TemplateCompilerTest {
+
+    private static final String URL = "jdbc:h2:mem:template_compiler_test;DB_CLOSE_DELAY=-1";
+
+    private static final String[] DDL = {
+            // 单列字符串主键，外键引用自身
+            "create table T_CUSTOMER (ID varchar(32) primary key, PARENT_ID varchar(32), NAME varchar(50) not null,"
+                    + " LEVEL int, CREATED_AT timestamp,"
+                    + " constraint FK_CUSTOMER_PARENT foreign key (PARENT_ID) references T_CUSTOMER (ID))",
+            "comment on table T_CUSTOMER is '客户'",
+            "comment on column T_CUSTOMER.NAME is '客户名称'",
+            // 自增主键、唯一索引、多列索引、大字段和外键
+            "create table T_ORDER (ID bigint auto_increment primary key, ORDER_NO varchar(64) not null,"
+                    + " CUSTOMER_ID varchar(32), STATUS int, AMOUNT decimal(18, 2), PAID boolean,"
+                    + " CREATED_AT timestamp, REMARK varchar(8000), DETAIL clob, ATTACHMENT blob,"
+                    + " constraint UK_ORDER_NO unique (ORDER_NO),"
+                    + " constraint FK_ORDER_CUSTOMER foreign key (CUSTOMER_ID) references T_CUSTOMER (ID))",
+            "create index IX_ORDER_CUSTOMER_STATUS on T_ORDER (CUSTOMER_ID, STATUS)",
+            "create index IX_ORDER_CREATED on T_ORDER (CREATED_AT)",
+            "comment on table T_ORDER is '订单'",
+            "comment on column T_ORDER.ORDER_NO is '订单号'",
+            // 联合主键，部分主键字段是外键
+            "create table T_ORDER_ITEM (ORDER_ID bigint, LINE_NO int, SKU varchar(32), QUANTITY int,"
+                    + " PRICE decimal(18, 2), primary key (ORDER_ID, LINE_NO),"
+                    + " constraint FK_ITEM_ORDER foreign key (ORDER_ID) references T_ORDER (ID))",
+            // 没有主键，按配置的排序字段游标分页
+            "create table T_AUDIT_LOG (SEQ_NO bigint not null, ACTION varchar(20), MESSAGE varchar(200),"
+                    + " PAYLOAD clob, CREATED_AT timestamp)",
+            "create index IX_AUDIT_SEQ on T_AUDIT_LOG (SEQ_NO)",
+    };
+
+    private static final List<String> TABLE_NAMES = Arrays.asList("T_CUSTOMER", "T_ORDER", "T_ORDER_ITEM",
+            "T_AUDIT_LOG");
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : DDL) {
+                statement.execute(sql);
+            }
+        }
+
+        Map<String, Map<String, Object>> tableOptions = new HashMap<>();
+        tableOptions.put("T_CUSTOMER", new HashMap<>(Map.of("cacheEnable", true, "cacheTtlSeconds", 60)));
+        tableOptions.put("T_ORDER", new HashMap<>(Map.of("cacheEnable", true, "countCacheTtlSeconds", 30)));
+        tableOptions.put("T_ORDER_ITEM", new HashMap<>(Map.of("countCacheTtlSeconds", 10)));
+        tableOptions.put("T_AUDIT_LOG", new HashMap<>(Map.of("sortKey", "SEQ_NO")));
+
+        DBConfiguration dbConfiguration = new DBConfiguration();
+        dbConfiguration.setUrl(URL);
+        dbConfiguration.setUsername("sa");
+        dbConfiguration.setPwd("");
+        dbConfiguration.setDriverClassName("org.h2.Driver");
+        dbConfiguration.setScanMode(ScanMode.BULK);
+        dbConfiguration.setTableNames(TABLE_NAMES);
+        dbConfiguration.setTableOptions(tableOptions);
+        DBUtils.getInstance().setDbConfiguration(dbConfiguration);
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        DBUtils.getInstance().closeConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @TestFactory
+    List<DynamicTest> compiledTemplatesMatchFreemarker() {
+        BasicConfig basicConfig = basicConfig();
+        Map<String, String> templates = new LinkedHashMap<>();
+        for (FileType fileType : FileType.values()) {
+            templates.put(fileType.getFtlName(), FreemarkerUtils.getTemplate(basicConfig, fileType.getFtlName())
+                    .toString());
+        }
+        Map<String, CompiledTemplate> compiled = TemplateCompiler.compile(templates, null);
+        assertEquals(templates.keySet(), compiled.keySet(), "内置模板应全部支持编译");
+
+        List<DynamicTest> tests = new ArrayList<>();
+        variants().forEach((variant, commonInfo) -> {
+            Map<String, BasicInfo> tableInfoMap = scan(commonInfo);
+            tableInfoMap.forEach((tableName, basicInfo) -> {
+                for (FileType fileType : FileType.values()) {
+                    String ftlName = fileType.getFtlName();
+                    tests.add(DynamicTest.dynamicTest(variant + " " + tableName + " " + ftlName, () -> {
+                        String expected = FreemarkerUtils.renderFile(basicConfig, basicInfo, fileType,
+                                tableName + fileType.getExtension(), null, null).getContent();
+                        StringBuilder actual = new StringBuilder();
+                        compiled.get(ftlName).render(basicInfo, actual);
+                        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                                actual.toString().getBytes(StandardCharsets.UTF_8));
+                    }));
+                }
+            });
+        });
+        return tests;
+    }
+
+    /**
+     * 扫描表结构，检查模型确实包含需要覆盖的结构
+     */
+    private static Map<String, BasicInfo> scan(BasicInfo commonInfo) {
+        DBUtils.getInstance().scanInfoToModel(commonInfo);
+        Map<String, BasicInfo> tableInfoMap = new LinkedHashMap<>(DBUtils.getInstance().getTableInfoMap());
+        assertEquals(TABLE_NAMES.size(), tableInfoMap.size());
+
+        BasicInfo customer = tableInfoMap.get("T_CUSTOMER");
+        BasicInfo order = tableInfoMap.get("T_ORDER");
+        if (commonInfo.getRelationEnable()) {
+            assertFalse(customer.getForeignKeyInfos().isEmpty(), "T_CUSTOMER应包含自引用外键");
+            assertFalse(order.getForeignKeyInfos().isEmpty(), "T_ORDER应包含外键");
+        }
+        if (commonInfo.getLazyLoadEnable()) {
+            assertFalse(order.getHeavyColumnInfos().isEmpty(), "T_ORDER应包含大字段");
+        }
+        assertFalse(order.getUniqueKeys().isEmpty(), "T_ORDER应包含唯一索引");
+        assertFalse(order.getIndexPrefixes().isEmpty(), "T_ORDER应包含索引前缀");
+        BasicInfo orderItem = tableInfoMap.get("T_ORDER_ITEM");
+        assertTrue(orderItem.isCompositeKey(), "T_ORDER_ITEM应为联合主键");
+        BasicInfo auditLog = tableInfoMap.get("T_AUDIT_LOG");
+        assertEquals(0, auditLog.getPrimaryKeys().size(), "T_AUDIT_LOG应没有主键");
+        assertNotNull(auditLog.getSortKey(), "T_AUDIT_LOG应按配置的排序字段分页");
+        return tableInfoMap;
+    }
+
+    /**
+     * 各数据库方言和生成选项的组合，key为组合名称
+     */
+    private static Map<String, BasicInfo> variants() {
+        Map<String, BasicInfo> variants = new LinkedHashMap<>();
+        variants.put("h2", commonInfo("H2").build());
+        variants.put("mysql-openapi", commonInfo("MYSQL")
+                .apiDocType("openapi")
+                .lombokEnable(false)
+                .readWriteSplitEnable(true)
+                .cacheEnable(true)
+                .countCacheTtlSeconds(60)
+                .inListChunkSize(2)
+                .inListExecutor("idsExecutor")
+                .build());
+        variants.put("postgresql-no-api-doc", commonInfo("POSTGRESQL")
+                .swaggerEnable(false)
+                .lazyLoadEnable(false)
+                .relationEnable(false)
+                .build());
+        variants.put("oracle", commonInfo("ORACLE")
+                .heavyColumnSize(100)
+                .build());
+        variants.put("sqlserver", commonInfo("SQL_SERVER")
+                .batchSize(100)
+                .readWriteSplitEnable(true)
+                .build());
+        variants.put("db2", commonInfo("DB2").build());
+        return variants;
+    }
+
+    private static BasicInfo.BasicInfoBuilder commonInfo(String databaseType) {
+        String packageUrl = "com.example.demo";
+        return new BasicInfo().toBuilder()
+                .author("wangzhuo")
+                .packageUrl(packageUrl)
+                .dtoUrl(packageUrl + ".dto")
+                .entityUrl(packageUrl + ".domain")
+                .serviceUrl(packageUrl + ".service")
+                .implUrl(packageUrl + ".service.impl")
+                .mapperUrl(packageUrl + ".mapper")
+                .utilUrl(packageUrl + ".utils")
+                .resUrl(packageUrl + ".res")
+                .swaggerEnable(true)
+                .apiDocType("swagger")
+                .apiDocVersion("3.0")
+                .overWriteEnable(true)
+                .lombokEnable(true)
+                .databaseType(databaseType);
+    }
+
+    private static BasicConfig basicConfig() {
+        return new BasicConfig().toBuilder()
+                .apiDocEnable(true)
+                .apiDocType("swagger")
+                .apiDocVersion("3.0")
+                .overWriteEnable(true)
+                .writeIfChangedEnable(false)
+                .incrementalEnable(false)
+                .lombokEnable(true)
+                .layerSuffix(new HashMap<>())
+                .customProperties(new HashMap<>())
+                .templateEngine(TemplateCompiler.ENGINE_FREEMARKER)
+                .build();
+    }
+}